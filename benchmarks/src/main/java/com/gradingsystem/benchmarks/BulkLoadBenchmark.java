@@ -0,0 +1,115 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.GradeImporter;
+import com.gradingsystem.GradeRecord;
+import com.gradingsystem.GradingSystem;
+import com.gradingsystem.ImportResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load the whole dataset into a system: row by row, as one batch, from a CSV
+ * file, and from a binary snapshot, plus the time to save that snapshot.
+ * <p>
+ * Every invocation starts from a system that already holds the students and courses,
+ * so only grade ingestion is timed.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkLoadBenchmark {
+    @Param({"10000", "100000"})
+    public int students;
+
+    @Param({"200"})
+    public int courses;
+
+    @Param({"8", "32"})
+    public int gradesPerStudent;
+
+    private Dataset dataset;
+    private Path directory;
+    private Path csvFile;
+    private Path snapshotFile;
+    private GradingSystem loaded;
+    private GradingSystem empty;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dataset = new Dataset(students, courses, gradesPerStudent);
+        directory = Files.createTempDirectory("grading-benchmark");
+        csvFile = directory.resolve("grades.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            out.write("student_id,course_code,grade\n");
+            for (GradeRecord record : dataset.getRecords()) {
+                out.write(record.getStudentId() + "," + record.getCourseCode() + "," + record.getGradeValue() + "\n");
+            }
+        }
+        loaded = dataset.fullSystem(0);
+        snapshotFile = directory.resolve("grades.snapshot");
+        loaded.saveSnapshot(snapshotFile);
+    }
+
+    @Setup(Level.Invocation)
+    public void createEmptySystem() {
+        empty = dataset.emptySystem(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(csvFile);
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(directory.resolve("saved.snapshot"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public GradingSystem recordGradeLoop() {
+        for (GradeRecord record : dataset.getRecords()) {
+            empty.recordGrade(record.getStudentId(), record.getCourseCode(), record.getGradeValue());
+        }
+        return empty;
+    }
+
+    @Benchmark
+    public GradingSystem recordGradesBatch() {
+        empty.recordGrades(dataset.getRecords());
+        return empty;
+    }
+
+    @Benchmark
+    public ImportResult importCsv() throws IOException {
+        return new GradeImporter(empty).importGrades(csvFile);
+    }
+
+    @Benchmark
+    public GradingSystem loadSnapshot() throws IOException {
+        return GradingSystem.loadSnapshot(snapshotFile);
+    }
+
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        loaded.saveSnapshot(directory.resolve("saved.snapshot"));
+    }
+}
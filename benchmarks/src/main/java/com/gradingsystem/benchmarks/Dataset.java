@@ -0,0 +1,113 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.Course;
+import com.gradingsystem.GradeRecord;
+import com.gradingsystem.GradingSystem;
+import com.gradingsystem.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A reproducible synthetic dataset of students, courses and grades.
+ * <p>
+ * Every student takes {@code gradesPerStudent} distinct courses, chosen by a seeded
+ * random stride through the course list, with grade values in hundredths between 0 and
+ * 100. The same sizes always give the same dataset.
+ */
+public final class Dataset {
+    private static final long SEED = 42;
+
+    private final int students;
+    private final int courses;
+    private final int gradesPerStudent;
+    private final List<GradeRecord> records;
+
+    /**
+     * Generates a dataset.
+     *
+     * @param students         the number of students
+     * @param courses          the number of courses
+     * @param gradesPerStudent the number of grades per student, at most the number of courses
+     * @throws IllegalArgumentException if gradesPerStudent is larger than courses
+     */
+    public Dataset(int students, int courses, int gradesPerStudent) {
+        if (gradesPerStudent > courses) {
+            throw new IllegalArgumentException("Grades per student cannot exceed the number of courses");
+        }
+        this.students = students;
+        this.courses = courses;
+        this.gradesPerStudent = gradesPerStudent;
+        this.records = new ArrayList<>(students * gradesPerStudent);
+        Random random = new Random(SEED);
+        for (int s = 0; s < students; s++) {
+            int first = random.nextInt(courses);
+            for (int g = 0; g < gradesPerStudent; g++) {
+                records.add(new GradeRecord(studentId(s), courseCode((first + g) % courses), randomGrade(random)));
+            }
+        }
+    }
+
+    public static String studentId(int index) {
+        return String.format("S%07d", index);
+    }
+
+    public static String courseCode(int index) {
+        return String.format("C%05d", index);
+    }
+
+    public static double randomGrade(Random random) {
+        return random.nextInt(10001) / 100.0;
+    }
+
+    public int getStudentCount() {
+        return students;
+    }
+
+    public int getCourseCount() {
+        return courses;
+    }
+
+    public int getGradesPerStudent() {
+        return gradesPerStudent;
+    }
+
+    /**
+     * Gets every grade of the dataset, grouped by student.
+     *
+     * @return the grade records
+     */
+    public List<GradeRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * Creates a system holding the dataset's students and courses but no grades.
+     *
+     * @param lockStripes the number of lock stripes, or 0 for a single-threaded system
+     * @return the new system
+     */
+    public GradingSystem emptySystem(int lockStripes) {
+        GradingSystem gradingSystem = new GradingSystem(lockStripes);
+        for (int s = 0; s < students; s++) {
+            gradingSystem.addStudent(new Student(studentId(s), "Student " + s, "student" + s + "@example.com"));
+        }
+        for (int c = 0; c < courses; c++) {
+            gradingSystem.addCourse(new Course(courseCode(c), "Course " + c, 1 + c % 4));
+        }
+        return gradingSystem;
+    }
+
+    /**
+     * Creates a system holding the whole dataset.
+     *
+     * @param lockStripes the number of lock stripes, or 0 for a single-threaded system
+     * @return the new system
+     */
+    public GradingSystem fullSystem(int lockStripes) {
+        GradingSystem gradingSystem = emptySystem(lockStripes);
+        gradingSystem.recordGrades(records);
+        return gradingSystem;
+    }
+}
@@ -0,0 +1,56 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.GradingSystem;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * A fully loaded, single-threaded system shared by every thread of a benchmark, with
+ * precomputed random keys so that picking a key costs next to nothing.
+ * <p>
+ * The dataset size is set with {@code -p students=... -p courses=... -p gradesPerStudent=...}.
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+    /** The number of precomputed keys; a power of two, so a cursor wraps with a mask. */
+    static final int KEYS = 1 << 16;
+
+    @Param({"10000", "100000"})
+    public int students;
+
+    @Param({"200"})
+    public int courses;
+
+    @Param({"8", "32"})
+    public int gradesPerStudent;
+
+    public Dataset dataset;
+    public GradingSystem gradingSystem;
+
+    /** Random student IDs, each with a course code the student has a grade in. */
+    public String[] studentIds = new String[KEYS];
+    public String[] courseCodes = new String[KEYS];
+    public int[] studentHandles = new int[KEYS];
+    public int[] courseHandles = new int[KEYS];
+    public double[] gradeValues = new double[KEYS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = new Dataset(students, courses, gradesPerStudent);
+        gradingSystem = dataset.fullSystem(0);
+        Random random = new Random(7);
+        for (int i = 0; i < KEYS; i++) {
+            int record = random.nextInt(dataset.getRecords().size());
+            studentIds[i] = dataset.getRecords().get(record).getStudentId();
+            courseCodes[i] = dataset.getRecords().get(record).getCourseCode();
+            studentHandles[i] = gradingSystem.getStudentHandle(studentIds[i]);
+            courseHandles[i] = gradingSystem.getCourseHandle(courseCodes[i]);
+            gradeValues[i] = Dataset.randomGrade(random);
+        }
+    }
+}
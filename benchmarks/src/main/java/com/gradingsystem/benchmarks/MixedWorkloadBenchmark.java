@@ -0,0 +1,163 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.CourseStatistics;
+import com.gradingsystem.GradingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of mixed read/write workloads.
+ * <p>
+ * {@code readMostly} runs one operation stream on a single-threaded system, with
+ * {@code writePercent} of the operations recording a grade and the rest split between
+ * GPA, course average and course statistics reads; it is meant to run on one thread,
+ * the default, as its system is not thread-safe. The {@code shared} group runs three
+ * GPA and average reader threads, one course statistics reader and one writer against
+ * a concurrent system, reporting each role's throughput separately. The
+ * {@code contended} group runs four writers and one class-rank reader against the
+ * same concurrent system, measuring how grade writes scale while the ranking is kept
+ * up to date.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedWorkloadBenchmark {
+
+    /**
+     * A fully loaded system with a precomputed stream of operations.
+     */
+    @State(Scope.Benchmark)
+    public static class Workload {
+        static final int OPERATIONS = 1 << 16;
+
+        @Param({"100000"})
+        public int students;
+
+        @Param({"200"})
+        public int courses;
+
+        @Param({"16"})
+        public int gradesPerStudent;
+
+        @Param({"10", "50"})
+        public int writePercent;
+
+        @Param({"64"})
+        public int lockStripes;
+
+        GradingSystem single;
+        GradingSystem shared;
+        final String[] studentIds = new String[OPERATIONS];
+        final String[] courseCodes = new String[OPERATIONS];
+        final double[] gradeValues = new double[OPERATIONS];
+        final byte[] kinds = new byte[OPERATIONS];
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Dataset dataset = new Dataset(students, courses, gradesPerStudent);
+            single = dataset.fullSystem(0);
+            shared = dataset.fullSystem(lockStripes);
+            Random random = new Random(11);
+            for (int i = 0; i < OPERATIONS; i++) {
+                int record = random.nextInt(dataset.getRecords().size());
+                studentIds[i] = dataset.getRecords().get(record).getStudentId();
+                courseCodes[i] = dataset.getRecords().get(record).getCourseCode();
+                gradeValues[i] = Dataset.randomGrade(random);
+                kinds[i] = random.nextInt(100) < writePercent ? 0 : (byte) (1 + random.nextInt(3));
+            }
+        }
+    }
+
+    /**
+     * Each thread's position in the operation stream, starting at a different offset.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final Random OFFSETS = new Random(3);
+        int position;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            synchronized (OFFSETS) {
+                position = OFFSETS.nextInt(Workload.OPERATIONS);
+            }
+        }
+
+        int next() {
+            return position++ & (Workload.OPERATIONS - 1);
+        }
+    }
+
+    @Benchmark
+    public Object readMostly(Workload workload, Cursor cursor) {
+        int i = cursor.next();
+        GradingSystem gradingSystem = workload.single;
+        switch (workload.kinds[i]) {
+            case 0:
+                gradingSystem.recordGrade(workload.studentIds[i], workload.courseCodes[i], workload.gradeValues[i]);
+                return null;
+            case 1:
+                return gradingSystem.calculateGPA(workload.studentIds[i]);
+            case 2:
+                return gradingSystem.calculateCourseAverage(workload.courseCodes[i]);
+            default:
+                return gradingSystem.getCourseStatistics(workload.courseCodes[i]);
+        }
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(3)
+    public double sharedReader(Workload workload, Cursor cursor) {
+        int i = cursor.next();
+        return workload.shared.calculateGPA(workload.studentIds[i])
+                + workload.shared.calculateCourseAverage(workload.courseCodes[i]);
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(1)
+    public void sharedWriter(Workload workload, Cursor cursor) {
+        int i = cursor.next();
+        workload.shared.recordGrade(workload.studentIds[i], workload.courseCodes[i], workload.gradeValues[i]);
+    }
+
+    @Benchmark
+    @Group("shared")
+    @GroupThreads(1)
+    public CourseStatistics sharedStatistics(Workload workload, Cursor cursor) {
+        return workload.shared.getCourseStatistics(workload.courseCodes[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public void contendedWriter(Workload workload, Cursor cursor) {
+        int i = cursor.next();
+        workload.shared.recordGrade(workload.studentIds[i], workload.courseCodes[i], workload.gradeValues[i]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public int contendedRank(Workload workload, Cursor cursor) {
+        return workload.shared.rankOf(workload.studentIds[cursor.next()]);
+    }
+}
@@ -0,0 +1,75 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.GradingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of removing students and courses, grades included.
+ * <p>
+ * Removal destroys the data it measures, so the system is rebuilt before every
+ * iteration and each iteration times a fixed batch of removals of distinct students or
+ * courses. The reported time is for the whole batch: 1000 students or 20 courses.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class RemovalBenchmark {
+    private static final int STUDENT_BATCH = 1000;
+    private static final int COURSE_BATCH = 20;
+
+    @Param({"10000", "100000"})
+    public int students;
+
+    @Param({"200"})
+    public int courses;
+
+    @Param({"8", "32"})
+    public int gradesPerStudent;
+
+    private Dataset dataset;
+    private GradingSystem gradingSystem;
+    private int nextStudent;
+    private int nextCourse;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        dataset = new Dataset(students, courses, gradesPerStudent);
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        gradingSystem = dataset.fullSystem(0);
+        nextStudent = 0;
+        nextCourse = 0;
+    }
+
+    @Benchmark
+    @Warmup(batchSize = STUDENT_BATCH)
+    @Measurement(batchSize = STUDENT_BATCH)
+    public boolean removeStudent() {
+        return gradingSystem.removeStudent(Dataset.studentId(nextStudent++));
+    }
+
+    @Benchmark
+    @Warmup(batchSize = COURSE_BATCH)
+    @Measurement(batchSize = COURSE_BATCH)
+    public boolean removeCourse() {
+        return gradingSystem.removeCourse(Dataset.courseCode(nextCourse++));
+    }
+}
@@ -0,0 +1,96 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.CourseStatistics;
+import com.gradingsystem.Grade;
+import com.gradingsystem.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of single reads and writes against a fully loaded system.
+ * <p>
+ * Each invocation uses the next precomputed random key, so the working set is spread
+ * over the whole dataset. Grade writes replace an existing grade, which keeps the size
+ * of the system constant across iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SingleOperationBenchmark {
+    private int cursor;
+
+    private int next() {
+        return cursor++ & (DatasetState.KEYS - 1);
+    }
+
+    @Benchmark
+    public void recordGrade(DatasetState state) {
+        int i = next();
+        state.gradingSystem.recordGrade(state.studentIds[i], state.courseCodes[i], state.gradeValues[i]);
+    }
+
+    @Benchmark
+    public void recordGradeByHandle(DatasetState state) {
+        int i = next();
+        state.gradingSystem.recordGrade(state.studentHandles[i], state.courseHandles[i], state.gradeValues[i]);
+    }
+
+    @Benchmark
+    public double calculateGPA(DatasetState state) {
+        return state.gradingSystem.calculateGPA(state.studentIds[next()]);
+    }
+
+    @Benchmark
+    public double calculateGPAByHandle(DatasetState state) {
+        return state.gradingSystem.calculateGPA(state.studentHandles[next()]);
+    }
+
+    @Benchmark
+    public double calculateCourseAverage(DatasetState state) {
+        return state.gradingSystem.calculateCourseAverage(state.courseCodes[next()]);
+    }
+
+    @Benchmark
+    public CourseStatistics getCourseStatistics(DatasetState state) {
+        return state.gradingSystem.getCourseStatistics(state.courseCodes[next()]);
+    }
+
+    @Benchmark
+    public int rankOf(DatasetState state) {
+        return state.gradingSystem.rankOf(state.studentIds[next()]);
+    }
+
+    @Benchmark
+    public List<Student> topStudentsByGpa(DatasetState state) {
+        return state.gradingSystem.topStudentsByGpa(100);
+    }
+
+    @Benchmark
+    public List<Grade> topGradesForCourse(DatasetState state) {
+        return state.gradingSystem.topGradesForCourse(state.courseCodes[next()], 10);
+    }
+
+    @Benchmark
+    public Collection<Grade> getGradesForStudent(DatasetState state) {
+        return state.gradingSystem.getGradesForStudent(state.studentIds[next()]);
+    }
+
+    @Benchmark
+    public Collection<Grade> getGradesForCourse(DatasetState state) {
+        return state.gradingSystem.getGradesForCourse(state.courseCodes[next()]);
+    }
+}
@@ -0,0 +1,73 @@
+package com.gradingsystem.benchmarks;
+
+import com.gradingsystem.Grade;
+import com.gradingsystem.GradingSystem;
+import com.gradingsystem.Student;
+import com.gradingsystem.Transcript;
+import com.gradingsystem.TranscriptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build every student's transcript: one student after another through the
+ * public API, and with {@link TranscriptGenerator} at increasing parallelism, to show
+ * how the batch scales with cores.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranscriptBenchmark {
+    @Param({"100000"})
+    public int students;
+
+    @Param({"200"})
+    public int courses;
+
+    @Param({"16"})
+    public int gradesPerStudent;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private GradingSystem gradingSystem;
+
+    @Setup(Level.Trial)
+    public void load() {
+        gradingSystem = new Dataset(students, courses, gradesPerStudent).fullSystem(64);
+    }
+
+    @Benchmark
+    public double sequentialLoop() {
+        double sum = 0.0;
+        for (Student student : gradingSystem.getAllStudents()) {
+            sum += gradingSystem.calculateGPA(student.getStudentId());
+            Collection<Grade> grades = gradingSystem.getGradesForStudent(student.getStudentId());
+            for (Grade grade : grades) {
+                sum += grade.getLetterGrade().length();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Transcript> generateAll() {
+        return new TranscriptGenerator(gradingSystem, parallelism).generateAll();
+    }
+}
@@ -1,11 +1,54 @@
 package com.gradingsystem;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * Main application class for the Student Grading System.
+ * <p>
+ * Run without arguments it prints a banner. With {@code --serve <port>} it serves the
+ * system over HTTP with a {@link GradingServer} until the process is stopped, loading
+ * the students, courses and grades from {@code --snapshot <file>} if given. Serving
+ * turns Nagle's algorithm off for the JDK's HTTP server unless the
+ * {@code sun.net.httpserver.nodelay} system property is already set.
  */
 public class App {
-    public static void main(String[] args) {
+    private static final int LOCK_STRIPES = 64;
+
+    public static void main(String[] args) throws IOException {
         System.out.println("Student Grading System - v1.0");
         System.out.println("Ready to manage student grades and compute GPAs!");
+
+        Integer port = null;
+        Path snapshot = null;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            }
+            if (args[i].equals("--serve")) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--snapshot")) {
+                snapshot = Paths.get(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (port == null) {
+            return;
+        }
+
+        GradingSystem gradingSystem = snapshot != null
+                ? SnapshotFile.read(snapshot, LOCK_STRIPES)
+                : new GradingSystem(LOCK_STRIPES);
+        // Without it each kept-alive response waits on the client's delayed acknowledgement
+        if (System.getProperty(GradingServer.NO_DELAY_PROPERTY) == null) {
+            System.setProperty(GradingServer.NO_DELAY_PROPERTY, "true");
+        }
+        GradingServer server = new GradingServer(gradingSystem, port);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "grading-server-shutdown"));
+        System.out.println("Serving on port " + server.getPort()
+                + (server.isUsingVirtualThreads() ? " with virtual threads" : ""));
     }
 }
@@ -0,0 +1,99 @@
+package com.gradingsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk grade load: how many rows were recorded and why the others failed.
+ */
+public class BatchResult {
+    private final int recordedCount;
+    private final List<Failure> failures;
+
+    /**
+     * Creates a result. Instances are built by {@link GradingSystem}.
+     *
+     * @param recordedCount the number of rows that were recorded
+     * @param failures      the rows that were not recorded, in batch order
+     */
+    BatchResult(int recordedCount, List<Failure> failures) {
+        this.recordedCount = recordedCount;
+        this.failures = Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    public int getRecordedCount() {
+        return recordedCount;
+    }
+
+    public int getFailedCount() {
+        return failures.size();
+    }
+
+    /**
+     * @return true if every row was recorded
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return the rows that were not recorded, in batch order
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "recordedCount=" + recordedCount +
+                ", failedCount=" + failures.size() +
+                '}';
+    }
+
+    /**
+     * A row of a batch that was not recorded.
+     */
+    public static class Failure {
+        private final int index;
+        private final GradeRecord record;
+        private final String message;
+
+        Failure(int index, GradeRecord record, String message) {
+            this.index = index;
+            this.record = record;
+            this.message = message;
+        }
+
+        /**
+         * @return the zero-based position of the row in the batch
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the row as it was given, or null if the row itself was null
+         */
+        public GradeRecord getRecord() {
+            return record;
+        }
+
+        /**
+         * @return why the row was not recorded, worded as {@code recordGrade} would have thrown it
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{" +
+                    "index=" + index +
+                    ", record=" + record +
+                    ", message='" + message + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.gradingsystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link WriteAheadLog} short by periodically saving a snapshot of the system it
+ * logs and dropping the log records the snapshot covers, so that recovery only replays
+ * the changes made since the last checkpoint.
+ * <p>
+ * A checkpoint marks the end of the log, takes a {@link GradingSystem#snapshot()},
+ * which blocks writers only for as long as it takes to freeze the system, writes the
+ * snapshot to the snapshot file, and then rewrites the log without the records before
+ * the mark. Writers carry on while the snapshot is written; commits wait only while the
+ * records logged in the meantime are copied. A crash at any point leaves a snapshot and
+ * a log that recover to the same state.
+ * <p>
+ * Once {@link #start() started}, a background thread checkpoints whenever something
+ * has been logged since the last checkpoint and either the log has grown past a size
+ * or a time interval has passed since the last checkpoint. {@link #checkpoint()} can
+ * also be called directly.
+ */
+public final class Checkpointer implements Closeable {
+    private static final long MAX_CHECK_PERIOD_MILLIS = 250;
+
+    private final WriteAheadLog log;
+    private final GradingSystem gradingSystem;
+    private final Path snapshotFile;
+    private final long maxLogBytes;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private long lastCheckpointNanos = System.nanoTime();
+    private long lastCheckpointVersion = -1;
+    private long checkpointCount;
+    private long failureCount;
+    private IOException lastFailure;
+    private long lastDurationMillis;
+    private long totalDurationMillis;
+    private long lastBytesReclaimed;
+    private long totalBytesReclaimed;
+
+    /**
+     * Creates a checkpointer for a recovered log. Call {@link #start()} to checkpoint in
+     * the background.
+     *
+     * @param log            the log, after {@link WriteAheadLog#recover(Path, int)}
+     * @param snapshotFile   the snapshot file that the log is recovered from
+     * @param maxLogBytes    checkpoint once the log file is at least this large
+     * @param intervalMillis checkpoint once this long has passed since the last checkpoint
+     * @throws IllegalArgumentException if log or snapshotFile is null, the log has not
+     *                                  been recovered, or a limit is not positive
+     */
+    public Checkpointer(WriteAheadLog log, Path snapshotFile, long maxLogBytes, long intervalMillis) {
+        if (log == null) {
+            throw new IllegalArgumentException("Write-ahead log cannot be null");
+        }
+        if (snapshotFile == null) {
+            throw new IllegalArgumentException("Snapshot file cannot be null");
+        }
+        if (maxLogBytes <= 0) {
+            throw new IllegalArgumentException("Maximum log size must be positive");
+        }
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.gradingSystem = log.gradingSystem();
+        if (gradingSystem == null) {
+            throw new IllegalArgumentException("Write-ahead log has not been recovered");
+        }
+        this.log = log;
+        this.snapshotFile = snapshotFile;
+        this.maxLogBytes = maxLogBytes;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Starts checkpointing in the background. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "grade-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.min(intervalMillis, MAX_CHECK_PERIOD_MILLIS);
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a checkpoint now: saves a snapshot and drops the log records it covers.
+     *
+     * @throws IOException if the snapshot or the log cannot be written; the previous
+     *                     snapshot and the full log are then still usable
+     */
+    public synchronized void checkpoint() throws IOException {
+        long started = System.nanoTime();
+        try {
+            long mark = log.mark();
+            GradingSnapshot snapshot = gradingSystem.snapshot();
+            SnapshotFile.write(snapshot, snapshotFile);
+            lastBytesReclaimed = log.truncateBefore(mark);
+            lastCheckpointVersion = snapshot.getVersion();
+        } catch (IOException e) {
+            failureCount++;
+            lastFailure = e;
+            throw e;
+        }
+        lastCheckpointNanos = System.nanoTime();
+        lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(lastCheckpointNanos - started);
+        totalDurationMillis += lastDurationMillis;
+        totalBytesReclaimed += lastBytesReclaimed;
+        checkpointCount++;
+    }
+
+    /**
+     * Stops checkpointing in the background, waiting for a checkpoint in progress.
+     * Does not close the log.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = scheduler;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.shutdown();
+        try {
+            stopping.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of checkpoints taken.
+     *
+     * @return the number of successful checkpoints
+     */
+    public synchronized long getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /**
+     * Gets the number of checkpoints that failed.
+     *
+     * @return the number of failed checkpoints
+     */
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Gets the error that made the last failed checkpoint fail.
+     *
+     * @return the last failure, or null if no checkpoint has failed
+     */
+    public synchronized IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Gets the system version saved by the last checkpoint.
+     *
+     * @return the version of the last checkpoint's snapshot, or -1 if none was taken
+     */
+    public synchronized long getLastCheckpointVersion() {
+        return lastCheckpointVersion;
+    }
+
+    /**
+     * Gets how long the last checkpoint took.
+     *
+     * @return the duration of the last checkpoint in milliseconds
+     */
+    public synchronized long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    /**
+     * Gets how long all checkpoints took together.
+     *
+     * @return the total duration of all checkpoints in milliseconds
+     */
+    public synchronized long getTotalDurationMillis() {
+        return totalDurationMillis;
+    }
+
+    /**
+     * Gets how many bytes the last checkpoint removed from the log.
+     *
+     * @return the bytes reclaimed by the last checkpoint
+     */
+    public synchronized long getLastBytesReclaimed() {
+        return lastBytesReclaimed;
+    }
+
+    /**
+     * Gets how many bytes all checkpoints removed from the log together.
+     *
+     * @return the total bytes reclaimed
+     */
+    public synchronized long getTotalBytesReclaimed() {
+        return totalBytesReclaimed;
+    }
+
+    private void checkpointIfDue() {
+        boolean due;
+        synchronized (this) {
+            boolean grown = log.getSize() >= maxLogBytes;
+            boolean elapsed = System.nanoTime() - lastCheckpointNanos >= TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            due = (grown || elapsed) && gradingSystem.version() != lastCheckpointVersion;
+        }
+        if (!due) {
+            return;
+        }
+        try {
+            checkpoint();
+        } catch (IOException | IllegalStateException e) {
+            // Counted by checkpoint(), or the log was closed; try again on the next check
+        }
+    }
+}
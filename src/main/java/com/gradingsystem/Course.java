@@ -9,6 +9,7 @@ public class Course {
     private final String courseCode;
     private final String courseName;
     private final int credits;
+    private final GradingScale gradingScale;
 
     /**
      * Creates a new course.
@@ -19,6 +20,20 @@ public class Course {
      * @throws IllegalArgumentException if courseCode or courseName is null/empty, or credits is non-positive
      */
     public Course(String courseCode, String courseName, int credits) {
+        this(courseCode, courseName, credits, null);
+    }
+
+    /**
+     * Creates a new course graded on its own scale.
+     *
+     * @param courseCode   unique identifier for the course (e.g., "CS101")
+     * @param courseName   descriptive name of the course
+     * @param credits      number of credit hours for the course
+     * @param gradingScale the scale the course's grades are converted with, or null to
+     *                     use the default scale of the grading system it is added to
+     * @throws IllegalArgumentException if courseCode or courseName is null/empty, or credits is non-positive
+     */
+    public Course(String courseCode, String courseName, int credits, GradingScale gradingScale) {
         if (courseCode == null || courseCode.trim().isEmpty()) {
             throw new IllegalArgumentException("Course code cannot be null or empty");
         }
@@ -32,6 +47,7 @@ public class Course {
         this.courseCode = courseCode.trim().toUpperCase();
         this.courseName = courseName.trim();
         this.credits = credits;
+        this.gradingScale = gradingScale;
     }
 
     public String getCourseCode() {
@@ -46,6 +62,13 @@ public class Course {
         return credits;
     }
 
+    /**
+     * @return the course's own grading scale, or null if it uses the grading system's default
+     */
+    public GradingScale getGradingScale() {
+        return gradingScale;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -65,6 +88,7 @@ public class Course {
                 "courseCode='" + courseCode + '\'' +
                 ", courseName='" + courseName + '\'' +
                 ", credits=" + credits +
+                (gradingScale != null ? ", gradingScale='" + gradingScale.getName() + '\'' : "") +
                 '}';
     }
 }
\ No newline at end of file
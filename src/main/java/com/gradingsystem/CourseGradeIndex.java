@@ -0,0 +1,707 @@
+package com.gradingsystem;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The grades of one course in value order, answering range, top-k and bottom-k
+ * queries in logarithmic time plus the size of the result.
+ * <p>
+ * The index is a treap of grade store rows ordered by grade value, lowest first, then
+ * by row, with each node recording the size of its subtree. Nodes live in primitive
+ * arrays, or, in an {@link OffHeap} index, in fixed-width records in a direct buffer,
+ * and are recycled through a free list, so no objects are allocated per grade. A node's
+ * heap priority is a hash of its row, which keeps the tree balanced in expectation
+ * whatever order grades arrive in.
+ * <p>
+ * Inserts are deferred: a new grade is only linked into a pending list, and the
+ * pending grades are merged into the tree by the next read. Removing a grade that is
+ * still pending unlinks it from the list in constant time. A large
+ * backlog, such as a course filled by a bulk load, is merged by sorting it and
+ * rebuilding the tree in one pass; a small one is inserted grade by grade. Courses
+ * that are written far more often than they are queried therefore pay almost
+ * nothing for the index.
+ * <p>
+ * Removed nodes are kept for reuse, so after a bulk removal the storage can be
+ * mostly free; {@link #compact} renumbers the grades into the lowest nodes and
+ * shrinks it to fit.
+ * <p>
+ * The index is not synchronized; it is changed and read under its course's lock.
+ */
+class CourseGradeIndex {
+    private static final int NIL = -1;
+    // Left, right, subtree size and row, plus the value
+    private static final int NODE_BYTES = 4 * Integer.BYTES + Double.BYTES;
+    private static final int MIN_CAPACITY = 8;
+
+    private int root = NIL;
+    private int freeNodes = NIL;
+    private int nextNode;
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private int[] size = new int[0];
+    private int[] rows = new int[0];
+    private double[] values = new double[0];
+    private int pendingHead = NIL;
+    private int pendingCount;
+
+    // Results of split(), to avoid allocating a pair per call
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * Creates an empty index in the given storage.
+     *
+     * @param storage where the nodes are kept
+     * @return a heap index, or an {@link OffHeap} one
+     */
+    static CourseGradeIndex create(GradeStorage storage) {
+        return storage == GradeStorage.OFF_HEAP ? new OffHeap() : new CourseGradeIndex();
+    }
+
+    /**
+     * Adds a grade.
+     *
+     * @param row   the grade's row in the grade store
+     * @param value the grade value
+     * @return the grade's node, which identifies it to {@link #remove(int)}
+     */
+    int insert(int row, double value) {
+        int node = allocateNode();
+        setRow(node, row);
+        setValue(node, value);
+        // A pending node has size 0 and is linked to its pending neighbours by left and right
+        setSubtreeSize(node, 0);
+        setLeft(node, NIL);
+        setRight(node, pendingHead);
+        if (pendingHead != NIL) {
+            setLeft(pendingHead, node);
+        }
+        pendingHead = node;
+        pendingCount++;
+        return node;
+    }
+
+    /**
+     * Removes a grade.
+     *
+     * @param node the node returned when the grade was inserted
+     */
+    void remove(int node) {
+        if (subtreeSize(node) == 0) {
+            int previous = left(node);
+            int next = right(node);
+            if (previous == NIL) {
+                pendingHead = next;
+            } else {
+                setRight(previous, next);
+            }
+            if (next != NIL) {
+                setLeft(next, previous);
+            }
+            pendingCount--;
+        } else {
+            root = erase(root, node);
+        }
+        releaseNode(node);
+    }
+
+    /**
+     * Removes every grade and releases the nodes.
+     */
+    void clear() {
+        root = NIL;
+        freeNodes = NIL;
+        nextNode = 0;
+        pendingHead = NIL;
+        pendingCount = 0;
+        resizeNodes(0);
+    }
+
+    /**
+     * Moves the grades into the lowest nodes and shrinks the node storage to fit them,
+     * if no more than a quarter of it is in use. Each grade's new node is reported to
+     * the listener, as the old node no longer identifies it to {@link #remove(int)}.
+     *
+     * @param listener told the row and the new node of every grade that is kept
+     * @return whether the index was compacted
+     */
+    boolean compact(NodeListener listener) {
+        int total = size();
+        if (capacity() <= MIN_CAPACITY || total * 4 > capacity()) {
+            return false;
+        }
+        flush();
+        int[] order = new int[total];
+        listInOrder(order, total);
+        int[] orderRows = new int[total];
+        double[] orderValues = new double[total];
+        for (int i = 0; i < total; i++) {
+            orderRows[i] = row(order[i]);
+            orderValues[i] = value(order[i]);
+        }
+
+        // Node i is now the i-th grade in order, so the nodes are already sorted
+        resizeNodes(Math.max(MIN_CAPACITY, total));
+        for (int i = 0; i < total; i++) {
+            setRow(i, orderRows[i]);
+            setValue(i, orderValues[i]);
+            order[i] = i;
+            listener.moved(orderRows[i], i);
+        }
+        freeNodes = NIL;
+        nextNode = total;
+        link(order, total, new int[total]);
+        return true;
+    }
+
+    /**
+     * Gets the number of grades.
+     *
+     * @return the number of grades in the index
+     */
+    int size() {
+        return sizeOf(root) + pendingCount;
+    }
+
+    /**
+     * Gets the memory allocated for nodes, including free ones.
+     *
+     * @return the allocated bytes
+     */
+    long allocatedBytes() {
+        return (long) capacity() * NODE_BYTES;
+    }
+
+    /**
+     * Gets the lowest grade value.
+     *
+     * @return the lowest value, or 0.0 if the index is empty
+     */
+    double min() {
+        flush();
+        int node = root;
+        if (node == NIL) {
+            return 0.0;
+        }
+        while (left(node) != NIL) {
+            node = left(node);
+        }
+        return value(node);
+    }
+
+    /**
+     * Gets the highest grade value.
+     *
+     * @return the highest value, or 0.0 if the index is empty
+     */
+    double max() {
+        flush();
+        int node = root;
+        if (node == NIL) {
+            return 0.0;
+        }
+        while (right(node) != NIL) {
+            node = right(node);
+        }
+        return value(node);
+    }
+
+    /**
+     * Lists the rows of the grades with a value between two inclusive bounds, lowest
+     * value first.
+     *
+     * @param lo the lowest value to include
+     * @param hi the highest value to include
+     * @return the rows in range
+     */
+    int[] between(double lo, double hi) {
+        if (lo > hi) {
+            return new int[0];
+        }
+        flush();
+        int[] result = new int[countBelow(Math.nextUp(hi)) - countBelow(lo)];
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        // Push the path to the first node at or above lo; skipped subtrees are all below it
+        while (node != NIL) {
+            if (value(node) >= lo) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left(node);
+            } else {
+                node = right(node);
+            }
+        }
+        for (int count = 0; count < result.length; count++) {
+            node = stack[--depth];
+            result[count] = row(node);
+            node = right(node);
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists the rows of the lowest grades, lowest first.
+     *
+     * @param k the maximum number of rows to return
+     * @return up to k rows
+     */
+    int[] lowest(int k) {
+        return walk(k, false);
+    }
+
+    /**
+     * Lists the rows of the highest grades, highest first.
+     *
+     * @param k the maximum number of rows to return
+     * @return up to k rows
+     */
+    int[] highest(int k) {
+        return walk(k, true);
+    }
+
+    /**
+     * Walks the tree in order from one end, collecting up to k rows.
+     */
+    private int[] walk(int k, boolean descending) {
+        flush();
+        int[] result = new int[Math.min(k, sizeOf(root))];
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        int count = 0;
+        while (count < result.length) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = descending ? right(node) : left(node);
+            }
+            node = stack[--depth];
+            result[count++] = row(node);
+            node = descending ? left(node) : right(node);
+        }
+        return result;
+    }
+
+    /**
+     * Merges the pending grades into the tree.
+     */
+    private void flush() {
+        if (pendingCount == 0) {
+            return;
+        }
+        int existing = sizeOf(root);
+        if (pendingCount * 4 < existing) {
+            int next;
+            for (int node = pendingHead; node != NIL; node = next) {
+                next = right(node);
+                setLeft(node, NIL);
+                setRight(node, NIL);
+                setSubtreeSize(node, 1);
+                root = insert(root, node);
+            }
+        } else {
+            rebuild(existing);
+        }
+        pendingHead = NIL;
+        pendingCount = 0;
+    }
+
+    /**
+     * Rebuilds the tree from its nodes and the pending ones: the tree's nodes are
+     * listed in order, the pending nodes are sorted and merged in, and the sorted
+     * nodes are linked into a treap with the same priorities in linear time.
+     */
+    private void rebuild(int existing) {
+        int total = existing + pendingCount;
+        int[] order = new int[total];
+        int[] scratch = new int[total];
+        listInOrder(order, existing);
+        int count = existing;
+        for (int node = pendingHead; node != NIL; node = right(node)) {
+            order[count++] = node;
+        }
+        sortNodes(order, scratch, existing, total);
+        mergeNodes(order, scratch, 0, existing, total);
+        link(order, total, scratch);
+    }
+
+    /**
+     * Lists the tree's nodes in order into the first count slots of order.
+     */
+    private void listInOrder(int[] order, int count) {
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        int listed = 0;
+        while (listed < count) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left(node);
+            }
+            node = stack[--depth];
+            order[listed++] = node;
+            node = right(node);
+        }
+    }
+
+    /**
+     * Links sorted nodes into a treap with their usual priorities in linear time,
+     * using stack as scratch space of at least total slots.
+     */
+    private void link(int[] order, int total, int[] stack) {
+        if (total == 0) {
+            root = NIL;
+            return;
+        }
+        // Each node becomes the right child of the nearest earlier node with a higher
+        // priority, adopting the lower-priority nodes it pops as its left subtree
+        int depth = 0;
+        for (int i = 0; i < total; i++) {
+            int node = order[i];
+            int popped = NIL;
+            while (depth > 0 && priorityOf(row(stack[depth - 1])) < priorityOf(row(node))) {
+                popped = stack[--depth];
+            }
+            setLeft(node, popped);
+            setRight(node, NIL);
+            if (depth > 0) {
+                setRight(stack[depth - 1], node);
+            }
+            stack[depth++] = node;
+        }
+        root = stack[0];
+        computeSizes(root);
+    }
+
+    private int computeSizes(int node) {
+        if (node == NIL) {
+            return 0;
+        }
+        setSubtreeSize(node, computeSizes(left(node)) + computeSizes(right(node)) + 1);
+        return subtreeSize(node);
+    }
+
+    /**
+     * Sorts nodes[from, to) by (value, row) with a merge sort.
+     */
+    private void sortNodes(int[] nodes, int[] scratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortNodes(nodes, scratch, from, mid);
+        sortNodes(nodes, scratch, mid, to);
+        mergeNodes(nodes, scratch, from, mid, to);
+    }
+
+    /**
+     * Merges the sorted runs nodes[from, mid) and nodes[mid, to).
+     */
+    private void mergeNodes(int[] nodes, int[] scratch, int from, int mid, int to) {
+        if (from == mid || mid == to || !before(value(nodes[mid]), row(nodes[mid]), nodes[mid - 1])) {
+            return;
+        }
+        System.arraycopy(nodes, from, scratch, from, mid - from);
+        int a = from;
+        int b = mid;
+        int out = from;
+        while (a < mid && b < to) {
+            if (before(value(nodes[b]), row(nodes[b]), scratch[a])) {
+                nodes[out++] = nodes[b++];
+            } else {
+                nodes[out++] = scratch[a++];
+            }
+        }
+        while (a < mid) {
+            nodes[out++] = scratch[a++];
+        }
+    }
+
+    /**
+     * Counts the grades with a value strictly lower than the given one.
+     */
+    private int countBelow(double value) {
+        int count = 0;
+        int node = root;
+        while (node != NIL) {
+            if (value(node) < value) {
+                count += sizeOf(left(node)) + 1;
+                node = right(node);
+            } else {
+                node = left(node);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tells whether the grade (value, row) sorts before a node.
+     */
+    private boolean before(double value, int row, int node) {
+        return value < value(node) || (value == value(node) && row < row(node));
+    }
+
+    private static int priorityOf(int row) {
+        int h = row * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : subtreeSize(node);
+    }
+
+    private void resize(int node) {
+        setSubtreeSize(node, sizeOf(left(node)) + sizeOf(right(node)) + 1);
+    }
+
+    private int insert(int tree, int node) {
+        if (tree == NIL) {
+            return node;
+        }
+        if (priorityOf(row(node)) > priorityOf(row(tree))) {
+            split(tree, value(node), row(node));
+            setLeft(node, splitLeft);
+            setRight(node, splitRight);
+            resize(node);
+            return node;
+        }
+        if (before(value(node), row(node), tree)) {
+            setLeft(tree, insert(left(tree), node));
+        } else {
+            setRight(tree, insert(right(tree), node));
+        }
+        resize(tree);
+        return tree;
+    }
+
+    private int erase(int tree, int node) {
+        if (tree == node) {
+            return merge(left(node), right(node));
+        }
+        if (before(value(node), row(node), tree)) {
+            setLeft(tree, erase(left(tree), node));
+        } else {
+            setRight(tree, erase(right(tree), node));
+        }
+        resize(tree);
+        return tree;
+    }
+
+    /**
+     * Splits a tree into the nodes before the grade (value, row) and the rest, into
+     * splitLeft and splitRight.
+     */
+    private void split(int tree, double value, int row) {
+        if (tree == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (before(value, row, tree)) {
+            split(left(tree), value, row);
+            setLeft(tree, splitRight);
+            resize(tree);
+            splitRight = tree;
+        } else {
+            split(right(tree), value, row);
+            setRight(tree, splitLeft);
+            resize(tree);
+            splitLeft = tree;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priorityOf(row(a)) > priorityOf(row(b))) {
+            setRight(a, merge(right(a), b));
+            resize(a);
+            return a;
+        }
+        setLeft(b, merge(a, left(b)));
+        resize(b);
+        return b;
+    }
+
+    private int allocateNode() {
+        if (freeNodes != NIL) {
+            int node = freeNodes;
+            freeNodes = left(node);
+            return node;
+        }
+        if (nextNode == capacity()) {
+            resizeNodes(Math.max(MIN_CAPACITY, nextNode * 2));
+        }
+        return nextNode++;
+    }
+
+    /**
+     * Returns a node to the free list, which is threaded through the left links.
+     */
+    private void releaseNode(int node) {
+        setLeft(node, freeNodes);
+        freeNodes = node;
+    }
+
+    /**
+     * Receives the new node of each grade moved by {@link #compact}.
+     */
+    interface NodeListener {
+        void moved(int row, int node);
+    }
+
+    // Node storage. The heap index keeps one array per field; OffHeap overrides these.
+
+    int capacity() {
+        return rows.length;
+    }
+
+    /**
+     * Grows the node storage to a capacity, keeping the existing nodes, or releases it
+     * when the capacity is 0.
+     */
+    void resizeNodes(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        size = Arrays.copyOf(size, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    int left(int node) {
+        return left[node];
+    }
+
+    void setLeft(int node, int child) {
+        left[node] = child;
+    }
+
+    int right(int node) {
+        return right[node];
+    }
+
+    void setRight(int node, int child) {
+        right[node] = child;
+    }
+
+    int subtreeSize(int node) {
+        return size[node];
+    }
+
+    void setSubtreeSize(int node, int count) {
+        size[node] = count;
+    }
+
+    int row(int node) {
+        return rows[node];
+    }
+
+    void setRow(int node, int row) {
+        rows[node] = row;
+    }
+
+    double value(int node) {
+        return values[node];
+    }
+
+    void setValue(int node, double value) {
+        values[node] = value;
+    }
+
+    /**
+     * An index whose nodes are fixed-width records in a direct buffer outside the heap,
+     * so the only heap it costs is the buffer object whatever the course's size.
+     */
+    static final class OffHeap extends CourseGradeIndex {
+        private static final int LEFT = 0;
+        private static final int RIGHT = 4;
+        private static final int SIZE = 8;
+        private static final int ROW = 12;
+        private static final int VALUE = 16;
+
+        private ByteBuffer nodes = GradeStorage.allocateDirect(0);
+
+        @Override
+        int capacity() {
+            return nodes.capacity() / NODE_BYTES;
+        }
+
+        @Override
+        void resizeNodes(int capacity) {
+            ByteBuffer resized = GradeStorage.allocateDirect(capacity * NODE_BYTES);
+            resized.put(0, nodes, 0, Math.min(resized.capacity(), nodes.capacity()));
+            nodes = resized;
+        }
+
+        @Override
+        int left(int node) {
+            return nodes.getInt(node * NODE_BYTES + LEFT);
+        }
+
+        @Override
+        void setLeft(int node, int child) {
+            nodes.putInt(node * NODE_BYTES + LEFT, child);
+        }
+
+        @Override
+        int right(int node) {
+            return nodes.getInt(node * NODE_BYTES + RIGHT);
+        }
+
+        @Override
+        void setRight(int node, int child) {
+            nodes.putInt(node * NODE_BYTES + RIGHT, child);
+        }
+
+        @Override
+        int subtreeSize(int node) {
+            return nodes.getInt(node * NODE_BYTES + SIZE);
+        }
+
+        @Override
+        void setSubtreeSize(int node, int count) {
+            nodes.putInt(node * NODE_BYTES + SIZE, count);
+        }
+
+        @Override
+        int row(int node) {
+            return nodes.getInt(node * NODE_BYTES + ROW);
+        }
+
+        @Override
+        void setRow(int node, int row) {
+            nodes.putInt(node * NODE_BYTES + ROW, row);
+        }
+
+        @Override
+        double value(int node) {
+            return nodes.getDouble(node * NODE_BYTES + VALUE);
+        }
+
+        @Override
+        void setValue(int node, double value) {
+            nodes.putDouble(node * NODE_BYTES + VALUE, value);
+        }
+    }
+}
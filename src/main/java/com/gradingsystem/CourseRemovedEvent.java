@@ -0,0 +1,34 @@
+package com.gradingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one {@link GradingSystem#removeCourse} call that got as
+ * far as locking the system. The call holds every student stripe, so its duration is
+ * split into the time spent waiting for them and the time spent removing the course's
+ * grades.
+ */
+@Name("com.gradingsystem.CourseRemoved")
+@Label("Course Removed")
+@Category("Grading System")
+@Description("A course and its grades were removed")
+final class CourseRemovedEvent extends jdk.jfr.Event {
+    @Label("Course Code")
+    String courseCode;
+
+    @Label("Removed")
+    @Description("False if the course was not found")
+    boolean removed;
+
+    @Label("Grades Removed")
+    int gradesRemoved;
+
+    @Label("Lock Wait")
+    @Description("Time spent waiting for in-flight writes to finish")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+}
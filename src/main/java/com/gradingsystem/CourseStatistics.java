@@ -0,0 +1,143 @@
+package com.gradingsystem;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable summary of the grades recorded for a course at a point in time.
+ */
+public class CourseStatistics {
+    private final String courseCode;
+    private final GradingScale gradingScale;
+    private final int count;
+    private final double sum;
+    private final double sumOfSquares;
+    private final double min;
+    private final double max;
+    private final int[] letterCounts;
+
+    /**
+     * Creates a statistics summary. Instances are built by {@link GradingSystem}.
+     *
+     * @param courseCode   the normalized course code
+     * @param count        number of grades in the course
+     * @param sum          sum of the grade values
+     * @param sumOfSquares sum of the squared grade values
+     * @param min          lowest grade value, ignored when count is 0
+     * @param max          highest grade value, ignored when count is 0
+     * @param letterCounts number of grades per letter of the scale, highest first
+     * @param gradingScale the scale the course is graded on
+     */
+    CourseStatistics(String courseCode, int count, double sum, double sumOfSquares,
+                     double min, double max, int[] letterCounts, GradingScale gradingScale) {
+        this.courseCode = courseCode;
+        this.gradingScale = gradingScale;
+        this.count = count;
+        this.sum = sum;
+        this.sumOfSquares = sumOfSquares;
+        this.min = count > 0 ? min : 0.0;
+        this.max = count > 0 ? max : 0.0;
+        this.letterCounts = letterCounts.clone();
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    /**
+     * @return the scale the letter counts are taken on
+     */
+    public GradingScale getGradingScale() {
+        return gradingScale;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getSumOfSquares() {
+        return sumOfSquares;
+    }
+
+    /**
+     * @return the lowest grade value, or 0.0 if the course has no grades
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the highest grade value, or 0.0 if the course has no grades
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the average grade value, or 0.0 if the course has no grades
+     */
+    public double getMean() {
+        return count > 0 ? sum / count : 0.0;
+    }
+
+    /**
+     * Computes the population variance of the grade values.
+     *
+     * @return the variance, or 0.0 if the course has no grades
+     */
+    public double getVariance() {
+        if (count == 0) {
+            return 0.0;
+        }
+        double mean = sum / count;
+        // Rounding can push the difference slightly below zero when all grades are equal
+        return Math.max(0.0, sumOfSquares / count - mean * mean);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the number of grades with the given letter grade.
+     *
+     * @param letterGrade a letter grade of the course's scale (A, B, C, D, F on the standard scale)
+     * @return the number of grades with that letter
+     * @throws IllegalArgumentException if the letter grade is not part of the scale
+     */
+    public int getLetterCount(String letterGrade) {
+        return letterCounts[gradingScale.indexOf(letterGrade)];
+    }
+
+    /**
+     * Gets the letter grade histogram.
+     *
+     * @return the number of grades per letter, ordered from the highest letter to the lowest
+     */
+    public Map<String, Integer> getLetterDistribution() {
+        Map<String, Integer> distribution = new LinkedHashMap<>();
+        List<String> letters = gradingScale.getLetterGrades();
+        for (int i = 0; i < letters.size(); i++) {
+            distribution.put(letters.get(i), letterCounts[i]);
+        }
+        return distribution;
+    }
+
+    @Override
+    public String toString() {
+        return "CourseStatistics{" +
+                "courseCode='" + courseCode + '\'' +
+                ", count=" + count +
+                ", mean=" + getMean() +
+                ", min=" + min +
+                ", max=" + max +
+                ", letterCounts=" + Arrays.toString(letterCounts) +
+                '}';
+    }
+}
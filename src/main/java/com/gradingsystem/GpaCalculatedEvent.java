@@ -0,0 +1,28 @@
+package com.gradingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for one {@link GradingSystem#calculateGPA} call that took
+ * longer than the threshold, by default 10 microseconds. The GPA is read from the
+ * student's running aggregate without scanning any grades, so a slow call points at
+ * the lookup or at the thread being descheduled rather than at the student's grades.
+ */
+@Name("com.gradingsystem.GpaCalculated")
+@Label("GPA Calculated")
+@Category("Grading System")
+@Description("A student's GPA was read")
+@Threshold("10 us")
+@StackTrace(false)
+final class GpaCalculatedEvent extends jdk.jfr.Event {
+    @Label("Student ID")
+    String studentId;
+
+    @Label("GPA")
+    double gpa;
+}
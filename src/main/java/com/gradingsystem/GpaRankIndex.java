@@ -0,0 +1,462 @@
+package com.gradingsystem;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Order-statistic index of student GPAs, answering top-N, rank and GPA range queries
+ * in logarithmic time plus the size of the result.
+ * <p>
+ * The index is a treap stored in arrays indexed by student handle, so each ranked
+ * student is exactly one node and no objects are allocated. Nodes are ordered by GPA,
+ * highest first, then by handle, and each node records the size of its subtree. A
+ * node's heap priority is a hash of its handle, which keeps the tree balanced in
+ * expectation whatever order GPAs change in. Only students with at least one grade are
+ * ranked.
+ * <p>
+ * Writers never take the index's monitor. {@link #markChanged} only sets the student's
+ * bit in a two-level bitset with atomic operations, and the queries, which are
+ * synchronized, first move every marked student to the GPA the source publishes for
+ * them. A student whose grades change many times between two queries is moved once,
+ * and concurrent grade writes on different students do not serialize on the ranking.
+ */
+final class GpaRankIndex {
+    private static final int NIL = -1;
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final IntToDoubleFunction source;
+    private volatile DirtySet dirty = new DirtySet(0);
+    // Set after marking a student, so queries skip the bitset when nothing changed
+    private volatile boolean pending;
+
+    private int root = NIL;
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private int[] size = new int[0];
+    private double[] gpa = new double[0];
+    private boolean[] ranked = new boolean[0];
+
+    // Results of split(), to avoid allocating a pair per call
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param source gives a student's published GPA by handle, or a negative value if
+     *               the student has no grades and so is not ranked
+     */
+    GpaRankIndex(IntToDoubleFunction source) {
+        this.source = source;
+    }
+
+    /**
+     * Notes that a student's published GPA may have changed. The student is moved to
+     * their new place before the next query is answered. Safe to call from any thread
+     * without holding the index's monitor.
+     *
+     * @param handle the student's handle
+     */
+    void markChanged(int handle) {
+        DirtySet set = dirty;
+        while (true) {
+            if (handle >= set.capacity()) {
+                set = grow(handle);
+            }
+            set.mark(handle);
+            DirtySet current = dirty;
+            if (current == set) {
+                break;
+            }
+            // Grown meanwhile, and the copy may have missed the bit: mark the new set too
+            set = current;
+        }
+        if (!pending) {
+            pending = true;
+        }
+    }
+
+    /**
+     * Moves every student marked since the last query to their published GPA.
+     */
+    private void applyChanges() {
+        if (!pending) {
+            return;
+        }
+        // Cleared before draining, so a student marked during the drain is seen next time
+        pending = false;
+        dirty.drain(handle -> {
+            double published = source.applyAsDouble(handle);
+            update(handle, Math.max(published, 0.0), published >= 0.0);
+        });
+    }
+
+    /**
+     * Replaces the dirty set with a larger one holding the same bits.
+     */
+    private synchronized DirtySet grow(int handle) {
+        DirtySet old = dirty;
+        if (handle < old.capacity()) {
+            return old;
+        }
+        DirtySet grown = new DirtySet(Math.max(handle + 1, old.capacity() * 2));
+        // Publish first, so a writer marking the old set either sees the new one and
+        // marks it again, or marked the old set before this copy reads it
+        dirty = grown;
+        old.drain(grown::mark);
+        return grown;
+    }
+
+    /**
+     * Sets a student's GPA, adding or removing the student as needed.
+     */
+    private void update(int handle, double newGpa, boolean isRanked) {
+        if (handle >= ranked.length) {
+            if (!isRanked) {
+                return;
+            }
+            growNodes(handle);
+        }
+        if (ranked[handle]) {
+            if (isRanked && gpa[handle] == newGpa) {
+                return;
+            }
+            root = erase(root, handle);
+            ranked[handle] = false;
+        }
+        if (isRanked) {
+            gpa[handle] = newGpa;
+            left[handle] = NIL;
+            right[handle] = NIL;
+            size[handle] = 1;
+            root = insert(root, handle);
+            ranked[handle] = true;
+        }
+    }
+
+    /**
+     * Gets the number of ranked students.
+     *
+     * @return the number of students with at least one grade
+     */
+    synchronized int size() {
+        applyChanges();
+        return sizeOf(root);
+    }
+
+    /**
+     * Gets a student's rank: one more than the number of students with a strictly
+     * higher GPA, so tied students share a rank.
+     *
+     * @param handle the student's handle
+     * @return the rank, starting at 1, or 0 if the student is not ranked
+     */
+    synchronized int rankOf(int handle) {
+        applyChanges();
+        if (handle < 0 || handle >= ranked.length || !ranked[handle]) {
+            return 0;
+        }
+        return countAbove(gpa[handle]) + 1;
+    }
+
+    /**
+     * Gets the percentage of ranked students whose GPA is at or below a student's.
+     *
+     * @param handle the student's handle
+     * @return the percentile, between 0 and 100, or 0 if the student is not ranked
+     */
+    synchronized double percentileOf(int handle) {
+        applyChanges();
+        if (handle < 0 || handle >= ranked.length || !ranked[handle]) {
+            return 0.0;
+        }
+        int total = sizeOf(root);
+        return 100.0 * (total - countAbove(gpa[handle])) / total;
+    }
+
+    /**
+     * Lists the handles of the students with the highest GPAs, highest first, breaking
+     * ties by handle.
+     *
+     * @param n the maximum number of handles to return
+     * @return up to n handles
+     */
+    synchronized int[] top(int n) {
+        applyChanges();
+        int[] handles = new int[Math.min(n, sizeOf(root))];
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        int count = 0;
+        while (count < handles.length) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            handles[count++] = node;
+            node = right[node];
+        }
+        return handles;
+    }
+
+    /**
+     * Lists the handles of all students with a GPA between two inclusive bounds,
+     * highest GPA first, breaking ties by handle.
+     *
+     * @param lo the lowest GPA to include
+     * @param hi the highest GPA to include
+     * @return the handles in range
+     */
+    synchronized int[] between(double lo, double hi) {
+        applyChanges();
+        int count = lo > hi ? 0 : countAbove(Math.nextDown(lo)) - countAbove(hi);
+        int[] handles = new int[count];
+        scan(lo, hi, NIL, handles);
+        return handles;
+    }
+
+    /**
+     * Lists the next handles in a GPA range after a given student, for iterating a
+     * range in batches. Each call starts from where the previous one stopped even if
+     * the index changed in between, so a student whose GPA does not change is listed
+     * exactly once.
+     *
+     * @param lo       the lowest GPA to include
+     * @param hi       the highest GPA to include
+     * @param after    the last handle returned by the previous call, or -1 to start
+     * @param afterGpa the GPA that handle had when it was returned; ignored when starting
+     * @param handles  receives the handles, up to its length
+     * @param gpas     receives the GPA of each handle as it was indexed
+     * @return the number of handles written, which is less than the length of
+     *         {@code handles} only when the range is exhausted
+     */
+    synchronized int next(double lo, double hi, int after, double afterGpa, int[] handles, double[] gpas) {
+        applyChanges();
+        if (lo > hi) {
+            return 0;
+        }
+        int count = after == NIL ? scan(lo, hi, NIL, handles) : scan(lo, afterGpa, after, handles);
+        for (int i = 0; i < count; i++) {
+            gpas[i] = gpa[handles[i]];
+        }
+        return count;
+    }
+
+    /**
+     * Fills handles in order with the nodes whose GPA is at least lo and that sort
+     * after the key (fromGpa, afterHandle), where a handle of NIL sorts before every
+     * real handle.
+     */
+    private int scan(double lo, double fromGpa, int afterHandle, int[] handles) {
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        // Push the path to the first node after the key; skipped subtrees sort before it
+        while (node != NIL) {
+            if (gpa[node] < fromGpa || (gpa[node] == fromGpa && node > afterHandle)) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            } else {
+                node = right[node];
+            }
+        }
+        int count = 0;
+        while (count < handles.length && depth > 0) {
+            node = stack[--depth];
+            if (gpa[node] < lo) {
+                break;
+            }
+            handles[count++] = node;
+            node = right[node];
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the ranked students with a GPA strictly higher than the given one.
+     */
+    private int countAbove(double value) {
+        int count = 0;
+        int node = root;
+        while (node != NIL) {
+            if (gpa[node] > value) {
+                count += sizeOf(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tells whether node a sorts before node b.
+     */
+    private boolean before(int a, int b) {
+        return gpa[a] > gpa[b] || (gpa[a] == gpa[b] && a < b);
+    }
+
+    private static int priorityOf(int handle) {
+        int h = handle * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : size[node];
+    }
+
+    private void resize(int node) {
+        size[node] = sizeOf(left[node]) + sizeOf(right[node]) + 1;
+    }
+
+    private int insert(int tree, int node) {
+        if (tree == NIL) {
+            return node;
+        }
+        if (priorityOf(node) > priorityOf(tree)) {
+            split(tree, node);
+            left[node] = splitLeft;
+            right[node] = splitRight;
+            resize(node);
+            return node;
+        }
+        if (before(node, tree)) {
+            left[tree] = insert(left[tree], node);
+        } else {
+            right[tree] = insert(right[tree], node);
+        }
+        resize(tree);
+        return tree;
+    }
+
+    private int erase(int tree, int node) {
+        if (tree == node) {
+            return merge(left[node], right[node]);
+        }
+        if (before(node, tree)) {
+            left[tree] = erase(left[tree], node);
+        } else {
+            right[tree] = erase(right[tree], node);
+        }
+        resize(tree);
+        return tree;
+    }
+
+    /**
+     * Splits a tree into the nodes before a node and the rest, into splitLeft and splitRight.
+     */
+    private void split(int tree, int node) {
+        if (tree == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (before(tree, node)) {
+            split(right[tree], node);
+            right[tree] = splitLeft;
+            resize(tree);
+            splitLeft = tree;
+        } else {
+            split(left[tree], node);
+            left[tree] = splitRight;
+            resize(tree);
+            splitRight = tree;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priorityOf(a) > priorityOf(b)) {
+            right[a] = merge(right[a], b);
+            resize(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        resize(b);
+        return b;
+    }
+
+    private void growNodes(int handle) {
+        int capacity = Math.max(16, Math.max(handle + 1, ranked.length * 2));
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        size = Arrays.copyOf(size, capacity);
+        gpa = Arrays.copyOf(gpa, capacity);
+        ranked = Arrays.copyOf(ranked, capacity);
+    }
+
+    /**
+     * A bitset of marked handles, with a summary bit per word of handles so draining
+     * skips unmarked regions. Bits are set and cleared atomically.
+     */
+    private static final class DirtySet {
+        private final long[] words;
+        private final long[] summary;
+
+        DirtySet(int capacity) {
+            words = new long[(capacity + 63) >>> 6];
+            summary = new long[(words.length + 63) >>> 6];
+        }
+
+        int capacity() {
+            return words.length << 6;
+        }
+
+        void mark(int handle) {
+            int word = handle >>> 6;
+            long bit = 1L << handle;
+            // Read first, so marking an already marked student writes nothing
+            if (((long) WORDS.getVolatile(words, word) & bit) == 0) {
+                WORDS.getAndBitwiseOr(words, word, bit);
+            }
+            long summaryBit = 1L << word;
+            if (((long) WORDS.getVolatile(summary, word >>> 6) & summaryBit) == 0) {
+                WORDS.getAndBitwiseOr(summary, word >>> 6, summaryBit);
+            }
+        }
+
+        /**
+         * Clears every marked bit and passes its handle to the action. A word's bit is
+         * set before its summary bit and cleared after it, so no mark is lost.
+         */
+        void drain(IntConsumer action) {
+            for (int s = 0; s < summary.length; s++) {
+                if ((long) WORDS.getVolatile(summary, s) == 0) {
+                    continue;
+                }
+                long marked = (long) WORDS.getAndSet(summary, s, 0L);
+                while (marked != 0) {
+                    int word = (s << 6) + Long.numberOfTrailingZeros(marked);
+                    marked &= marked - 1;
+                    long bits = (long) WORDS.getAndSet(words, word, 0L);
+                    while (bits != 0) {
+                        action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+    }
+}
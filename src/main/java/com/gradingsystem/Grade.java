@@ -9,9 +9,11 @@ public class Grade {
     private final Student student;
     private final Course course;
     private final double gradeValue;
+    private final GradingScale gradingScale;
 
     /**
-     * Creates a new grade.
+     * Creates a new grade, converted with the course's own grading scale, or with
+     * {@link GradingScale#STANDARD} if the course has none.
      *
      * @param student    the student who received the grade
      * @param course     the course for which the grade was given
@@ -19,19 +21,27 @@ public class Grade {
      * @throws IllegalArgumentException if student or course is null, or gradeValue is invalid
      */
     public Grade(Student student, Course course, double gradeValue) {
+        this(student, course, gradeValue, course != null && course.getGradingScale() != null
+                ? course.getGradingScale() : GradingScale.STANDARD);
+    }
+
+    /**
+     * Creates a grade converted with a given scale. Grades returned by
+     * {@link GradingSystem} are built this way with the scale the course is graded on.
+     */
+    Grade(Student student, Course course, double gradeValue, GradingScale gradingScale) {
         if (student == null) {
             throw new IllegalArgumentException("Student cannot be null");
         }
         if (course == null) {
             throw new IllegalArgumentException("Course cannot be null");
         }
-        if (gradeValue < 0.0 || gradeValue > 100.0) {
-            throw new IllegalArgumentException("Grade value must be between 0.0 and 100.0");
-        }
+        checkGradeValue(gradeValue);
 
         this.student = student;
         this.course = course;
         this.gradeValue = gradeValue;
+        this.gradingScale = gradingScale;
     }
 
     public Student getStudent() {
@@ -46,30 +56,43 @@ public class Grade {
         return gradeValue;
     }
 
+    /**
+     * @return the scale the grade is converted to letters and grade points with
+     */
+    public GradingScale getGradingScale() {
+        return gradingScale;
+    }
+
     /**
      * Converts the numerical grade to a letter grade.
      *
-     * @return the letter grade (A, B, C, D, F)
+     * @return the letter grade on the grade's scale (A, B, C, D, F on the standard scale)
      */
     public String getLetterGrade() {
-        if (gradeValue >= 90.0) return "A";
-        if (gradeValue >= 80.0) return "B";
-        if (gradeValue >= 70.0) return "C";
-        if (gradeValue >= 60.0) return "D";
-        return "F";
+        return gradingScale.letterGradeFor(gradeValue);
     }
 
     /**
      * Converts the numerical grade to grade points for GPA calculation.
      *
-     * @return the grade points (4.0 for A, 3.0 for B, 2.0 for C, 1.0 for D, 0.0 for F)
+     * @return the grade points on the grade's scale (4.0 for A, 3.0 for B, 2.0 for C,
+     *         1.0 for D, 0.0 for F on the standard scale)
      */
     public double getGradePoints() {
-        if (gradeValue >= 90.0) return 4.0;
-        if (gradeValue >= 80.0) return 3.0;
-        if (gradeValue >= 70.0) return 2.0;
-        if (gradeValue >= 60.0) return 1.0;
-        return 0.0;
+        return gradingScale.gradePointsFor(gradeValue);
+    }
+
+    /**
+     * Validates a numerical grade value.
+     *
+     * @param gradeValue the numerical grade value
+     * @throws IllegalArgumentException if the value is outside 0.0 to 100.0 or is NaN
+     */
+    static void checkGradeValue(double gradeValue) {
+        // Written so that NaN, which fails every comparison, is rejected too
+        if (!(gradeValue >= 0.0 && gradeValue <= 100.0)) {
+            throw new IllegalArgumentException("Grade value must be between 0.0 and 100.0");
+        }
     }
 
     @Override
@@ -0,0 +1,38 @@
+package com.gradingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one batch of grades applied under every lock: a
+ * {@link GradingSystem#recordGrades} call, one chunk of a {@link GradeImporter} load, or
+ * the grades of a snapshot file being loaded. Rows that failed validation before the
+ * batch was applied are not counted.
+ */
+@Name("com.gradingsystem.GradeBatch")
+@Label("Grade Batch")
+@Category("Grading System")
+@Description("A batch of grades was applied")
+final class GradeBatchEvent extends jdk.jfr.Event {
+    @Label("Rows")
+    @Description("Validated rows in the batch")
+    int rows;
+
+    @Label("Rows Recorded")
+    @Description("Rows whose student and course still existed once the locks were held")
+    int recorded;
+
+    @Label("Students Updated")
+    int studentsUpdated;
+
+    @Label("Courses Updated")
+    int coursesUpdated;
+
+    @Label("Lock Wait")
+    @Description("Time spent waiting for in-flight writes to finish")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+}
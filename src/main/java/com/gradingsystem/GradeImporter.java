@@ -0,0 +1,595 @@
+package com.gradingsystem;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Imports grades from CSV or TSV files into a {@link GradingSystem}.
+ * <p>
+ * Each line holds a student ID, a course code and a grade value, separated by commas
+ * or tabs; the separator is detected from the first line. A first line whose grade
+ * field is not a number is treated as a header and skipped, as are blank lines.
+ * Fields may be surrounded by spaces or enclosed in double quotes, but quoted fields
+ * cannot contain the separator. The students and courses must already exist.
+ * <p>
+ * The file is memory-mapped in line-aligned chunks that are parsed on a pool of
+ * threads, straight from the mapped bytes: each distinct student ID and course code
+ * is decoded and resolved to its handle once per chunk, and grade values are parsed
+ * without creating strings. Parsed chunks are recorded in file order through the same
+ * path as {@link GradingSystem#recordGrades(java.util.Collection)}, while later chunks
+ * are still being parsed, so a later line for the same student and course replaces an
+ * earlier one. Lines that cannot be imported are reported in the {@link ImportResult}
+ * and do not stop the import.
+ */
+public class GradeImporter {
+    static final int MAX_REPORTED_FAILURES = 1000;
+    static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private final GradingSystem gradingSystem;
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * Creates an importer that parses on one thread per available processor.
+     *
+     * @param gradingSystem the system to import grades into
+     * @throws IllegalArgumentException if gradingSystem is null
+     */
+    public GradeImporter(GradingSystem gradingSystem) {
+        this(gradingSystem, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param gradingSystem the system to import grades into
+     * @param threads       the number of parsing threads
+     * @throws IllegalArgumentException if gradingSystem is null or threads is not positive
+     */
+    public GradeImporter(GradingSystem gradingSystem, int threads) {
+        this(gradingSystem, threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    GradeImporter(GradingSystem gradingSystem, int threads, int chunkSize) {
+        if (gradingSystem == null) {
+            throw new IllegalArgumentException("Grading system cannot be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.gradingSystem = gradingSystem;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every grade in a file.
+     *
+     * @param file the CSV or TSV file to read
+     * @return the number of rows read and imported, the failed lines, and the throughput
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult importGrades(Path file) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            byte delimiter = detectDelimiter(channel, size);
+            List<long[]> chunks = split(channel, size);
+
+            long rowCount = 0;
+            long importedCount = 0;
+            long failedCount = 0;
+            List<ImportResult.Failure> failures = new ArrayList<>();
+            long lineBase = 1;
+            AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "grade-importer-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+                int next = 0;
+                while (next < chunks.size() || !pending.isEmpty()) {
+                    // Keep every thread busy without holding more than a few parsed chunks in memory
+                    while (next < chunks.size() && pending.size() < threads * 2) {
+                        long[] chunk = chunks.get(next);
+                        boolean first = next == 0;
+                        pending.addLast(pool.submit(() -> parse(channel, chunk[0], chunk[1], delimiter, first)));
+                        next++;
+                    }
+                    ParsedChunk parsed = await(pending.removeFirst());
+
+                    BitSet missingStudents = new BitSet();
+                    BitSet missingCourses = new BitSet();
+                    int recorded = gradingSystem.recordResolvedGrades(parsed.students, parsed.courses, parsed.values,
+                            parsed.rows, missingStudents, missingCourses);
+                    rowCount += parsed.dataLines;
+                    importedCount += recorded;
+                    failedCount += parsed.failedCount + parsed.rows - recorded;
+
+                    List<ImportResult.Failure> chunkFailures = new ArrayList<>(parsed.failures);
+                    for (int row = missingStudents.nextSetBit(0); row >= 0; row = missingStudents.nextSetBit(row + 1)) {
+                        chunkFailures.add(removedFailure(channel, parsed, row,
+                                "Student with ID " + parsed.studentKeys.textOf(parsed.students[row]) + " not found"));
+                    }
+                    for (int row = missingCourses.nextSetBit(0); row >= 0; row = missingCourses.nextSetBit(row + 1)) {
+                        chunkFailures.add(removedFailure(channel, parsed, row,
+                                "Course with code " + parsed.courseKeys.textOf(parsed.courses[row]) + " not found"));
+                    }
+                    chunkFailures.sort((a, b) -> Long.compare(a.getLineNumber(), b.getLineNumber()));
+                    for (ImportResult.Failure failure : chunkFailures) {
+                        if (failures.size() == MAX_REPORTED_FAILURES) {
+                            break;
+                        }
+                        failures.add(new ImportResult.Failure(lineBase + failure.getLineNumber() - 1,
+                                failure.getLine(), failure.getMessage()));
+                    }
+                    lineBase += parsed.lines;
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            return new ImportResult(rowCount, importedCount, failedCount, failures, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Parses one chunk of the file. Line numbers in the result are relative to the chunk.
+     */
+    private ParsedChunk parse(FileChannel channel, long start, long end, byte delimiter, boolean first)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buffer.limit();
+        ParsedChunk parsed = new ParsedChunk(start, limit, gradingSystem);
+        int[] fieldStarts = new int[3];
+        int[] fieldEnds = new int[3];
+        boolean headerChecked = !first;
+
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            parsed.lines++;
+
+            int fields = splitFields(buffer, lineStart, lineEnd, delimiter, fieldStarts, fieldEnds);
+            if (fields == 0) {
+                lineStart = next;
+                continue;
+            }
+            double value = fields == 3 ? parseValue(buffer, fieldStarts[2], fieldEnds[2]) : Double.NaN;
+            if (!headerChecked) {
+                headerChecked = true;
+                if (fields == 3 && Double.isNaN(value)) {
+                    lineStart = next;
+                    continue;
+                }
+            }
+            parsed.dataLines++;
+
+            String failure;
+            if (fields != 3) {
+                failure = "Expected 3 fields but found " + fields;
+            } else {
+                int studentSlot = parsed.studentKeys.slotOf(buffer, fieldStarts[0], fieldEnds[0]);
+                int courseSlot = parsed.courseKeys.slotOf(buffer, fieldStarts[1], fieldEnds[1]);
+                int studentHandle = parsed.studentKeys.handle(studentSlot);
+                int courseHandle = parsed.courseKeys.handle(courseSlot);
+                if (studentHandle < 0) {
+                    failure = "Student with ID " + parsed.studentKeys.text(studentSlot) + " not found";
+                } else if (courseHandle < 0) {
+                    failure = "Course with code " + parsed.courseKeys.text(courseSlot) + " not found";
+                } else if (Double.isNaN(value)) {
+                    failure = "Invalid grade value: " + decode(buffer, fieldStarts[2], fieldEnds[2]);
+                } else {
+                    failure = null;
+                    try {
+                        Grade.checkGradeValue(value);
+                    } catch (IllegalArgumentException e) {
+                        failure = e.getMessage();
+                    }
+                    if (failure == null) {
+                        parsed.add(studentHandle, courseHandle, value, parsed.lines, lineStart);
+                    }
+                }
+            }
+            if (failure != null) {
+                parsed.failedCount++;
+                if (parsed.failures.size() < MAX_REPORTED_FAILURES) {
+                    parsed.failures.add(new ImportResult.Failure(parsed.lines, decode(buffer, lineStart, lineEnd), failure));
+                }
+            }
+            lineStart = next;
+        }
+        return parsed;
+    }
+
+    /**
+     * Finds the fields of a line, trimmed of spaces and enclosing quotes.
+     *
+     * @return the number of fields, or 0 if the line is blank; at most three fields
+     *         are located, but all of them are counted
+     */
+    private static int splitFields(ByteBuffer buffer, int from, int to, byte delimiter, int[] starts, int[] ends) {
+        int fields = 0;
+        int fieldStart = from;
+        boolean blank = true;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buffer.get(i) == delimiter) {
+                if (fields < starts.length) {
+                    int start = fieldStart;
+                    int end = i;
+                    while (start < end && buffer.get(start) == ' ') {
+                        start++;
+                    }
+                    while (end > start && buffer.get(end - 1) == ' ') {
+                        end--;
+                    }
+                    if (end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"') {
+                        start++;
+                        end--;
+                    }
+                    starts[fields] = start;
+                    ends[fields] = end;
+                }
+                fields++;
+                fieldStart = i + 1;
+            } else if (buffer.get(i) != ' ') {
+                blank = false;
+            }
+        }
+        return blank && fields == 1 ? 0 : fields;
+    }
+
+    /**
+     * Parses a grade value from ASCII bytes. Plain decimals are parsed directly; the
+     * quotient of two exactly representable doubles is correctly rounded, so the result
+     * is the same as {@link Double#parseDouble}. Anything else goes through
+     * {@code parseDouble}.
+     *
+     * @return the value, or NaN if the bytes are not a finite number
+     */
+    static double parseValue(ByteBuffer buffer, int from, int to) {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9' && digits < MAX_FAST_DIGITS) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseValueSlowly(buffer, from, to);
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        return fractionDigits <= 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+    }
+
+    private static double parseValueSlowly(ByteBuffer buffer, int from, int to) {
+        try {
+            double value = Double.parseDouble(decode(buffer, from, to));
+            return Double.isInfinite(value) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ImportResult.Failure removedFailure(FileChannel channel, ParsedChunk parsed, int row, String message)
+            throws IOException {
+        return new ImportResult.Failure(parsed.rowLines[row], readLine(channel, parsed.start + parsed.rowOffsets[row]),
+                message);
+    }
+
+    /**
+     * Reads the line starting at a position, without its line terminator.
+     */
+    private static String readLine(FileChannel channel, long position) throws IOException {
+        long end = lineEnd(channel, position, channel.size(), ByteBuffer.allocate(256));
+        ByteBuffer line = ByteBuffer.allocate((int) (end - position));
+        channel.read(line, position);
+        int length = line.position();
+        while (length > 0 && (line.get(length - 1) == '\n' || line.get(length - 1) == '\r')) {
+            length--;
+        }
+        return new String(line.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte detectDelimiter(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, 64 * 1024));
+        channel.read(buffer, 0);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\t' || b == ',') {
+                return b;
+            }
+            if (b == '\n') {
+                break;
+            }
+        }
+        return ',';
+    }
+
+    /**
+     * Splits the file into chunks of about the chunk size that end just after a line
+     * terminator, or at the end of the file.
+     *
+     * @return the start and end offset of each chunk
+     */
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            if (end < size) {
+                end = lineEnd(channel, end - 1, size, probe);
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line starting near offset " + start + " is too long");
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the offset just after the first line terminator at or after the position,
+     *         or the file size if there is none
+     */
+    private static long lineEnd(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * The resolved rows of one chunk, in file order.
+     */
+    private static final class ParsedChunk {
+        private final long start;
+        private final KeyTable studentKeys;
+        private final KeyTable courseKeys;
+        private final List<ImportResult.Failure> failures = new ArrayList<>();
+        private int[] students;
+        private int[] courses;
+        private double[] values;
+        private int[] rowLines;
+        private int[] rowOffsets;
+        private int rows;
+        private int lines;
+        private int dataLines;
+        private int failedCount;
+
+        ParsedChunk(long start, int bytes, GradingSystem gradingSystem) {
+            this.start = start;
+            this.studentKeys = new KeyTable(gradingSystem::getStudentHandle);
+            this.courseKeys = new KeyTable(gradingSystem::getCourseHandle);
+            // A grade line takes at least a dozen bytes or so
+            int capacity = Math.max(16, bytes / 16);
+            this.students = new int[capacity];
+            this.courses = new int[capacity];
+            this.values = new double[capacity];
+            this.rowLines = new int[capacity];
+            this.rowOffsets = new int[capacity];
+        }
+
+        void add(int student, int course, double value, int line, int offset) {
+            if (rows == students.length) {
+                int capacity = rows * 2;
+                students = Arrays.copyOf(students, capacity);
+                courses = Arrays.copyOf(courses, capacity);
+                values = Arrays.copyOf(values, capacity);
+                rowLines = Arrays.copyOf(rowLines, capacity);
+                rowOffsets = Arrays.copyOf(rowOffsets, capacity);
+            }
+            students[rows] = student;
+            courses[rows] = course;
+            values[rows] = value;
+            rowLines[rows] = line;
+            rowOffsets[rows] = offset;
+            rows++;
+        }
+    }
+
+    /**
+     * Resolves keys held as bytes to handles, decoding each distinct key only once.
+     * An open-addressing table of the raw key bytes.
+     */
+    private static final class KeyTable {
+        private final ToIntFunction<String> resolver;
+        private byte[][] keys = new byte[64][];
+        private String[] texts = new String[64];
+        private int[] hashes = new int[64];
+        private int[] handles = new int[64];
+        private int size;
+
+        KeyTable(ToIntFunction<String> resolver) {
+            this.resolver = resolver;
+        }
+
+        /**
+         * Looks up a key, resolving and adding it if it is new.
+         *
+         * @return the slot holding the key, valid until the next lookup
+         */
+        int slotOf(ByteBuffer buffer, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = keys.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && matches(keys[slot], buffer, from, to)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = new byte[to - from];
+            buffer.get(from, key);
+            String text = new String(key, StandardCharsets.UTF_8);
+            keys[slot] = key;
+            texts[slot] = text;
+            hashes[slot] = hash;
+            handles[slot] = resolver.applyAsInt(text);
+            if (++size * 2 > keys.length) {
+                return grow(slot);
+            }
+            return slot;
+        }
+
+        int handle(int slot) {
+            return handles[slot];
+        }
+
+        String text(int slot) {
+            return texts[slot];
+        }
+
+        /**
+         * @return the key that resolved to a handle, or null if none did
+         */
+        String textOf(int handle) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != null && handles[slot] == handle) {
+                    return texts[slot];
+                }
+            }
+            return null;
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int from, int to) {
+            if (key.length != to - from) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Doubles the table.
+         *
+         * @return the new slot of the key in the given old slot
+         */
+        private int grow(int tracked) {
+            byte[][] oldKeys = keys;
+            String[] oldTexts = texts;
+            int[] oldHashes = hashes;
+            int[] oldHandles = handles;
+            int capacity = oldKeys.length * 2;
+            keys = new byte[capacity][];
+            texts = new String[capacity];
+            hashes = new int[capacity];
+            handles = new int[capacity];
+            int mask = capacity - 1;
+            int trackedSlot = -1;
+            for (int old = 0; old < oldKeys.length; old++) {
+                if (oldKeys[old] == null) {
+                    continue;
+                }
+                int hash = oldHashes[old];
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[old];
+                texts[slot] = oldTexts[old];
+                hashes[slot] = hash;
+                handles[slot] = oldHandles[old];
+                if (old == tracked) {
+                    trackedSlot = slot;
+                }
+            }
+            return trackedSlot;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.gradingsystem;
+
+import java.util.Objects;
+
+/**
+ * One row of a bulk grade load: a grade value for a student and course identified by
+ * their keys.
+ * <p>
+ * Records are not validated when they are created, so that a bulk load can report a
+ * bad row instead of failing while the batch is being built. See
+ * {@link GradingSystem#recordGrades(java.util.Collection)}.
+ */
+public class GradeRecord {
+    private final String studentId;
+    private final String courseCode;
+    private final double gradeValue;
+
+    /**
+     * Creates a new grade record.
+     *
+     * @param studentId  the student's ID
+     * @param courseCode the course code
+     * @param gradeValue the numerical grade value
+     */
+    public GradeRecord(String studentId, String courseCode, double gradeValue) {
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.gradeValue = gradeValue;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public double getGradeValue() {
+        return gradeValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GradeRecord record = (GradeRecord) o;
+        return Double.compare(gradeValue, record.gradeValue) == 0 &&
+                Objects.equals(studentId, record.studentId) &&
+                Objects.equals(courseCode, record.courseCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(studentId, courseCode, gradeValue);
+    }
+
+    @Override
+    public String toString() {
+        return "GradeRecord{" +
+                "studentId='" + studentId + '\'' +
+                ", courseCode='" + courseCode + '\'' +
+                ", gradeValue=" + gradeValue +
+                '}';
+    }
+}
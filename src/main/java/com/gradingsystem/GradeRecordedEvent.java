@@ -0,0 +1,31 @@
+package com.gradingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for one {@link GradingSystem#recordGrade} call that took longer
+ * than the threshold, by default 10 microseconds. Grades are recorded far too often to
+ * keep an event or a stack trace for every call; lower the threshold in the recording
+ * settings to see them all.
+ */
+@Name("com.gradingsystem.GradeRecorded")
+@Label("Grade Recorded")
+@Category("Grading System")
+@Description("A grade was recorded for a student in a course")
+@Threshold("10 us")
+@StackTrace(false)
+final class GradeRecordedEvent extends jdk.jfr.Event {
+    @Label("Student ID")
+    String studentId;
+
+    @Label("Course Code")
+    String courseCode;
+
+    @Label("Grade Value")
+    double gradeValue;
+}
@@ -0,0 +1,36 @@
+package com.gradingsystem;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Where a {@link GradingSystem} keeps the data it stores per grade: the grade rows and
+ * each course's sorted grade index.
+ * <p>
+ * Students, courses and the per-student and per-course totals always live on the
+ * heap; only the structures whose size grows with the number of grades move.
+ */
+public enum GradeStorage {
+    /**
+     * Per-grade data lives in primitive arrays on the Java heap.
+     */
+    HEAP,
+
+    /**
+     * Per-grade data lives in fixed-width records in direct buffers outside the Java
+     * heap, so the heap only grows with the number of students and courses and the
+     * garbage collector never scans the grades. Reads and writes cost slightly more
+     * than with {@link #HEAP}. The memory is allocated with
+     * {@link ByteBuffer#allocateDirect(int)} and counts against
+     * {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size; raise it
+     * for large systems. It is freed once the system is no longer reachable.
+     */
+    OFF_HEAP;
+
+    /**
+     * Allocates a zeroed direct buffer in native byte order.
+     */
+    static ByteBuffer allocateDirect(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
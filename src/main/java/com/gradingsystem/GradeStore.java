@@ -0,0 +1,936 @@
+package com.gradingsystem;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Columnar storage for recorded grades.
+ * <p>
+ * Each grade is a row spread over primitive columns: the student handle, the
+ * course handle, the grade value, the links that thread the row onto two lists, a
+ * singly linked list per student and a doubly linked list per course, and the row's
+ * node in its course's {@link CourseGradeIndex}. Columns are
+ * allocated in chunks of {@value #CHUNK_SIZE} rows, so growing the store never copies
+ * existing rows, and rows freed by removals are reused before new ones are allocated.
+ * <p>
+ * Grade values are stored as a {@code short} number of hundredths whenever that
+ * round-trips to the exact same {@code double}, which covers any value written with up
+ * to two decimals. Other values are kept in a {@code double} column that is only
+ * allocated for chunks that need it. A row therefore costs 26 bytes: six ints for
+ * the handles, links and index node plus a two-byte value.
+ * <p>
+ * A chunk's columns are held by two objects: a data chunk with the student, course
+ * and value columns and a link chunk with the links and index nodes.
+ * With {@link GradeStorage#HEAP} they are primitive arrays; with
+ * {@link GradeStorage#OFF_HEAP} each chunk is a direct buffer of fixed-width records,
+ * so the only heap the rows cost is a few objects per chunk.
+ * <p>
+ * The student list is singly linked because every student operation walks the
+ * student's few dozen rows anyway; the course list is doubly linked so a row can be
+ * unlinked from a large section in constant time.
+ * <p>
+ * The store only synchronises its own growth. Callers must hold a student's lock while
+ * reading or changing that student's list, and a course's lock for the course's list;
+ * inserting or removing a row needs both. Rows are handed out by one allocator per
+ * student lock stripe, so allocation is covered by the student lock as well.
+ * <p>
+ * {@link #snapshot()} freezes the student, course and value columns without copying
+ * them. Each chunk records the snapshot generation it was last copied in; the first
+ * write to a chunk after a snapshot copies that chunk's data columns, so a snapshot
+ * only ever costs one copy per chunk that is actually changed afterwards. The link
+ * and index node columns are not part of a snapshot and are always written in place. Every write
+ * holds some student lock and the caller takes a snapshot while holding all of them,
+ * so no write can straddle a snapshot.
+ */
+final class GradeStore {
+    static final int NONE = -1;
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int ENTITY_CHUNK_SHIFT = 10;
+    private static final int ENTITY_CHUNK_SIZE = 1 << ENTITY_CHUNK_SHIFT;
+    private static final int ENTITY_CHUNK_MASK = ENTITY_CHUNK_SIZE - 1;
+    private static final int ROW_BLOCK_SIZE = 64;
+    static final short EXACT_VALUE = -1;
+    private static final int DATA_BYTES_PER_ROW = 2 * Integer.BYTES + Short.BYTES;
+    private static final int LINK_BYTES_PER_ROW = 4 * Integer.BYTES;
+
+    private volatile DataChunk[] dataChunks = new DataChunk[0];
+    private volatile LinkChunk[] linkChunks = new LinkChunk[0];
+    private volatile int rowLimit;
+    private volatile int generation;
+    private volatile AtomicIntegerArray chunkGenerations = new AtomicIntegerArray(0);
+
+    private volatile int[][] firstByStudent = new int[0][];
+    private volatile int[][] lastByStudent = new int[0][];
+    private volatile int[][] countByStudent = new int[0][];
+    private volatile int[][] firstByCourse = new int[0][];
+    private volatile int[][] lastByCourse = new int[0][];
+    private volatile int[][] countByCourse = new int[0][];
+
+    private final GradeStorage storage;
+    private final RowAllocator[] allocators;
+    private final int allocatorMask;
+
+    /**
+     * Creates a store for single-threaded use.
+     */
+    GradeStore() {
+        this(1, GradeStorage.HEAP);
+    }
+
+    /**
+     * Creates a store whose rows are allocated per student lock stripe.
+     *
+     * @param stripes the number of student lock stripes, a power of two
+     * @param storage where the chunks are allocated
+     */
+    GradeStore(int stripes, GradeStorage storage) {
+        this.storage = storage;
+        this.allocators = new RowAllocator[stripes];
+        for (int i = 0; i < stripes; i++) {
+            allocators[i] = new RowAllocator();
+        }
+        this.allocatorMask = stripes - 1;
+    }
+
+    /**
+     * Gets the number of stored grades. The count is only exact while no rows are
+     * being inserted or removed.
+     *
+     * @return the number of stored grades
+     */
+    int size() {
+        int size = 0;
+        for (RowAllocator allocator : allocators) {
+            size += allocator.liveRows;
+        }
+        return size;
+    }
+
+    /**
+     * Estimates the memory the store has allocated: its row chunks, whether on or off
+     * the heap, and the per-student and per-course list heads. Freed rows are counted,
+     * since they are kept for reuse.
+     *
+     * @return the allocated bytes
+     */
+    long allocatedBytes() {
+        long bytes = 0;
+        for (DataChunk data : dataChunks) {
+            if (data != null) {
+                bytes += data.allocatedBytes() + LINK_BYTES_PER_ROW * (long) CHUNK_SIZE;
+            }
+        }
+        for (int[][] entity : new int[][][] {firstByStudent, lastByStudent, countByStudent,
+                firstByCourse, lastByCourse, countByCourse}) {
+            for (int[] chunk : entity) {
+                if (chunk != null) {
+                    bytes += (long) chunk.length * Integer.BYTES;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Freezes the data columns. The caller must hold every student lock, so that no
+     * rows are being written.
+     *
+     * @return a read-only view of the stored grades that later changes do not affect
+     */
+    synchronized Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(dataChunks.clone(), rowLimit, size());
+        // Every existing chunk now belongs to an older generation and is copied before its next write
+        generation++;
+        return snapshot;
+    }
+
+    /**
+     * Finds the row holding a student's grade for a course.
+     *
+     * @return the row, or {@link #NONE} if the student has no grade for the course
+     */
+    int find(int student, int course) {
+        for (int row = firstOfStudent(student); row != NONE; row = nextOfStudent(row)) {
+            if (course(row) == course) {
+                return row;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Appends a grade for a student and course that do not have one yet.
+     *
+     * @return the new row
+     */
+    int insert(int student, int course, double value) {
+        ensureStudent(student);
+        ensureCourse(course);
+        int row = allocateRow(student);
+        int chunk = row >>> CHUNK_SHIFT;
+        int offset = row & CHUNK_MASK;
+        prepareWrite(chunk);
+        DataChunk data = dataChunks[chunk];
+        LinkChunk links = linkChunks[chunk];
+        data.setCourse(offset, course);
+        writeValue(chunk, offset, value);
+
+        links.setNextByStudent(offset, NONE);
+        int lastOfStudent = getEntity(lastByStudent, student);
+        if (lastOfStudent == NONE) {
+            setEntity(firstByStudent, student, row);
+        } else {
+            linksOf(lastOfStudent).setNextByStudent(lastOfStudent & CHUNK_MASK, row);
+        }
+        setEntity(lastByStudent, student, row);
+        setEntity(countByStudent, student, getEntity(countByStudent, student) + 1);
+
+        links.setNextByCourse(offset, NONE);
+        int lastOfCourse = getEntity(lastByCourse, course);
+        links.setPreviousByCourse(offset, lastOfCourse);
+        if (lastOfCourse == NONE) {
+            setEntity(firstByCourse, course, row);
+        } else {
+            linksOf(lastOfCourse).setNextByCourse(lastOfCourse & CHUNK_MASK, row);
+        }
+        setEntity(lastByCourse, course, row);
+        setEntity(countByCourse, course, getEntity(countByCourse, course) + 1);
+
+        // Marks the row live, so it is written last
+        data.setStudent(offset, student);
+        return row;
+    }
+
+    /**
+     * Removes every grade of a student.
+     *
+     * @param removed called for each row after it has been unlinked from its course,
+     *                while its columns can still be read
+     */
+    void removeStudent(int student, IntConsumer removed) {
+        int row = firstOfStudent(student);
+        while (row != NONE) {
+            int next = nextOfStudent(row);
+            unlinkFromCourse(row);
+            removed.accept(row);
+            freeRow(row);
+            row = next;
+        }
+        if (hasEntity(firstByStudent, student)) {
+            setEntity(firstByStudent, student, NONE);
+            setEntity(lastByStudent, student, NONE);
+            setEntity(countByStudent, student, 0);
+        }
+    }
+
+    /**
+     * Removes every grade of a course.
+     *
+     * @param removed called for each row after it has been unlinked from its student,
+     *                while its columns can still be read
+     */
+    void removeCourse(int course, IntConsumer removed) {
+        int row = firstOfCourse(course);
+        while (row != NONE) {
+            int next = nextOfCourse(row);
+            unlinkFromStudent(row);
+            removed.accept(row);
+            freeRow(row);
+            row = next;
+        }
+        if (hasEntity(firstByCourse, course)) {
+            setEntity(firstByCourse, course, NONE);
+            setEntity(lastByCourse, course, NONE);
+            setEntity(countByCourse, course, 0);
+        }
+    }
+
+    /**
+     * Calls the consumer with every stored row, in storage order.
+     */
+    void forEachRow(IntConsumer consumer) {
+        int limit = rowLimit;
+        for (int row = 0; row < limit; row++) {
+            if (student(row) != NONE) {
+                consumer.accept(row);
+            }
+        }
+    }
+
+    int student(int row) {
+        return dataChunks[row >>> CHUNK_SHIFT].student(row & CHUNK_MASK);
+    }
+
+    int course(int row) {
+        return dataChunks[row >>> CHUNK_SHIFT].course(row & CHUNK_MASK);
+    }
+
+    double value(int row) {
+        return readValue(dataChunks, row);
+    }
+
+    void setValue(int row, double value) {
+        writeValue(row >>> CHUNK_SHIFT, row & CHUNK_MASK, value);
+    }
+
+    /**
+     * Gets the node that holds a row in its course's sorted index.
+     */
+    int indexNode(int row) {
+        return linksOf(row).indexNode(row & CHUNK_MASK);
+    }
+
+    void setIndexNode(int row, int node) {
+        linksOf(row).setIndexNode(row & CHUNK_MASK, node);
+    }
+
+    int firstOfStudent(int student) {
+        return hasEntity(firstByStudent, student) ? getEntity(firstByStudent, student) : NONE;
+    }
+
+    int nextOfStudent(int row) {
+        return linksOf(row).nextByStudent(row & CHUNK_MASK);
+    }
+
+    int countOfStudent(int student) {
+        return hasEntity(countByStudent, student) ? getEntity(countByStudent, student) : 0;
+    }
+
+    int firstOfCourse(int course) {
+        return hasEntity(firstByCourse, course) ? getEntity(firstByCourse, course) : NONE;
+    }
+
+    int nextOfCourse(int row) {
+        return linksOf(row).nextByCourse(row & CHUNK_MASK);
+    }
+
+    int countOfCourse(int course) {
+        return hasEntity(countByCourse, course) ? getEntity(countByCourse, course) : 0;
+    }
+
+    /**
+     * Makes room for a student's list. Called when the student is added so inserts
+     * rarely need to grow anything.
+     */
+    void ensureStudent(int student) {
+        if (!hasEntity(firstByStudent, student)) {
+            growStudents(student);
+        }
+    }
+
+    /**
+     * Makes room for a course's list. Called when the course is added so inserts
+     * rarely need to grow anything.
+     */
+    void ensureCourse(int course) {
+        if (!hasEntity(firstByCourse, course)) {
+            growCourses(course);
+        }
+    }
+
+    /**
+     * Encodes a grade value as a number of hundredths.
+     *
+     * @return the hundredths, or {@link #EXACT_VALUE} if they do not round-trip to the same value
+     */
+    static short hundredthsOf(double value) {
+        long hundredths = Math.round(value * 100);
+        if (hundredths >= 0 && hundredths <= Short.MAX_VALUE && Double.compare(hundredths / 100.0, value) == 0) {
+            return (short) hundredths;
+        }
+        return EXACT_VALUE;
+    }
+
+    private void writeValue(int chunk, int offset, double value) {
+        prepareWrite(chunk);
+        DataChunk data = dataChunks[chunk];
+        short hundredths = hundredthsOf(value);
+        if (hundredths != EXACT_VALUE) {
+            data.setHundredths(offset, hundredths);
+        } else {
+            data.setExactValue(offset, value);
+            data.setHundredths(offset, EXACT_VALUE);
+        }
+    }
+
+    private static double readValue(DataChunk[] chunks, int row) {
+        DataChunk data = chunks[row >>> CHUNK_SHIFT];
+        int offset = row & CHUNK_MASK;
+        short hundredths = data.hundredths(offset);
+        return hundredths == EXACT_VALUE ? data.exactValue(offset) : hundredths / 100.0;
+    }
+
+    /**
+     * Makes sure the data columns of a chunk are not shared with a snapshot before
+     * they are written.
+     */
+    private void prepareWrite(int chunk) {
+        if (chunkGenerations.getAcquire(chunk) != generation) {
+            copyChunk(chunk);
+        }
+    }
+
+    private synchronized void copyChunk(int chunk) {
+        AtomicIntegerArray generations = chunkGenerations;
+        if (generations.get(chunk) == generation) {
+            return;
+        }
+        DataChunk[] chunks = dataChunks;
+        chunks[chunk] = chunks[chunk].copy();
+
+        // Republish so writers on other threads see the copy before the new generation
+        dataChunks = chunks;
+        generations.setRelease(chunk, generation);
+    }
+
+    private void unlinkFromCourse(int row) {
+        int course = course(row);
+        LinkChunk links = linksOf(row);
+        int previous = links.previousByCourse(row & CHUNK_MASK);
+        int next = links.nextByCourse(row & CHUNK_MASK);
+        if (previous == NONE) {
+            setEntity(firstByCourse, course, next);
+        } else {
+            linksOf(previous).setNextByCourse(previous & CHUNK_MASK, next);
+        }
+        if (next == NONE) {
+            setEntity(lastByCourse, course, previous);
+        } else {
+            linksOf(next).setPreviousByCourse(next & CHUNK_MASK, previous);
+        }
+        setEntity(countByCourse, course, getEntity(countByCourse, course) - 1);
+    }
+
+    private void unlinkFromStudent(int row) {
+        int student = student(row);
+        int previous = NONE;
+        for (int current = getEntity(firstByStudent, student); current != row; current = nextOfStudent(current)) {
+            previous = current;
+        }
+        int next = nextOfStudent(row);
+        if (previous == NONE) {
+            setEntity(firstByStudent, student, next);
+        } else {
+            linksOf(previous).setNextByStudent(previous & CHUNK_MASK, next);
+        }
+        if (next == NONE) {
+            setEntity(lastByStudent, student, previous);
+        }
+        setEntity(countByStudent, student, getEntity(countByStudent, student) - 1);
+    }
+
+    private int allocateRow(int student) {
+        RowAllocator allocator = allocators[student & allocatorMask];
+        allocator.liveRows++;
+        if (allocator.freeRows != NONE) {
+            int row = allocator.freeRows;
+            allocator.freeRows = nextOfStudent(row);
+            return row;
+        }
+        if (allocator.nextRow == allocator.blockEnd) {
+            reserveBlock(allocator);
+        }
+        return allocator.nextRow++;
+    }
+
+    /**
+     * Returns a row to its student's allocator. The free list is threaded through the
+     * student links, and the row is marked free so scans skip it.
+     */
+    private void freeRow(int row) {
+        RowAllocator allocator = allocators[student(row) & allocatorMask];
+        prepareWrite(row >>> CHUNK_SHIFT);
+        dataChunks[row >>> CHUNK_SHIFT].setStudent(row & CHUNK_MASK, NONE);
+        linksOf(row).setNextByStudent(row & CHUNK_MASK, allocator.freeRows);
+        allocator.freeRows = row;
+        allocator.liveRows--;
+    }
+
+    private synchronized void reserveBlock(RowAllocator allocator) {
+        int start = rowLimit;
+        if ((start & CHUNK_MASK) == 0) {
+            addChunk(start >>> CHUNK_SHIFT);
+        }
+        allocator.nextRow = start;
+        allocator.blockEnd = start + ROW_BLOCK_SIZE;
+        rowLimit = start + ROW_BLOCK_SIZE;
+    }
+
+    private void addChunk(int chunk) {
+        DataChunk[] data = dataChunks;
+        LinkChunk[] links = linkChunks;
+        AtomicIntegerArray generations = chunkGenerations;
+        if (chunk == data.length) {
+            int chunks = Math.max(4, chunk * 2);
+            data = Arrays.copyOf(data, chunks);
+            links = Arrays.copyOf(links, chunks);
+            generations = new AtomicIntegerArray(chunks);
+            for (int i = 0; i < chunk; i++) {
+                generations.set(i, chunkGenerations.get(i));
+            }
+        }
+        // A new chunk is not shared with any snapshot yet
+        generations.set(chunk, generation);
+        if (storage == GradeStorage.OFF_HEAP) {
+            data[chunk] = new DirectDataChunk();
+            links[chunk] = new DirectLinkChunk();
+        } else {
+            data[chunk] = new HeapDataChunk();
+            links[chunk] = new HeapLinkChunk();
+        }
+
+        linkChunks = links;
+        dataChunks = data;
+        chunkGenerations = generations;
+    }
+
+    private synchronized void growStudents(int student) {
+        if (!hasEntity(firstByStudent, student)) {
+            firstByStudent = growEntity(firstByStudent, student, NONE);
+            lastByStudent = growEntity(lastByStudent, student, NONE);
+            countByStudent = growEntity(countByStudent, student, 0);
+        }
+    }
+
+    private synchronized void growCourses(int course) {
+        if (!hasEntity(firstByCourse, course)) {
+            firstByCourse = growEntity(firstByCourse, course, NONE);
+            lastByCourse = growEntity(lastByCourse, course, NONE);
+            countByCourse = growEntity(countByCourse, course, 0);
+        }
+    }
+
+    /**
+     * Adds every missing chunk up to the one holding the handle. Existing chunks are
+     * shared with the previous array, so writes through either are never lost.
+     */
+    private static int[][] growEntity(int[][] chunks, int handle, int fill) {
+        int chunk = handle >>> ENTITY_CHUNK_SHIFT;
+        int[][] grown = chunk < chunks.length ? chunks.clone() : Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+        for (int i = 0; i <= chunk; i++) {
+            if (grown[i] == null) {
+                grown[i] = new int[ENTITY_CHUNK_SIZE];
+                if (fill != 0) {
+                    Arrays.fill(grown[i], fill);
+                }
+            }
+        }
+        return grown;
+    }
+
+    private static boolean hasEntity(int[][] chunks, int handle) {
+        if (handle < 0) {
+            return false;
+        }
+        int chunk = handle >>> ENTITY_CHUNK_SHIFT;
+        return chunk < chunks.length && chunks[chunk] != null;
+    }
+
+    private static int getEntity(int[][] chunks, int handle) {
+        return chunks[handle >>> ENTITY_CHUNK_SHIFT][handle & ENTITY_CHUNK_MASK];
+    }
+
+    private static void setEntity(int[][] chunks, int handle, int value) {
+        chunks[handle >>> ENTITY_CHUNK_SHIFT][handle & ENTITY_CHUNK_MASK] = value;
+    }
+
+    private LinkChunk linksOf(int row) {
+        return linkChunks[row >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * Rows owned by one student lock stripe: a free list plus the unused part of the
+     * block most recently reserved from the shared columns.
+     */
+    private static final class RowAllocator {
+        private int freeRows = NONE;
+        private int nextRow;
+        private int blockEnd;
+        private int liveRows;
+    }
+
+    /**
+     * The stored grades at the time {@link #snapshot()} was called.
+     */
+    static final class Snapshot {
+        private final DataChunk[] dataChunks;
+        private final int rowLimit;
+        private final int size;
+
+        private Snapshot(DataChunk[] dataChunks, int rowLimit, int size) {
+            this.dataChunks = dataChunks;
+            this.rowLimit = rowLimit;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Finds the first stored row at or after a position, in storage order.
+         *
+         * @return the row, or {@link #NONE} if there are no more rows
+         */
+        int nextRow(int from) {
+            for (int row = from; row < rowLimit; row++) {
+                if (student(row) != NONE) {
+                    return row;
+                }
+            }
+            return NONE;
+        }
+
+        int student(int row) {
+            return dataChunks[row >>> CHUNK_SHIFT].student(row & CHUNK_MASK);
+        }
+
+        int course(int row) {
+            return dataChunks[row >>> CHUNK_SHIFT].course(row & CHUNK_MASK);
+        }
+
+        double value(int row) {
+            return readValue(dataChunks, row);
+        }
+    }
+
+    /**
+     * The student, course and value columns of one chunk, which snapshots share. Rows
+     * are addressed by their offset in the chunk. A chunk of exact values is allocated
+     * the first time a row needs one.
+     */
+    private abstract static class DataChunk {
+        abstract int student(int offset);
+
+        abstract void setStudent(int offset, int student);
+
+        abstract int course(int offset);
+
+        abstract void setCourse(int offset, int course);
+
+        abstract short hundredths(int offset);
+
+        abstract void setHundredths(int offset, short hundredths);
+
+        abstract double exactValue(int offset);
+
+        abstract void setExactValue(int offset, double value);
+
+        abstract boolean hasExactValues();
+
+        /**
+         * @return the bytes the chunk's columns take up
+         */
+        long allocatedBytes() {
+            return (long) CHUNK_SIZE * (DATA_BYTES_PER_ROW + (hasExactValues() ? Double.BYTES : 0));
+        }
+
+        /**
+         * Copies the chunk, for a write after a snapshot.
+         */
+        abstract DataChunk copy();
+    }
+
+    /**
+     * The link and index node columns of one chunk, which are always written in place.
+     */
+    private abstract static class LinkChunk {
+        abstract int nextByStudent(int offset);
+
+        abstract void setNextByStudent(int offset, int row);
+
+        abstract int nextByCourse(int offset);
+
+        abstract void setNextByCourse(int offset, int row);
+
+        abstract int previousByCourse(int offset);
+
+        abstract void setPreviousByCourse(int offset, int row);
+
+        abstract int indexNode(int offset);
+
+        abstract void setIndexNode(int offset, int node);
+    }
+
+    private static final class HeapDataChunk extends DataChunk {
+        private final int[] students;
+        private final int[] courses;
+        private final short[] values;
+        private volatile double[] exactValues;
+
+        HeapDataChunk() {
+            students = new int[CHUNK_SIZE];
+            Arrays.fill(students, NONE);
+            courses = new int[CHUNK_SIZE];
+            values = new short[CHUNK_SIZE];
+        }
+
+        private HeapDataChunk(HeapDataChunk chunk) {
+            students = chunk.students.clone();
+            courses = chunk.courses.clone();
+            values = chunk.values.clone();
+            double[] exact = chunk.exactValues;
+            exactValues = exact == null ? null : exact.clone();
+        }
+
+        @Override
+        int student(int offset) {
+            return students[offset];
+        }
+
+        @Override
+        void setStudent(int offset, int student) {
+            students[offset] = student;
+        }
+
+        @Override
+        int course(int offset) {
+            return courses[offset];
+        }
+
+        @Override
+        void setCourse(int offset, int course) {
+            courses[offset] = course;
+        }
+
+        @Override
+        short hundredths(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        void setHundredths(int offset, short hundredths) {
+            values[offset] = hundredths;
+        }
+
+        @Override
+        double exactValue(int offset) {
+            return exactValues[offset];
+        }
+
+        @Override
+        void setExactValue(int offset, double value) {
+            double[] exact = exactValues;
+            if (exact == null) {
+                exact = allocateExactValues();
+            }
+            exact[offset] = value;
+        }
+
+        @Override
+        boolean hasExactValues() {
+            return exactValues != null;
+        }
+
+        private synchronized double[] allocateExactValues() {
+            if (exactValues == null) {
+                exactValues = new double[CHUNK_SIZE];
+            }
+            return exactValues;
+        }
+
+        @Override
+        DataChunk copy() {
+            return new HeapDataChunk(this);
+        }
+    }
+
+    private static final class HeapLinkChunk extends LinkChunk {
+        private final int[] nextByStudent = new int[CHUNK_SIZE];
+        private final int[] nextByCourse = new int[CHUNK_SIZE];
+        private final int[] previousByCourse = new int[CHUNK_SIZE];
+        private final int[] indexNodes = new int[CHUNK_SIZE];
+
+        @Override
+        int nextByStudent(int offset) {
+            return nextByStudent[offset];
+        }
+
+        @Override
+        void setNextByStudent(int offset, int row) {
+            nextByStudent[offset] = row;
+        }
+
+        @Override
+        int nextByCourse(int offset) {
+            return nextByCourse[offset];
+        }
+
+        @Override
+        void setNextByCourse(int offset, int row) {
+            nextByCourse[offset] = row;
+        }
+
+        @Override
+        int previousByCourse(int offset) {
+            return previousByCourse[offset];
+        }
+
+        @Override
+        void setPreviousByCourse(int offset, int row) {
+            previousByCourse[offset] = row;
+        }
+
+        @Override
+        int indexNode(int offset) {
+            return indexNodes[offset];
+        }
+
+        @Override
+        void setIndexNode(int offset, int node) {
+            indexNodes[offset] = node;
+        }
+    }
+
+    /**
+     * A data chunk as 10-byte records: the student and course handles and the value in
+     * hundredths.
+     */
+    private static final class DirectDataChunk extends DataChunk {
+        private static final int STUDENT = 0;
+        private static final int COURSE = 4;
+        private static final int HUNDREDTHS = 8;
+        private static final int ROW_BYTES = DATA_BYTES_PER_ROW;
+
+        private final ByteBuffer rows;
+        private volatile ByteBuffer exactValues;
+
+        DirectDataChunk() {
+            rows = GradeStorage.allocateDirect(CHUNK_SIZE * ROW_BYTES);
+            for (int offset = 0; offset < CHUNK_SIZE; offset++) {
+                rows.putInt(offset * ROW_BYTES + STUDENT, NONE);
+            }
+        }
+
+        private DirectDataChunk(DirectDataChunk chunk) {
+            rows = copyOf(chunk.rows);
+            ByteBuffer exact = chunk.exactValues;
+            exactValues = exact == null ? null : copyOf(exact);
+        }
+
+        private static ByteBuffer copyOf(ByteBuffer buffer) {
+            ByteBuffer copy = GradeStorage.allocateDirect(buffer.capacity());
+            copy.put(0, buffer, 0, buffer.capacity());
+            return copy;
+        }
+
+        @Override
+        int student(int offset) {
+            return rows.getInt(offset * ROW_BYTES + STUDENT);
+        }
+
+        @Override
+        void setStudent(int offset, int student) {
+            rows.putInt(offset * ROW_BYTES + STUDENT, student);
+        }
+
+        @Override
+        int course(int offset) {
+            return rows.getInt(offset * ROW_BYTES + COURSE);
+        }
+
+        @Override
+        void setCourse(int offset, int course) {
+            rows.putInt(offset * ROW_BYTES + COURSE, course);
+        }
+
+        @Override
+        short hundredths(int offset) {
+            return rows.getShort(offset * ROW_BYTES + HUNDREDTHS);
+        }
+
+        @Override
+        void setHundredths(int offset, short hundredths) {
+            rows.putShort(offset * ROW_BYTES + HUNDREDTHS, hundredths);
+        }
+
+        @Override
+        double exactValue(int offset) {
+            return exactValues.getDouble(offset * Double.BYTES);
+        }
+
+        @Override
+        void setExactValue(int offset, double value) {
+            ByteBuffer exact = exactValues;
+            if (exact == null) {
+                exact = allocateExactValues();
+            }
+            exact.putDouble(offset * Double.BYTES, value);
+        }
+
+        @Override
+        boolean hasExactValues() {
+            return exactValues != null;
+        }
+
+        private synchronized ByteBuffer allocateExactValues() {
+            if (exactValues == null) {
+                exactValues = GradeStorage.allocateDirect(CHUNK_SIZE * Double.BYTES);
+            }
+            return exactValues;
+        }
+
+        @Override
+        DataChunk copy() {
+            return new DirectDataChunk(this);
+        }
+    }
+
+    /**
+     * A link chunk as 16-byte records: the three list links and the index node.
+     */
+    private static final class DirectLinkChunk extends LinkChunk {
+        private static final int NEXT_BY_STUDENT = 0;
+        private static final int NEXT_BY_COURSE = 4;
+        private static final int PREVIOUS_BY_COURSE = 8;
+        private static final int INDEX_NODE = 12;
+        private static final int ROW_BYTES = LINK_BYTES_PER_ROW;
+
+        private final ByteBuffer rows = GradeStorage.allocateDirect(CHUNK_SIZE * ROW_BYTES);
+
+        @Override
+        int nextByStudent(int offset) {
+            return rows.getInt(offset * ROW_BYTES + NEXT_BY_STUDENT);
+        }
+
+        @Override
+        void setNextByStudent(int offset, int row) {
+            rows.putInt(offset * ROW_BYTES + NEXT_BY_STUDENT, row);
+        }
+
+        @Override
+        int nextByCourse(int offset) {
+            return rows.getInt(offset * ROW_BYTES + NEXT_BY_COURSE);
+        }
+
+        @Override
+        void setNextByCourse(int offset, int row) {
+            rows.putInt(offset * ROW_BYTES + NEXT_BY_COURSE, row);
+        }
+
+        @Override
+        int previousByCourse(int offset) {
+            return rows.getInt(offset * ROW_BYTES + PREVIOUS_BY_COURSE);
+        }
+
+        @Override
+        void setPreviousByCourse(int offset, int row) {
+            rows.putInt(offset * ROW_BYTES + PREVIOUS_BY_COURSE, row);
+        }
+
+        @Override
+        int indexNode(int offset) {
+            return rows.getInt(offset * ROW_BYTES + INDEX_NODE);
+        }
+
+        @Override
+        void setIndexNode(int offset, int node) {
+            rows.putInt(offset * ROW_BYTES + INDEX_NODE, node);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.gradingsystem;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts, latency histograms and size gauges for one {@link GradingSystem}.
+ * <p>
+ * Metrics are off until {@link GradingSystem#enableMetrics()} is called. While they
+ * are off, an operation only reads one field and checks it for null. While they are
+ * on, each call to an instrumented operation that returns normally reads the clock
+ * twice and records its duration in the operation's {@link LatencyHistogram}, without
+ * locking or allocating. Calls that throw are not recorded.
+ * <p>
+ * {@link #registerMBeans(String)} publishes the gauges and every operation's histogram
+ * on the platform MBean server, where JConsole, VisualVM or a JMX exporter can read
+ * them.
+ * <p>
+ * GPAs and course averages are running aggregates that every change keeps current, so
+ * reading them never misses. Full course statistics are cached per course and the
+ * cache is cleared by any change to the course's grades; the metrics count how often
+ * a read finds them cached and how often it has to build them again.
+ */
+public final class GradingMetrics implements GradingMetricsMXBean {
+    /** The JMX domain the MBeans are registered in. */
+    public static final String DOMAIN = "com.gradingsystem";
+
+    /**
+     * The operations whose calls are counted and timed. Overloads of a method share
+     * one operation.
+     */
+    public enum Operation {
+        ADD_STUDENT("addStudent"),
+        REMOVE_STUDENT("removeStudent"),
+        ADD_COURSE("addCourse"),
+        REMOVE_COURSE("removeCourse"),
+        REMOVE_STUDENTS("removeStudents"),
+        REMOVE_COURSES("removeCourses"),
+        RECORD_GRADE("recordGrade"),
+        RECORD_GRADES("recordGrades"),
+        CALCULATE_GPA("calculateGPA"),
+        CALCULATE_COURSE_AVERAGE("calculateCourseAverage"),
+        GET_COURSE_STATISTICS("getCourseStatistics"),
+        /** {@code getGradesForCourseBetween}, {@code getGradesForCourseWithLetter} and the top and bottom grades. */
+        COURSE_GRADE_QUERY("courseGradeQuery"),
+        /** {@code topStudentsByGpa}, {@code rankOf}, {@code percentileOf} and {@code studentsWithGpaBetween}. */
+        GPA_RANK_QUERY("gpaRankQuery"),
+        SNAPSHOT("snapshot");
+
+        private final String methodName;
+
+        Operation(String methodName) {
+            this.methodName = methodName;
+        }
+
+        /**
+         * @return the name the operation is published under
+         */
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+
+    private final GradingSystem system;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+    private final LongAdder statisticsHits = new LongAdder();
+    private final LongAdder statisticsMisses = new LongAdder();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    GradingMetrics(GradingSystem system) {
+        this.system = system;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records a call that started at a {@link System#nanoTime()} reading and has just
+     * returned.
+     */
+    void record(Operation operation, long startNanos) {
+        histograms[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts a read of a course's cached statistics.
+     *
+     * @param built whether the statistics had to be built because the course changed
+     *              since they were last read
+     */
+    void recordStatisticsLookup(boolean built) {
+        (built ? statisticsMisses : statisticsHits).increment();
+    }
+
+    /**
+     * Gets the histogram of an operation's call durations.
+     *
+     * @param operation the operation
+     * @return the live histogram, which keeps recording
+     */
+    public LatencyHistogram getHistogram(Operation operation) {
+        return histograms[operation.ordinal()];
+    }
+
+    @Override
+    public int getStudentCount() {
+        return system.studentCount();
+    }
+
+    @Override
+    public int getCourseCount() {
+        return system.courseCount();
+    }
+
+    @Override
+    public int getGradeCount() {
+        return system.gradeCount();
+    }
+
+    @Override
+    public long getEstimatedGradeMemoryBytes() {
+        return system.estimatedGradeMemoryBytes();
+    }
+
+    @Override
+    public long getStatisticsCacheHits() {
+        return statisticsHits.sum();
+    }
+
+    @Override
+    public long getStatisticsCacheMisses() {
+        return statisticsMisses.sum();
+    }
+
+    @Override
+    public int getStatisticsCacheSize() {
+        return system.cachedStatisticsCount();
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            counts.put(operation.getMethodName(), getHistogram(operation).getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        statisticsHits.reset();
+        statisticsMisses.reset();
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server: the gauges as
+     * {@code com.gradingsystem:type=GradingSystem,name=<name>} and each operation's
+     * histogram as {@code com.gradingsystem:type=GradingSystem,name=<name>,operation=<method>}.
+     *
+     * @param name a name that tells this system apart from others in the same JVM
+     * @return the name the gauges were registered under
+     * @throws IllegalArgumentException if name is null or empty
+     * @throws IllegalStateException if these metrics are already registered
+     * @throws JMException if a name is taken or the server rejects an MBean; nothing
+     *                     stays registered
+     */
+    public synchronized ObjectName registerMBeans(String name) throws JMException {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+        if (!registered.isEmpty()) {
+            throw new IllegalStateException("Metrics are already registered");
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String prefix = DOMAIN + ":type=GradingSystem,name=" + ObjectName.quote(name.trim());
+        try {
+            ObjectName gauges = new ObjectName(prefix);
+            server.registerMBean(this, gauges);
+            registered.add(gauges);
+            for (Operation operation : Operation.values()) {
+                ObjectName histogram = new ObjectName(prefix + ",operation=" + operation.getMethodName());
+                server.registerMBean(getHistogram(operation), histogram);
+                registered.add(histogram);
+            }
+            return gauges;
+        } catch (JMException e) {
+            unregisterMBeans();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the MBeans published by {@link #registerMBeans(String)}. Does nothing if
+     * they are not registered.
+     *
+     * @throws JMException if the server fails to remove an MBean
+     */
+    public synchronized void unregisterMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (ObjectName name : registered) {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+        } finally {
+            registered.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GradingMetrics{" +
+                "students=" + getStudentCount() +
+                ", courses=" + getCourseCount() +
+                ", grades=" + getGradeCount() +
+                ", statisticsCacheHits=" + getStatisticsCacheHits() +
+                ", statisticsCacheMisses=" + getStatisticsCacheMisses() +
+                ", operationCounts=" + getOperationCounts() +
+                '}';
+    }
+}
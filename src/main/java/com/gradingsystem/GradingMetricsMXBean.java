@@ -0,0 +1,56 @@
+package com.gradingsystem;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link GradingMetrics}, as published over JMX by
+ * {@link GradingMetrics#registerMBeans(String)}.
+ */
+public interface GradingMetricsMXBean {
+    /**
+     * @return the number of students in the system
+     */
+    int getStudentCount();
+
+    /**
+     * @return the number of courses in the system
+     */
+    int getCourseCount();
+
+    /**
+     * @return the number of grades in the system
+     */
+    int getGradeCount();
+
+    /**
+     * @return the bytes allocated for grade rows and course grade indexes, on or off the
+     *         heap as the system's {@link GradeStorage} decides
+     */
+    long getEstimatedGradeMemoryBytes();
+
+    /**
+     * @return the number of course statistics reads that found the statistics cached
+     */
+    long getStatisticsCacheHits();
+
+    /**
+     * @return the number of course statistics reads that had to build the statistics,
+     *         because the course was read for the first time or changed since
+     */
+    long getStatisticsCacheMisses();
+
+    /**
+     * @return the number of courses whose statistics are currently cached
+     */
+    int getStatisticsCacheSize();
+
+    /**
+     * @return the number of calls recorded for each operation, keyed by method name
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * Discards every operation's recorded calls and the statistics cache counts.
+     */
+    void reset();
+}
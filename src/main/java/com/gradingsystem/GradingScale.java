@@ -0,0 +1,348 @@
+package com.gradingsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maps numerical grade values to letter grades and grade points.
+ * <p>
+ * A scale is a list of bands, each a letter grade with the lowest value that earns it
+ * and the grade points it is worth. Band cut-offs are whole hundredths, so the scale
+ * compiles into lookup tables with one cell per hundredth from 0.00 to 100.00: every
+ * value in a cell falls in the same band, and converting a value is an index
+ * computation and an array load rather than a chain of comparisons. Scales are
+ * immutable and can be shared between threads.
+ * <p>
+ * {@link #STANDARD} is the plain A to F scale used unless another is chosen; a
+ * {@link GradingSystem} can be given a different default scale, and a {@link Course}
+ * its own scale that overrides the system's default.
+ */
+public final class GradingScale {
+    /** The A (90), B (80), C (70), D (60) and F scale, worth 4 to 0 grade points. */
+    public static final GradingScale STANDARD = parse("Standard", "A:90:4.0,B:80:3.0,C:70:2.0,D:60:1.0,F:0:0.0");
+
+    /** The standard scale split into plus and minus grades, from A (93) down to D- (60). */
+    public static final GradingScale PLUS_MINUS = parse("Plus/Minus",
+            "A:93:4.0,A-:90:3.7,B+:87:3.3,B:83:3.0,B-:80:2.7,C+:77:2.3,C:73:2.0,C-:70:1.7,"
+                    + "D+:67:1.3,D:63:1.0,D-:60:0.7,F:0:0.0");
+
+    private static final int CELLS = 10001;
+
+    private final String name;
+    private final List<Band> bands;
+    private final String[] letters;
+    private final double[] minimums;
+    private final byte[] bandByCell = new byte[CELLS];
+    private final double[] pointsByCell = new double[CELLS];
+
+    /**
+     * Creates a grading scale.
+     *
+     * @param name  a descriptive name for the scale
+     * @param bands the scale's bands, in any order
+     * @throws IllegalArgumentException if name is null or empty, there are no bands or more
+     *                                  than 127, a letter grade or cut-off appears twice, a
+     *                                  cut-off is not a whole number of hundredths between
+     *                                  0 and 100, no band starts at 0, or grade points are
+     *                                  negative or not finite
+     */
+    public GradingScale(String name, List<Band> bands) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Scale name cannot be null or empty");
+        }
+        if (bands == null || bands.isEmpty()) {
+            throw new IllegalArgumentException("Grading scale must have at least one band");
+        }
+        if (bands.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Grading scale cannot have more than " + Byte.MAX_VALUE + " bands");
+        }
+        List<Band> sorted = new ArrayList<>(bands);
+        if (sorted.contains(null)) {
+            throw new IllegalArgumentException("Band cannot be null");
+        }
+        sorted.sort((a, b) -> Double.compare(b.minimum, a.minimum));
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            Band band = sorted.get(i);
+            if (!seen.add(band.letter)) {
+                throw new IllegalArgumentException("Letter grade " + band.letter + " appears twice");
+            }
+            if (i > 0 && sorted.get(i - 1).minimum == band.minimum) {
+                throw new IllegalArgumentException("Cut-off " + band.minimum + " appears twice");
+            }
+        }
+        if (sorted.get(sorted.size() - 1).minimum != 0.0) {
+            throw new IllegalArgumentException("Grading scale must have a band starting at 0");
+        }
+
+        this.name = name.trim();
+        this.bands = Collections.unmodifiableList(sorted);
+        this.letters = new String[sorted.size()];
+        this.minimums = new double[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            letters[i] = sorted.get(i).letter;
+            minimums[i] = sorted.get(i).minimum;
+        }
+        // Fill the cells from the top, each band down to the cell its cut-off starts in
+        int band = 0;
+        for (int cell = CELLS - 1; cell >= 0; cell--) {
+            while (cell < Math.round(minimums[band] * 100)) {
+                band++;
+            }
+            bandByCell[cell] = (byte) band;
+            pointsByCell[cell] = sorted.get(band).points;
+        }
+    }
+
+    /**
+     * Parses a scale from the form returned by {@link #toSpec()}: comma-separated bands,
+     * each written as {@code letter:cut-off:points}, such as
+     * {@code "P:50:1.0,F:0:0.0"}.
+     *
+     * @param name the scale's name
+     * @param spec the bands
+     * @return the scale
+     * @throws IllegalArgumentException if the spec is malformed or describes an invalid scale
+     */
+    public static GradingScale parse(String name, String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Grading scale must have at least one band");
+        }
+        List<Band> bands = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] fields = entry.trim().split(":");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Malformed band: " + entry.trim());
+            }
+            try {
+                bands.add(new Band(fields[0], Double.parseDouble(fields[1]), Double.parseDouble(fields[2])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed band: " + entry.trim());
+            }
+        }
+        return new GradingScale(name, bands);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the bands, highest cut-off first
+     */
+    public List<Band> getBands() {
+        return bands;
+    }
+
+    /**
+     * @return the letter grades, highest first
+     */
+    public List<String> getLetterGrades() {
+        return Arrays.asList(letters.clone());
+    }
+
+    /**
+     * Converts a numerical grade value to a letter grade.
+     *
+     * @param gradeValue the numerical grade value (0.0 to 100.0)
+     * @return the letter grade of the band the value falls in
+     */
+    public String letterGradeFor(double gradeValue) {
+        return letters[bandByCell[cellOf(gradeValue)]];
+    }
+
+    /**
+     * Converts a numerical grade value to grade points for GPA calculation.
+     *
+     * @param gradeValue the numerical grade value (0.0 to 100.0)
+     * @return the grade points of the band the value falls in
+     */
+    public double gradePointsFor(double gradeValue) {
+        return pointsByCell[cellOf(gradeValue)];
+    }
+
+    /**
+     * Gets the lowest numerical grade value that earns a letter grade.
+     *
+     * @param letterGrade the letter grade
+     * @return the letter's cut-off
+     * @throws IllegalArgumentException if the letter grade is not part of this scale
+     */
+    public double minimumValueFor(String letterGrade) {
+        return minimums[indexOf(letterGrade)];
+    }
+
+    /**
+     * Writes the bands in the form {@link #parse(String, String)} reads.
+     *
+     * @return the bands, highest cut-off first
+     */
+    public String toSpec() {
+        StringBuilder spec = new StringBuilder();
+        for (Band band : bands) {
+            if (spec.length() > 0) {
+                spec.append(',');
+            }
+            spec.append(band.letter).append(':').append(band.minimum).append(':').append(band.points);
+        }
+        return spec.toString();
+    }
+
+    /**
+     * @return the number of bands, which is the number of letter grades
+     */
+    int bandCount() {
+        return letters.length;
+    }
+
+    /**
+     * Gets the band a numerical grade value falls in.
+     *
+     * @return the band's position, counting from the highest cut-off
+     */
+    int bandOf(double gradeValue) {
+        return bandByCell[cellOf(gradeValue)];
+    }
+
+    /**
+     * Gets the position of a letter grade, counting from the highest cut-off.
+     *
+     * @throws IllegalArgumentException if the letter grade is not part of this scale
+     */
+    int indexOf(String letterGrade) {
+        for (int i = 0; i < letters.length; i++) {
+            if (letters[i].equals(letterGrade)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown letter grade: " + letterGrade);
+    }
+
+    /**
+     * Gets the lowest value of a band, by position.
+     */
+    double minimumOf(int band) {
+        return minimums[band];
+    }
+
+    /**
+     * Finds the cell of the hundredth a value falls in, so that
+     * {@code cell / 100.0 <= gradeValue < (cell + 1) / 100.0}. Multiplying by 100 can
+     * round across a cell boundary, which the two comparisons correct. Values outside
+     * 0.0 to 100.0 fall in the nearest end cell.
+     */
+    private static int cellOf(double gradeValue) {
+        if (!(gradeValue > 0.0)) {
+            return 0;
+        }
+        if (gradeValue >= 100.0) {
+            return CELLS - 1;
+        }
+        int cell = (int) (gradeValue * 100.0);
+        if (cell > 0 && cell / 100.0 > gradeValue) {
+            cell--;
+        } else if (cell < CELLS - 1 && (cell + 1) / 100.0 <= gradeValue) {
+            cell++;
+        }
+        return cell;
+    }
+
+    /**
+     * Scales are equal when they have the same bands, whatever their names.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return bands.equals(((GradingScale) o).bands);
+    }
+
+    @Override
+    public int hashCode() {
+        return bands.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "GradingScale{" +
+                "name='" + name + '\'' +
+                ", bands='" + toSpec() + '\'' +
+                '}';
+    }
+
+    /**
+     * One band of a grading scale: a letter grade, the lowest value that earns it and
+     * the grade points it is worth.
+     */
+    public static final class Band {
+        private final String letter;
+        private final double minimum;
+        private final double points;
+
+        /**
+         * Creates a band.
+         *
+         * @param letter  the letter grade, such as "B+"
+         * @param minimum the lowest value that earns the letter, a whole number of
+         *                hundredths between 0.0 and 100.0
+         * @param points  the grade points the letter is worth
+         * @throws IllegalArgumentException if letter is null, empty or contains ':' or ',',
+         *                                  or minimum or points is invalid
+         */
+        public Band(String letter, double minimum, double points) {
+            if (letter == null || letter.trim().isEmpty()) {
+                throw new IllegalArgumentException("Letter grade cannot be null or empty");
+            }
+            if (letter.indexOf(':') >= 0 || letter.indexOf(',') >= 0) {
+                throw new IllegalArgumentException("Letter grade cannot contain ':' or ','");
+            }
+            if (!(minimum >= 0.0 && minimum <= 100.0) || Math.round(minimum * 100) / 100.0 != minimum) {
+                throw new IllegalArgumentException(
+                        "Cut-off must be a whole number of hundredths between 0.0 and 100.0");
+            }
+            if (!(points >= 0.0) || Double.isInfinite(points)) {
+                throw new IllegalArgumentException("Grade points must be finite and not negative");
+            }
+            this.letter = letter.trim();
+            this.minimum = minimum;
+            this.points = points;
+        }
+
+        public String getLetter() {
+            return letter;
+        }
+
+        public double getMinimum() {
+            return minimum;
+        }
+
+        public double getPoints() {
+            return points;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Band band = (Band) o;
+            return Double.compare(band.minimum, minimum) == 0 &&
+                    Double.compare(band.points, points) == 0 &&
+                    letter.equals(band.letter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(letter, minimum, points);
+        }
+
+        @Override
+        public String toString() {
+            return letter + ":" + minimum + ":" + points;
+        }
+    }
+}
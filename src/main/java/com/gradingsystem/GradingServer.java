@@ -0,0 +1,396 @@
+package com.gradingsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Serves read-only queries on a {@link GradingSystem} as JSON over HTTP, using the HTTP
+ * server built into the JDK.
+ * <p>
+ * The server answers {@code GET} requests for:
+ * <ul>
+ *   <li>{@code /students/{id}/gpa}: {@code {"studentId":"S001","gpa":3.5}}</li>
+ *   <li>{@code /students/{id}/grades}: the student's grades, as a JSON array</li>
+ *   <li>{@code /courses/{code}/average}: {@code {"courseCode":"CS101","average":85.0}}</li>
+ *   <li>{@code /courses/{code}/grades}: the course's grades, as a JSON array</li>
+ * </ul>
+ * Each grade is written as
+ * {@code {"studentId":"S001","courseCode":"CS101","gradeValue":85.0,"letterGrade":"B","gradePoints":3.0}}.
+ * An unknown student or course gets a 404 and any other method than {@code GET} a
+ * 405, each with a body of the form {@code {"error":"..."}}.
+ * <p>
+ * Connections are kept alive between requests. The JDK server writes the headers and
+ * the body of a response separately and leaves Nagle's algorithm on unless the
+ * JVM-wide {@code sun.net.httpserver.nodelay} system property is {@code true}, so on a
+ * kept-alive connection each body can wait for the client's delayed acknowledgement of
+ * the headers. The server does not change the property, which affects every JDK HTTP
+ * server in the JVM and is read when the first one is created; {@link App} sets it
+ * before serving. Single values are sent with a {@code Content-Length}; grade lists are streamed from
+ * {@link GradingSystem#streamGradesForStudent(String)} and
+ * {@link GradingSystem#streamGradesForCourse(String)} with chunked encoding, so a large
+ * course never has to be held in memory as one response. If a listed grade is removed
+ * while its list is being streamed, the response is cut off.
+ * <p>
+ * Requests are handled on virtual threads when the runtime has them (Java 21 and
+ * later) and otherwise on a fixed pool of platform threads. When every pool thread is
+ * busy and its queue is full, the thread accepting connections handles the next
+ * request itself, which stops it accepting more until it is done.
+ * <p>
+ * The server only reads the system. If anything else changes the system while it is
+ * served, the system must be one created for sharing between threads, such as
+ * {@link GradingSystem#GradingSystem(int)}.
+ */
+public final class GradingServer implements Closeable {
+    private static final int BACKLOG = 1024;
+    private static final int QUEUED_REQUESTS_PER_THREAD = 64;
+    private static final int STREAM_BUFFER_CHARS = 8192;
+    private static final String JSON = "application/json; charset=utf-8";
+    static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final GradingSystem gradingSystem;
+    private final InetSocketAddress address;
+    private final int threads;
+    private HttpServer server;
+    private ExecutorService executor;
+    private boolean virtualThreads;
+
+    /**
+     * Creates a server on every local address, with a pool of twice as many threads as
+     * there are processors when virtual threads are not available. Call
+     * {@link #start()} to start serving.
+     *
+     * @param gradingSystem the system to serve
+     * @param port          the port to listen on, or 0 for any free port
+     * @throws IllegalArgumentException if gradingSystem is null or port is out of range
+     */
+    public GradingServer(GradingSystem gradingSystem, int port) {
+        this(gradingSystem, checkPort(port), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a server. Call {@link #start()} to start serving.
+     *
+     * @param gradingSystem the system to serve
+     * @param address       the address and port to listen on
+     * @param threads       the number of threads that handle requests when virtual
+     *                      threads are not available
+     * @throws IllegalArgumentException if gradingSystem or address is null, or threads
+     *                                  is not positive
+     */
+    public GradingServer(GradingSystem gradingSystem, InetSocketAddress address, int threads) {
+        if (gradingSystem == null) {
+            throw new IllegalArgumentException("Grading system cannot be null");
+        }
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        this.gradingSystem = gradingSystem;
+        this.address = address;
+        this.threads = threads;
+    }
+
+    /**
+     * Binds the server's address and starts serving. Does nothing if already started.
+     *
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalStateException if the server has been closed
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        if (executor != null) {
+            throw new IllegalStateException("Server has been closed");
+        }
+        executor = newVirtualThreadExecutor();
+        virtualThreads = executor != null;
+        if (executor == null) {
+            executor = newBoundedExecutor(threads);
+        }
+        try {
+            server = HttpServer.create(address, BACKLOG);
+        } catch (IOException e) {
+            executor.shutdown();
+            executor = null;
+            throw e;
+        }
+        server.setExecutor(executor);
+        server.createContext("/students/", this::handleStudent);
+        server.createContext("/courses/", this::handleCourse);
+        // Without a catch-all the JDK answers other paths itself and drops the connection
+        server.createContext("/", GradingServer::handleUnknown);
+        server.start();
+    }
+
+    /**
+     * Stops serving, waiting up to a second for requests in progress to finish.
+     * A closed server cannot be started again.
+     */
+    @Override
+    public void close() {
+        HttpServer stopping;
+        ExecutorService stoppingExecutor;
+        synchronized (this) {
+            stopping = server;
+            stoppingExecutor = executor;
+            server = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.stop(1);
+        stoppingExecutor.shutdown();
+        try {
+            stoppingExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the bound port, which is the chosen free port if the server was created
+     *         with port 0
+     * @throws IllegalStateException if the server is not running
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Server is not running");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Checks whether requests are handled on virtual threads.
+     *
+     * @return true if the runtime has virtual threads and the server has been started
+     */
+    public synchronized boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    private void handleStudent(HttpExchange exchange) throws IOException {
+        try {
+            String[] route = route(exchange, "/students/");
+            if (route == null) {
+                return;
+            }
+            String studentId = route[0];
+            if (route[1].equals("gpa")) {
+                double gpa = gradingSystem.calculateGPA(studentId);
+                StringBuilder json = new StringBuilder(64);
+                json.append("{\"studentId\":");
+                appendString(json, studentId);
+                json.append(",\"gpa\":").append(gpa).append('}');
+                send(exchange, 200, json);
+            } else if (route[1].equals("grades")) {
+                if (gradingSystem.getStudentHandle(studentId) < 0) {
+                    throw new IllegalArgumentException("Student with ID " + studentId + " not found");
+                }
+                streamGrades(exchange, gradingSystem.streamGradesForStudent(studentId));
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 404, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleCourse(HttpExchange exchange) throws IOException {
+        try {
+            String[] route = route(exchange, "/courses/");
+            if (route == null) {
+                return;
+            }
+            String courseCode = route[0];
+            if (route[1].equals("average")) {
+                double average = gradingSystem.calculateCourseAverage(courseCode);
+                StringBuilder json = new StringBuilder(64);
+                json.append("{\"courseCode\":");
+                appendString(json, courseCode.trim().toUpperCase());
+                json.append(",\"average\":").append(average).append('}');
+                send(exchange, 200, json);
+            } else if (route[1].equals("grades")) {
+                if (gradingSystem.getCourseHandle(courseCode) < 0) {
+                    throw new IllegalArgumentException("Course with code " + courseCode + " not found");
+                }
+                streamGrades(exchange, gradingSystem.streamGradesForCourse(courseCode));
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 404, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void handleUnknown(HttpExchange exchange) throws IOException {
+        try {
+            sendError(exchange, 404, "Not found");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Splits a request path of the form prefix, key, slash, resource into the key and
+     * the resource, or answers the request and returns null if the method or path is
+     * not served. Neither part may be empty or contain a slash.
+     */
+    private static String[] route(HttpExchange exchange, String prefix) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            sendError(exchange, 405, "Method not allowed");
+            return null;
+        }
+        String path = exchange.getRequestURI().getPath();
+        int slash = path.indexOf('/', prefix.length());
+        if (slash <= prefix.length() || slash == path.length() - 1 || path.indexOf('/', slash + 1) >= 0) {
+            sendError(exchange, 404, "Not found");
+            return null;
+        }
+        return new String[] {path.substring(prefix.length(), slash), path.substring(slash + 1)};
+    }
+
+    private static void streamGrades(HttpExchange exchange, Stream<Grade> grades) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), STREAM_BUFFER_CHARS);
+        StringBuilder json = new StringBuilder(128);
+        json.append('[');
+        Iterator<Grade> iterator = grades.iterator();
+        while (iterator.hasNext()) {
+            appendGrade(json, iterator.next());
+            if (iterator.hasNext()) {
+                json.append(',');
+            }
+            out.append(json);
+            json.setLength(0);
+        }
+        json.append(']');
+        out.append(json);
+        out.flush();
+    }
+
+    private static void appendGrade(StringBuilder json, Grade grade) {
+        json.append("{\"studentId\":");
+        appendString(json, grade.getStudent().getStudentId());
+        json.append(",\"courseCode\":");
+        appendString(json, grade.getCourse().getCourseCode());
+        json.append(",\"gradeValue\":").append(grade.getGradeValue());
+        json.append(",\"letterGrade\":");
+        appendString(json, grade.getLetterGrade());
+        json.append(",\"gradePoints\":").append(grade.getGradePoints()).append('}');
+    }
+
+    /**
+     * Appends a string as a JSON string literal.
+     */
+    static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"error\":");
+        appendString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor through reflection, so the server
+     * still compiles and runs on runtimes without virtual threads.
+     *
+     * @return the executor, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // Not available, or a preview feature that is not enabled
+            return null;
+        }
+    }
+
+    private static ExecutorService newBoundedExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUED_REQUESTS_PER_THREAD),
+                task -> {
+                    Thread thread = new Thread(task, "grading-server-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static InetSocketAddress checkPort(int port) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        return new InetSocketAddress(port);
+    }
+}
@@ -0,0 +1,132 @@
+package com.gradingsystem;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable, point-in-time view of the students, courses and grades in a
+ * {@link GradingSystem}.
+ * <p>
+ * A snapshot shares its storage with the system that took it instead of copying it;
+ * the system copies a piece of storage before the first change to it after the
+ * snapshot. The collections returned here are read-only views that always show the
+ * same contents, however the system changes afterwards. {@link Grade} objects are
+ * created as the grades are iterated.
+ */
+public class GradingSnapshot {
+    private final long version;
+    private final SymbolTable.Snapshot<Student> students;
+    private final SymbolTable.Snapshot<Course> courses;
+    private final GradeStore.Snapshot grades;
+    private final GradingScale gradingScale;
+    private final Collection<Grade> gradeView = new GradeView();
+
+    /**
+     * Creates a snapshot. Instances are built by {@link GradingSystem#snapshot()}.
+     *
+     * @param version  the number of changes applied to the system when the snapshot was taken
+     * @param students the frozen students
+     * @param courses  the frozen courses
+     * @param grades   the frozen grades
+     */
+    GradingSnapshot(long version, SymbolTable.Snapshot<Student> students, SymbolTable.Snapshot<Course> courses,
+                    GradeStore.Snapshot grades, GradingScale gradingScale) {
+        this.version = version;
+        this.students = students;
+        this.courses = courses;
+        this.grades = grades;
+        this.gradingScale = gradingScale;
+    }
+
+    /**
+     * Gets the version of the system this snapshot shows.
+     * <p>
+     * The version counts the changes applied to the system, so it increases with every
+     * added or removed student or course and every recorded grade. Two snapshots of the
+     * same system with the same version have the same contents.
+     *
+     * @return the number of changes applied when the snapshot was taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets all students at the time of the snapshot.
+     *
+     * @return a read-only collection of the students
+     */
+    public Collection<Student> getAllStudents() {
+        return students;
+    }
+
+    /**
+     * Gets all courses at the time of the snapshot.
+     *
+     * @return a read-only collection of the courses
+     */
+    public Collection<Course> getAllCourses() {
+        return courses;
+    }
+
+    /**
+     * Gets all grades at the time of the snapshot.
+     *
+     * @return a read-only collection of the grades
+     */
+    public Collection<Grade> getAllGrades() {
+        return gradeView;
+    }
+
+    SymbolTable.Snapshot<Student> studentTable() {
+        return students;
+    }
+
+    SymbolTable.Snapshot<Course> courseTable() {
+        return courses;
+    }
+
+    /**
+     * @return the default grading scale of the system that took the snapshot
+     */
+    GradingScale gradingScale() {
+        return gradingScale;
+    }
+
+    GradeStore.Snapshot gradeTable() {
+        return grades;
+    }
+
+    private final class GradeView extends AbstractCollection<Grade> {
+        @Override
+        public int size() {
+            return grades.size();
+        }
+
+        @Override
+        public Iterator<Grade> iterator() {
+            return new Iterator<Grade>() {
+                private int next = grades.nextRow(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next != GradeStore.NONE;
+                }
+
+                @Override
+                public Grade next() {
+                    if (next == GradeStore.NONE) {
+                        throw new NoSuchElementException();
+                    }
+                    int row = next;
+                    next = grades.nextRow(row + 1);
+                    Course course = courses.get(grades.course(row));
+                    return new Grade(students.get(grades.student(row)), course, grades.value(row),
+                            course.getGradingScale() != null ? course.getGradingScale() : gradingScale);
+                }
+            };
+        }
+    }
+}
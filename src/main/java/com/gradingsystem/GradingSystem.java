@@ -1,24 +1,194 @@
 package com.gradingsystem;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import com.gradingsystem.GradingMetrics.Operation;
 
 /**
  * Main service class for managing the student grading system.
  * Provides functionality to manage students, courses, grades, and compute GPAs.
+ * <p>
+ * Every student and course is given a dense integer handle when it is added, and all
+ * internal state is stored in arrays indexed by those handles. The int-keyed overloads
+ * of the hot methods let callers that resolved a handle once with
+ * {@link #getStudentHandle(String)} or {@link #getCourseHandle(String)} skip the string
+ * normalisation and hashing on every later call.
+ * <p>
+ * Grades live in a columnar {@link GradeStore} of primitive arrays rather than as
+ * {@link Grade} objects; {@code Grade} instances are only created when grades are
+ * returned from the public API. The store links each grade into a per-student and a
+ * per-course list, so every operation only touches the grades it actually reads or
+ * changes. Each student also carries a running GPA aggregate, and each course running
+ * statistics, that are adjusted whenever one of their grades changes.
+ * <p>
+ * A system created with {@link #GradingSystem()} is not thread-safe. One created with
+ * {@link #GradingSystem(int)} can be shared between threads and uses striped locks:
+ * <ul>
+ *   <li>Writes lock the stripe of the student they change, then the stripe of the
+ *       course, so writes for students in different stripes run in parallel and only
+ *       serialise on the short course statistics update.</li>
+ *   <li>{@link #calculateGPA} and {@link #calculateCourseAverage} never lock, and
+ *       {@link #getCourseStatistics} only locks the first time it is read after the
+ *       course changed. Each returns a value that was current at some point during
+ *       the call.</li>
+ *   <li>{@link #removeStudent} locks the student's stripe and the stripes of the
+ *       student's courses.</li>
+ *   <li>{@link #removeCourse} and {@link #getAllGrades} span every student, so they
+ *       acquire every student stripe: they wait for in-flight writes, block new writes
+ *       until they finish, and see or produce a single consistent state. Lock-free
+ *       reads carry on meanwhile.</li>
+ *   <li>{@link #removeStudents} and {@link #removeCourses} acquire every student and
+ *       course stripe, as batch grade loads do.</li>
+ *   <li>Adding students and courses is serialised separately and does not block
+ *       grade writes.</li>
+ *   <li>{@link #snapshot()} briefly acquires every student stripe and the student and
+ *       course registries, then returns a view that readers can iterate at leisure
+ *       while writers carry on.</li>
+ * </ul>
+ * Locks are always acquired in the order: student stripes in ascending order, course
+ * stripes in ascending order, the student registry, the course registry.
+ * <p>
+ * A system returned by {@link WriteAheadLog#recover(Path, int)} logs every change
+ * while it still holds the locks above, so changes ordered by those locks are logged
+ * in the order they were applied. Adds are not ordered against grade writes by any
+ * lock, as grade writes find students and courses without locking, so a new student
+ * or course is logged before its ID becomes visible: any grade that refers to it is
+ * then logged after it. The system waits for the log to be written, as its sync
+ * policy requires, after releasing the locks. If the log cannot be written the mutating method throws
+ * {@link java.io.UncheckedIOException}; the change has then been applied in memory but
+ * may not survive a restart.
  */
 public class GradingSystem {
-    private final Map<String, Student> students;
-    private final Map<String, Course> courses;
-    private final List<Grade> grades;
+    private final SymbolTable<Student> students;
+    private final SymbolTable<Course> courses;
+    private final GradeStore grades;
+    private final GradingScale gradingScale;
+    private final GradeStorage gradeStorage;
+    private final StripedLocks studentLocks;
+    private final StripedLocks courseLocks;
+    private volatile StudentTotals[] studentTotals;
+    private volatile CourseTotals[] courseTotals;
+    private final GpaRankIndex gpaRanks = new GpaRankIndex(this::rankedGpaOf);
+    private final LongAdder modifications = new LongAdder();
+    private volatile WriteAheadLog log;
+    private volatile GradingMetrics metrics;
+    private GradingMetrics retiredMetrics;
 
     /**
      * Creates a new grading system.
      */
     public GradingSystem() {
-        this.students = new HashMap<>();
-        this.courses = new HashMap<>();
-        this.grades = new ArrayList<>();
+        this(0);
+    }
+
+    /**
+     * Creates a new grading system that can be shared between threads.
+     * <p>
+     * A few times the number of writing threads is a good number of stripes; more
+     * stripes make it less likely that two concurrent writes contend for one lock.
+     *
+     * @param lockStripes the number of lock stripes, rounded up to a power of two;
+     *                    0 creates a single-threaded system without locking
+     * @throws IllegalArgumentException if lockStripes is negative
+     */
+    public GradingSystem(int lockStripes) {
+        this(lockStripes, GradingScale.STANDARD);
+    }
+
+    /**
+     * Creates a new grading system that grades courses on the given scale unless they
+     * have a scale of their own.
+     *
+     * @param gradingScale the default grading scale
+     * @throws IllegalArgumentException if gradingScale is null
+     */
+    public GradingSystem(GradingScale gradingScale) {
+        this(0, gradingScale);
+    }
+
+    /**
+     * Creates a new grading system with a default grading scale that can be shared
+     * between threads.
+     *
+     * @param lockStripes  the number of lock stripes, as for {@link #GradingSystem(int)}
+     * @param gradingScale the scale courses without a scale of their own are graded on
+     * @throws IllegalArgumentException if lockStripes is negative or gradingScale is null
+     */
+    public GradingSystem(int lockStripes, GradingScale gradingScale) {
+        this(lockStripes, gradingScale, GradeStorage.HEAP);
+    }
+
+    /**
+     * Creates a new grading system that keeps its per-grade data where chosen. With
+     * {@link GradeStorage#OFF_HEAP} the heap holds the students, courses and their
+     * totals, but none of the grades, so very large histories do not lengthen garbage
+     * collection.
+     *
+     * @param lockStripes  the number of lock stripes, as for {@link #GradingSystem(int)}
+     * @param gradingScale the scale courses without a scale of their own are graded on
+     * @param gradeStorage where grade rows and course grade indexes are allocated
+     * @throws IllegalArgumentException if lockStripes is negative, or gradingScale or
+     *                                  gradeStorage is null
+     */
+    public GradingSystem(int lockStripes, GradingScale gradingScale, GradeStorage gradeStorage) {
+        if (gradingScale == null) {
+            throw new IllegalArgumentException("Grading scale cannot be null");
+        }
+        if (gradeStorage == null) {
+            throw new IllegalArgumentException("Grade storage cannot be null");
+        }
+        this.gradingScale = gradingScale;
+        this.gradeStorage = gradeStorage;
+        this.students = new SymbolTable<>();
+        this.courses = new SymbolTable<>();
+        this.studentLocks = new StripedLocks(lockStripes);
+        this.courseLocks = new StripedLocks(lockStripes);
+        this.grades = new GradeStore(Math.max(1, studentLocks.stripes()), gradeStorage);
+        this.studentTotals = new StudentTotals[16];
+        this.courseTotals = new CourseTotals[16];
+    }
+
+    /**
+     * Gets the scale courses are graded on unless they have a scale of their own.
+     *
+     * @return the default grading scale
+     */
+    public GradingScale getGradingScale() {
+        return gradingScale;
+    }
+
+    /**
+     * Gets where the system keeps its per-grade data.
+     *
+     * @return the grade storage chosen when the system was created
+     */
+    public GradeStorage getGradeStorage() {
+        return gradeStorage;
+    }
+
+    /**
+     * Gets the scale a course's grades are converted to letter grades and grade points
+     * with: the course's own scale, or the system's default.
+     *
+     * @param courseCode the course code
+     * @return the course's grading scale
+     * @throws IllegalArgumentException if course doesn't exist
+     */
+    public GradingScale getGradingScale(String courseCode) {
+        return courseTotals[requireCourse(courseCode)].gradingScale;
+    }
+
+    /**
+     * Tells whether this system can be shared between threads.
+     *
+     * @return true if the system was created with lock stripes
+     */
+    public boolean isConcurrent() {
+        return studentLocks.isEnabled();
     }
 
     /**
@@ -28,13 +198,32 @@ public class GradingSystem {
      * @throws IllegalArgumentException if student is null or already exists
      */
     public void addStudent(Student student) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         if (student == null) {
             throw new IllegalArgumentException("Student cannot be null");
         }
-        if (students.containsKey(student.getStudentId())) {
-            throw new IllegalArgumentException("Student with ID " + student.getStudentId() + " already exists");
+        long logged;
+        synchronized (students) {
+            if (students.handleOf(student.getStudentId()) >= 0) {
+                throw new IllegalArgumentException("Student with ID " + student.getStudentId() + " already exists");
+            }
+            // Prepare the handle's state before the ID becomes visible to other threads
+            int handle = students.capacity();
+            StudentTotals[] totals = studentTotals;
+            if (handle == totals.length) {
+                totals = Arrays.copyOf(totals, handle * 2);
+            }
+            totals[handle] = new StudentTotals();
+            studentTotals = totals;
+            grades.ensureStudent(handle);
+            // Log before the ID is visible, so a grade that can see it is logged after it
+            logged = log != null ? log.logAddStudent(student) : 0;
+            students.add(student.getStudentId(), student);
+            modifications.increment();
         }
-        students.put(student.getStudentId(), student);
+        commitLog(logged);
+        recordCall(metrics, Operation.ADD_STUDENT, start);
     }
 
     /**
@@ -44,14 +233,34 @@ public class GradingSystem {
      * @return true if the student was removed, false if not found
      */
     public boolean removeStudent(String studentId) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         if (studentId == null || studentId.trim().isEmpty()) {
+            recordCall(metrics, Operation.REMOVE_STUDENT, start);
             return false;
         }
-        
-        // Remove all grades for this student
-        grades.removeIf(grade -> grade.getStudent().getStudentId().equals(studentId));
-        
-        return students.remove(studentId) != null;
+
+        while (true) {
+            int studentHandle = students.handleOf(studentId);
+            if (studentHandle < 0) {
+                recordCall(metrics, Operation.REMOVE_STUDENT, start);
+                return false;
+            }
+            long logged;
+            studentLocks.lock(studentHandle);
+            try {
+                // The ID may have been removed, or removed and added again, since it was looked up
+                if (students.get(studentHandle) == null) {
+                    continue;
+                }
+                logged = removeStudentLocked(studentId, studentHandle);
+            } finally {
+                studentLocks.unlock(studentHandle);
+            }
+            commitLog(logged);
+            recordCall(metrics, Operation.REMOVE_STUDENT, start);
+            return true;
+        }
     }
 
     /**
@@ -61,32 +270,222 @@ public class GradingSystem {
      * @throws IllegalArgumentException if course is null or already exists
      */
     public void addCourse(Course course) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         if (course == null) {
             throw new IllegalArgumentException("Course cannot be null");
         }
-        if (courses.containsKey(course.getCourseCode())) {
-            throw new IllegalArgumentException("Course with code " + course.getCourseCode() + " already exists");
+        long logged;
+        synchronized (courses) {
+            if (courses.handleOf(course.getCourseCode()) >= 0) {
+                throw new IllegalArgumentException("Course with code " + course.getCourseCode() + " already exists");
+            }
+            // Prepare the handle's state before the code becomes visible to other threads
+            int handle = courses.capacity();
+            CourseTotals[] totals = courseTotals;
+            if (handle == totals.length) {
+                totals = Arrays.copyOf(totals, handle * 2);
+            }
+            totals[handle] = new CourseTotals(course.getCourseCode(),
+                    course.getGradingScale() != null ? course.getGradingScale() : gradingScale, gradeStorage);
+            courseTotals = totals;
+            grades.ensureCourse(handle);
+            // Log before the code is visible, so a grade that can see it is logged after it
+            logged = log != null ? log.logAddCourse(course) : 0;
+            courses.add(course.getCourseCode(), course);
+            modifications.increment();
         }
-        courses.put(course.getCourseCode(), course);
+        commitLog(logged);
+        recordCall(metrics, Operation.ADD_COURSE, start);
     }
 
     /**
      * Removes a course from the system.
+     * <p>
+     * On a concurrent system this waits for in-flight grade writes and blocks new ones
+     * until the course's grades are gone.
      *
      * @param courseCode the code of the course to remove
      * @return true if the course was removed, false if not found
      */
     public boolean removeCourse(String courseCode) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         if (courseCode == null || courseCode.trim().isEmpty()) {
+            recordCall(metrics, Operation.REMOVE_COURSE, start);
             return false;
         }
-        
+
         String normalizedCode = courseCode.trim().toUpperCase();
-        
-        // Remove all grades for this course
-        grades.removeIf(grade -> grade.getCourse().getCourseCode().equals(normalizedCode));
-        
-        return courses.remove(normalizedCode) != null;
+        CourseRemovedEvent event = new CourseRemovedEvent();
+        event.begin();
+        long lockStart = event.isEnabled() ? System.nanoTime() : 0;
+        long logged;
+        int gradesRemoved;
+        studentLocks.lockAll();
+        try {
+            if (event.isEnabled()) {
+                event.lockWait = System.nanoTime() - lockStart;
+            }
+            int courseHandle = courses.handleOf(normalizedCode);
+            if (courseHandle < 0) {
+                commitCourseRemoved(event, normalizedCode, false, 0);
+                recordCall(metrics, Operation.REMOVE_COURSE, start);
+                return false;
+            }
+            courseLocks.lock(courseHandle);
+            try {
+                gradesRemoved = courseTotals[courseHandle].count;
+                logged = removeCourseLocked(normalizedCode, courseHandle);
+            } finally {
+                courseLocks.unlock(courseHandle);
+            }
+        } finally {
+            studentLocks.unlockAll();
+        }
+        commitLog(logged);
+        commitCourseRemoved(event, normalizedCode, true, gradesRemoved);
+        recordCall(metrics, Operation.REMOVE_COURSE, start);
+        return true;
+    }
+
+    /**
+     * Removes many students, and all their grades, in one pass.
+     * <p>
+     * Each student's grades are found through the student's own grade list, as in
+     * {@link #removeStudent(String)}, but every affected course's statistics are brought
+     * up to date once rather than once per removed grade. On a concurrent system the
+     * removal holds every lock, so other writers and snapshots see either none or all of
+     * it.
+     *
+     * @param studentIds the IDs of the students to remove; unknown, null or repeated
+     *                   IDs are skipped
+     * @return the number of students removed
+     * @throws IllegalArgumentException if studentIds is null
+     */
+    public int removeStudents(Collection<String> studentIds) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (studentIds == null) {
+            throw new IllegalArgumentException("Student IDs cannot be null");
+        }
+
+        int removed = 0;
+        long logged = 0;
+        BitSet touchedCourses = new BitSet();
+        studentLocks.lockAll();
+        courseLocks.lockAll();
+        try {
+            int[] studentHandles = new int[studentIds.size()];
+            synchronized (students) {
+                for (String studentId : studentIds) {
+                    int studentHandle = studentId == null ? -1 : students.handleOf(studentId);
+                    if (studentHandle < 0) {
+                        continue;
+                    }
+                    students.remove(studentId);
+                    modifications.increment();
+                    if (log != null) {
+                        logged = log.logRemoveStudent(studentId);
+                    }
+                    studentHandles[removed++] = studentHandle;
+                }
+            }
+
+            for (int i = 0; i < removed; i++) {
+                int studentHandle = studentHandles[i];
+                grades.removeStudent(studentHandle, row -> {
+                    int courseHandle = grades.course(row);
+                    courseTotals[courseHandle].subtract(grades.value(row), grades.indexNode(row));
+                    touchedCourses.set(courseHandle);
+                });
+                studentTotals[studentHandle].clear();
+                publishStudent(studentHandle);
+            }
+            for (int c = touchedCourses.nextSetBit(0); c >= 0; c = touchedCourses.nextSetBit(c + 1)) {
+                courseTotals[c].sorted.compact(grades::setIndexNode);
+                courseTotals[c].publish();
+            }
+        } finally {
+            courseLocks.unlockAll();
+            studentLocks.unlockAll();
+        }
+        commitLog(logged);
+        recordCall(metrics, Operation.REMOVE_STUDENTS, start);
+        return removed;
+    }
+
+    /**
+     * Removes many courses, and all their grades, in one pass.
+     * <p>
+     * Each course's grades are found through the course's own grade list, as in
+     * {@link #removeCourse(String)}, but every affected student's GPA and class rank are
+     * brought up to date once rather than once per removed grade. On a concurrent
+     * system the removal holds every lock, so other writers and snapshots see either
+     * none or all of it.
+     *
+     * @param courseCodes the codes of the courses to remove; unknown, null or repeated
+     *                    codes are skipped
+     * @return the number of courses removed
+     * @throws IllegalArgumentException if courseCodes is null
+     */
+    public int removeCourses(Collection<String> courseCodes) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (courseCodes == null) {
+            throw new IllegalArgumentException("Course codes cannot be null");
+        }
+
+        int removed = 0;
+        long logged = 0;
+        BitSet touchedStudents = new BitSet();
+        studentLocks.lockAll();
+        courseLocks.lockAll();
+        try {
+            int[] courseHandles = new int[courseCodes.size()];
+            int[] credits = new int[courseHandles.length];
+            synchronized (courses) {
+                for (String courseCode : courseCodes) {
+                    if (courseCode == null) {
+                        continue;
+                    }
+                    String normalizedCode = courseCode.trim().toUpperCase();
+                    int courseHandle = courses.handleOf(normalizedCode);
+                    if (courseHandle < 0) {
+                        continue;
+                    }
+                    credits[removed] = courses.get(courseHandle).getCredits();
+                    courses.remove(normalizedCode);
+                    modifications.increment();
+                    if (log != null) {
+                        logged = log.logRemoveCourse(normalizedCode);
+                    }
+                    courseHandles[removed++] = courseHandle;
+                }
+            }
+
+            for (int i = 0; i < removed; i++) {
+                CourseTotals statistics = courseTotals[courseHandles[i]];
+                int courseCredits = credits[i];
+                grades.removeCourse(courseHandles[i], row -> {
+                    int studentHandle = grades.student(row);
+                    double gradePoints = statistics.gradingScale.gradePointsFor(grades.value(row));
+                    studentTotals[studentHandle].subtract(gradePoints, courseCredits);
+                    touchedStudents.set(studentHandle);
+                });
+                statistics.clear();
+                statistics.publish();
+            }
+            for (int s = touchedStudents.nextSetBit(0); s >= 0; s = touchedStudents.nextSetBit(s + 1)) {
+                publishStudent(s);
+            }
+        } finally {
+            courseLocks.unlockAll();
+            studentLocks.unlockAll();
+        }
+        commitLog(logged);
+        recordCall(metrics, Operation.REMOVE_COURSES, start);
+        return removed;
     }
 
     /**
@@ -98,112 +497,643 @@ public class GradingSystem {
      * @throws IllegalArgumentException if student or course doesn't exist, or grade is invalid
      */
     public void recordGrade(String studentId, String courseCode, double gradeValue) {
-        Student student = students.get(studentId);
-        if (student == null) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        GradeRecordedEvent event = new GradeRecordedEvent();
+        event.begin();
+        int studentHandle = students.handleOf(studentId);
+        if (studentHandle < 0) {
             throw new IllegalArgumentException("Student with ID " + studentId + " not found");
         }
-        
-        String normalizedCourseCode = courseCode.trim().toUpperCase();
-        Course course = courses.get(normalizedCourseCode);
-        if (course == null) {
+
+        int courseHandle = courses.handleOf(courseCode.trim().toUpperCase());
+        if (courseHandle < 0) {
+            throw new IllegalArgumentException("Course with code " + courseCode + " not found");
+        }
+
+        if (!putGrade(studentHandle, courseHandle, gradeValue)) {
+            // Removed by another thread after the lookup above
+            if (students.get(studentHandle) == null) {
+                throw new IllegalArgumentException("Student with ID " + studentId + " not found");
+            }
             throw new IllegalArgumentException("Course with code " + courseCode + " not found");
         }
+        commitGradeRecorded(event, studentHandle, courseHandle, gradeValue);
+        recordCall(metrics, Operation.RECORD_GRADE, start);
+    }
+
+    /**
+     * Records a grade for a student in a course, identified by their handles.
+     *
+     * @param studentHandle the student's handle
+     * @param courseHandle  the course's handle
+     * @param gradeValue    the numerical grade value
+     * @throws IllegalArgumentException if student or course doesn't exist, or grade is invalid
+     */
+    public void recordGrade(int studentHandle, int courseHandle, double gradeValue) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        GradeRecordedEvent event = new GradeRecordedEvent();
+        event.begin();
+        requireStudent(studentHandle);
+        requireCourse(courseHandle);
+        if (!putGrade(studentHandle, courseHandle, gradeValue)) {
+            requireStudent(studentHandle);
+            requireCourse(courseHandle);
+        }
+        commitGradeRecorded(event, studentHandle, courseHandle, gradeValue);
+        recordCall(metrics, Operation.RECORD_GRADE, start);
+    }
+
+    /**
+     * Records a batch of grades in one pass.
+     * <p>
+     * Each distinct student ID and course code is resolved once, and every row is
+     * validated before any grade is stored. Rows that fail are reported in the result
+     * rather than aborting the load; the others are applied in batch order, so a later
+     * row for the same student and course replaces an earlier one, exactly as a series
+     * of {@link #recordGrade(String, String, double)} calls would. Student GPAs and
+     * course statistics are brought up to date once per affected student and course
+     * rather than once per row.
+     * <p>
+     * On a concurrent system the batch is applied while holding every lock, so other
+     * writers and snapshots see either none or all of it. Lock-free GPA and average
+     * reads carry on and may see some students or courses updated before others.
+     *
+     * @param batch the grades to record
+     * @return how many rows were recorded, and why the others were not
+     * @throws IllegalArgumentException if batch is null
+     */
+    public BatchResult recordGrades(Collection<GradeRecord> batch) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (batch == null) {
+            throw new IllegalArgumentException("Batch cannot be null");
+        }
+
+        // Resolve and validate every row before taking any lock
+        Map<String, Integer> studentHandles = new HashMap<>();
+        Map<String, Integer> courseHandles = new HashMap<>();
+        List<BatchResult.Failure> failures = new ArrayList<>();
+        GradeRecord[] records = new GradeRecord[batch.size()];
+        int[] rowStudents = new int[records.length];
+        int[] rowCourses = new int[records.length];
+        double[] rowValues = new double[records.length];
+        int[] rowIndexes = new int[records.length];
+        int rows = 0;
+        int index = 0;
+        for (GradeRecord record : batch) {
+            records[index] = record;
+            String failure = null;
+            int studentHandle = -1;
+            int courseHandle = -1;
+            if (record == null) {
+                failure = "Grade record cannot be null";
+            } else {
+                studentHandle = studentHandles.computeIfAbsent(record.getStudentId(), students::handleOf);
+                courseHandle = courseHandles.computeIfAbsent(record.getCourseCode(), this::getCourseHandle);
+                if (studentHandle < 0) {
+                    failure = "Student with ID " + record.getStudentId() + " not found";
+                } else if (courseHandle < 0) {
+                    failure = "Course with code " + record.getCourseCode() + " not found";
+                } else {
+                    try {
+                        Grade.checkGradeValue(record.getGradeValue());
+                    } catch (IllegalArgumentException e) {
+                        failure = e.getMessage();
+                    }
+                }
+            }
+            if (failure != null) {
+                failures.add(new BatchResult.Failure(index, record, failure));
+            } else {
+                rowStudents[rows] = studentHandle;
+                rowCourses[rows] = courseHandle;
+                rowValues[rows] = record.getGradeValue();
+                rowIndexes[rows] = index;
+                rows++;
+            }
+            index++;
+        }
+
+        BitSet missingStudents = new BitSet();
+        BitSet missingCourses = new BitSet();
+        int recorded = recordResolvedGrades(rowStudents, rowCourses, rowValues, rows, missingStudents, missingCourses);
+        for (int row = missingStudents.nextSetBit(0); row >= 0; row = missingStudents.nextSetBit(row + 1)) {
+            GradeRecord record = records[rowIndexes[row]];
+            failures.add(new BatchResult.Failure(rowIndexes[row], record,
+                    "Student with ID " + record.getStudentId() + " not found"));
+        }
+        for (int row = missingCourses.nextSetBit(0); row >= 0; row = missingCourses.nextSetBit(row + 1)) {
+            GradeRecord record = records[rowIndexes[row]];
+            failures.add(new BatchResult.Failure(rowIndexes[row], record,
+                    "Course with code " + record.getCourseCode() + " not found"));
+        }
 
-        // Remove any existing grade for this student-course combination
-        grades.removeIf(grade -> 
-            grade.getStudent().getStudentId().equals(studentId) &&
-            grade.getCourse().getCourseCode().equals(normalizedCourseCode)
-        );
+        failures.sort(Comparator.comparingInt(BatchResult.Failure::getIndex));
+        recordCall(metrics, Operation.RECORD_GRADES, start);
+        return new BatchResult(recorded, failures);
+    }
+
+    /**
+     * Records rows whose handles were resolved and whose values were validated by the
+     * caller, in the way described by {@link #recordGrades(Collection)}.
+     *
+     * @param rowStudents     the student handle of each row
+     * @param rowCourses      the course handle of each row
+     * @param rowValues       the grade value of each row
+     * @param rows            the number of rows
+     * @param missingStudents receives the rows whose student has been removed since it was resolved
+     * @param missingCourses  receives the rows whose course has been removed since it was resolved
+     * @return the number of rows that were recorded
+     */
+    int recordResolvedGrades(int[] rowStudents, int[] rowCourses, double[] rowValues, int rows,
+                             BitSet missingStudents, BitSet missingCourses) {
+        int recorded = 0;
+        long logged = 0;
+        BitSet touchedStudents = new BitSet();
+        BitSet touchedCourses = new BitSet();
+        GradeBatchEvent event = new GradeBatchEvent();
+        event.begin();
+        long lockStart = event.isEnabled() ? System.nanoTime() : 0;
+        studentLocks.lockAll();
+        courseLocks.lockAll();
+        try {
+            if (event.isEnabled()) {
+                event.lockWait = System.nanoTime() - lockStart;
+            }
+            for (int row = 0; row < rows; row++) {
+                int studentHandle = rowStudents[row];
+                int courseHandle = rowCourses[row];
+                Course course = courses.get(courseHandle);
+                if (students.get(studentHandle) == null) {
+                    missingStudents.set(row);
+                    continue;
+                }
+                if (course == null) {
+                    missingCourses.set(row);
+                    continue;
+                }
+                applyGrade(studentHandle, courseHandle, course.getCredits(), rowValues[row]);
+                touchedStudents.set(studentHandle);
+                touchedCourses.set(courseHandle);
+                recorded++;
+            }
 
-        // Add the new grade
-        grades.add(new Grade(student, course, gradeValue));
+            for (int s = touchedStudents.nextSetBit(0); s >= 0; s = touchedStudents.nextSetBit(s + 1)) {
+                publishStudent(s);
+            }
+            for (int c = touchedCourses.nextSetBit(0); c >= 0; c = touchedCourses.nextSetBit(c + 1)) {
+                courseTotals[c].publish();
+            }
+            modifications.add(recorded);
+            if (log != null && recorded > 0) {
+                logged = logGrades(rowStudents, rowCourses, rowValues, rows, missingStudents, missingCourses, recorded);
+            }
+        } finally {
+            courseLocks.unlockAll();
+            studentLocks.unlockAll();
+        }
+        commitLog(logged);
+        commitGradeBatch(event, rows, recorded, touchedStudents, touchedCourses);
+        return recorded;
     }
 
     /**
      * Calculates the GPA for a specific student.
+     * <p>
+     * The GPA is read from the student's running aggregate, so this does not depend on
+     * the number of grades the student has. Grade points are counted to the hundredth,
+     * the precision the built-in scales are written in.
      *
      * @param studentId the student's ID
      * @return the student's GPA, or 0.0 if no grades found
      * @throws IllegalArgumentException if student doesn't exist
      */
     public double calculateGPA(String studentId) {
-        if (!students.containsKey(studentId)) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        GpaCalculatedEvent event = new GpaCalculatedEvent();
+        event.begin();
+        int studentHandle = students.handleOf(studentId);
+        if (studentHandle < 0) {
             throw new IllegalArgumentException("Student with ID " + studentId + " not found");
         }
+        double gpa = studentTotals[studentHandle].gpa;
+        commitGpaCalculated(event, studentHandle, gpa);
+        recordCall(metrics, Operation.CALCULATE_GPA, start);
+        return gpa;
+    }
+
+    /**
+     * Calculates the GPA for a specific student, identified by their handle.
+     *
+     * @param studentHandle the student's handle
+     * @return the student's GPA, or 0.0 if no grades found
+     * @throws IllegalArgumentException if student doesn't exist
+     */
+    public double calculateGPA(int studentHandle) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        GpaCalculatedEvent event = new GpaCalculatedEvent();
+        event.begin();
+        requireStudent(studentHandle);
+        double gpa = studentTotals[studentHandle].gpa;
+        commitGpaCalculated(event, studentHandle, gpa);
+        recordCall(metrics, Operation.CALCULATE_GPA, start);
+        return gpa;
+    }
+
+    /**
+     * Calculates the average grade for a specific course.
+     *
+     * @param courseCode the course code
+     * @return the average grade for the course, or 0.0 if no grades found
+     * @throws IllegalArgumentException if course doesn't exist
+     */
+    public double calculateCourseAverage(String courseCode) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        double average = courseTotals[requireCourse(courseCode)].mean;
+        recordCall(metrics, Operation.CALCULATE_COURSE_AVERAGE, start);
+        return average;
+    }
+
+    /**
+     * Calculates the average grade for a specific course, identified by its handle.
+     *
+     * @param courseHandle the course's handle
+     * @return the average grade for the course, or 0.0 if no grades found
+     * @throws IllegalArgumentException if course doesn't exist
+     */
+    public double calculateCourseAverage(int courseHandle) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        requireCourse(courseHandle);
+        double average = courseTotals[courseHandle].mean;
+        recordCall(metrics, Operation.CALCULATE_COURSE_AVERAGE, start);
+        return average;
+    }
+
+    /**
+     * Gets the running statistics for a specific course.
+     * <p>
+     * The statistics are maintained as grades are recorded, replaced and removed, so
+     * this does not depend on the number of grades in the course.
+     *
+     * @param courseCode the course code
+     * @return the current statistics for the course
+     * @throws IllegalArgumentException if course doesn't exist
+     */
+    public CourseStatistics getCourseStatistics(String courseCode) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        CourseStatistics statistics = statisticsOf(requireCourse(courseCode), metrics);
+        recordCall(metrics, Operation.GET_COURSE_STATISTICS, start);
+        return statistics;
+    }
 
-        List<Grade> studentGrades = grades.stream()
-                .filter(grade -> grade.getStudent().getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+    /**
+     * Gets the running statistics for a specific course, identified by its handle.
+     *
+     * @param courseHandle the course's handle
+     * @return the current statistics for the course
+     * @throws IllegalArgumentException if course doesn't exist
+     */
+    public CourseStatistics getCourseStatistics(int courseHandle) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        requireCourse(courseHandle);
+        CourseStatistics statistics = statisticsOf(courseHandle, metrics);
+        recordCall(metrics, Operation.GET_COURSE_STATISTICS, start);
+        return statistics;
+    }
 
-        if (studentGrades.isEmpty()) {
-            return 0.0;
+    /**
+     * Gets a course's grades with a value between two inclusive bounds, such as
+     * {@code getGradesForCourseBetween("CS101", 90.0, 100.0)}.
+     * <p>
+     * Each course keeps its grades in a value-ordered index, so this takes
+     * O(log n + k) time for k matching grades rather than scanning the course.
+     *
+     * @param courseCode the course code
+     * @param lo         the lowest grade value to include
+     * @param hi         the highest grade value to include
+     * @return the matching grades, lowest value first; empty if lo is greater than hi
+     * @throws IllegalArgumentException if course doesn't exist or either bound is NaN
+     */
+    public List<Grade> getGradesForCourseBetween(String courseCode, double lo, double hi) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (Double.isNaN(lo) || Double.isNaN(hi)) {
+            throw new IllegalArgumentException("Grade bounds cannot be NaN");
         }
+        List<Grade> matches = gradesBetween(requireCourse(courseCode), lo, hi);
+        recordCall(metrics, Operation.COURSE_GRADE_QUERY, start);
+        return matches;
+    }
+
+    /**
+     * Gets a course's grades with a value in a range, choosing whether each bound is
+     * inclusive, such as every grade below 60 with
+     * {@code getGradesForCourseBetween("CS101", 0.0, true, 60.0, false)}.
+     *
+     * @param courseCode  the course code
+     * @param lo          the lower bound
+     * @param loInclusive whether a value equal to lo is included
+     * @param hi          the upper bound
+     * @param hiInclusive whether a value equal to hi is included
+     * @return the matching grades, lowest value first
+     * @throws IllegalArgumentException if course doesn't exist or either bound is NaN
+     */
+    public List<Grade> getGradesForCourseBetween(String courseCode, double lo, boolean loInclusive,
+                                                 double hi, boolean hiInclusive) {
+        return getGradesForCourseBetween(courseCode, loInclusive ? lo : Math.nextUp(lo),
+                hiInclusive ? hi : Math.nextDown(hi));
+    }
 
-        double totalGradePoints = 0.0;
-        int totalCredits = 0;
+    /**
+     * Gets a course's grades that earn a letter grade, using the cut-offs of the
+     * course's grading scale.
+     *
+     * @param courseCode  the course code
+     * @param letterGrade a letter grade of the course's scale (A, B, C, D, F on the standard scale)
+     * @return the matching grades, lowest value first
+     * @throws IllegalArgumentException if course doesn't exist or the letter grade is not
+     *                                  part of its scale
+     */
+    public List<Grade> getGradesForCourseWithLetter(String courseCode, String letterGrade) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int courseHandle = requireCourse(courseCode);
+        GradingScale scale = courseTotals[courseHandle].gradingScale;
+        int band = scale.indexOf(letterGrade);
+        double hi = band == 0 ? Double.POSITIVE_INFINITY : Math.nextDown(scale.minimumOf(band - 1));
+        List<Grade> matches = gradesBetween(courseHandle, scale.minimumOf(band), hi);
+        recordCall(metrics, Operation.COURSE_GRADE_QUERY, start);
+        return matches;
+    }
 
-        for (Grade grade : studentGrades) {
-            double gradePoints = grade.getGradePoints();
-            int credits = grade.getCourse().getCredits();
-            totalGradePoints += gradePoints * credits;
-            totalCredits += credits;
+    private List<Grade> gradesBetween(int courseHandle, double lo, double hi) {
+        courseLocks.lock(courseHandle);
+        try {
+            return gradesAt(courseTotals[courseHandle].sorted.between(lo, hi));
+        } finally {
+            courseLocks.unlock(courseHandle);
         }
+    }
 
-        return totalCredits > 0 ? totalGradePoints / totalCredits : 0.0;
+    /**
+     * Gets a course's highest grades in O(log n + count) time.
+     *
+     * @param courseCode the course code
+     * @param count      the maximum number of grades to return
+     * @return up to count grades, highest value first
+     * @throws IllegalArgumentException if course doesn't exist or count is negative
+     */
+    public List<Grade> topGradesForCourse(String courseCode, int count) {
+        return extremeGrades(courseCode, count, true);
     }
 
     /**
-     * Calculates the average grade for a specific course.
+     * Gets a course's lowest grades in O(log n + count) time.
      *
      * @param courseCode the course code
-     * @return the average grade for the course, or 0.0 if no grades found
-     * @throws IllegalArgumentException if course doesn't exist
+     * @param count      the maximum number of grades to return
+     * @return up to count grades, lowest value first
+     * @throws IllegalArgumentException if course doesn't exist or count is negative
      */
-    public double calculateCourseAverage(String courseCode) {
-        String normalizedCourseCode = courseCode.trim().toUpperCase();
-        if (!courses.containsKey(normalizedCourseCode)) {
-            throw new IllegalArgumentException("Course with code " + courseCode + " not found");
+    public List<Grade> bottomGradesForCourse(String courseCode, int count) {
+        return extremeGrades(courseCode, count, false);
+    }
+
+    /**
+     * Gets the students with the highest GPAs.
+     * <p>
+     * Students are kept in a GPA-ordered index that is updated whenever a GPA changes,
+     * so this takes O(log n + count) time rather than sorting every student. Only
+     * students with at least one grade are ranked; students with equal GPAs are listed
+     * in the order they were added.
+     *
+     * @param count the maximum number of students to return
+     * @return up to count students, highest GPA first
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<Student> topStudentsByGpa(int count) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        List<Student> top = new ArrayList<>();
+        for (int handle : gpaRanks.top(count)) {
+            Student student = students.get(handle);
+            // Skip a student removed since the index was read
+            if (student != null) {
+                top.add(student);
+            }
+        }
+        recordCall(metrics, Operation.GPA_RANK_QUERY, start);
+        return top;
+    }
+
+    /**
+     * Gets a student's class rank by GPA in O(log n) time.
+     * <p>
+     * The rank is one more than the number of students with a strictly higher GPA, so
+     * students with equal GPAs share a rank and the next rank is skipped.
+     *
+     * @param studentId the student's ID
+     * @return the student's rank, starting at 1, or 0 if the student has no grades
+     * @throws IllegalArgumentException if student doesn't exist
+     */
+    public int rankOf(String studentId) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int studentHandle = students.handleOf(studentId);
+        if (studentHandle < 0) {
+            throw new IllegalArgumentException("Student with ID " + studentId + " not found");
         }
+        int rank = gpaRanks.rankOf(studentHandle);
+        recordCall(metrics, Operation.GPA_RANK_QUERY, start);
+        return rank;
+    }
+
+    /**
+     * Gets a student's GPA percentile in O(log n) time: the percentage of ranked
+     * students whose GPA is at or below the student's, so the top student is at 100.
+     *
+     * @param studentId the student's ID
+     * @return the student's percentile, or 0.0 if the student has no grades
+     * @throws IllegalArgumentException if student doesn't exist
+     */
+    public double percentileOf(String studentId) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int studentHandle = students.handleOf(studentId);
+        if (studentHandle < 0) {
+            throw new IllegalArgumentException("Student with ID " + studentId + " not found");
+        }
+        double percentile = gpaRanks.percentileOf(studentHandle);
+        recordCall(metrics, Operation.GPA_RANK_QUERY, start);
+        return percentile;
+    }
+
+    /**
+     * Gets the students whose GPA lies between two inclusive bounds, such as the
+     * Dean's list with {@code studentsWithGpaBetween(3.5, 4.0)}.
+     * <p>
+     * The range is read from the GPA-ordered index in O(log n + k) time for k matching
+     * students. Only students with at least one grade are included.
+     *
+     * @param lo the lowest GPA to include
+     * @param hi the highest GPA to include
+     * @return the matching students, highest GPA first; empty if lo is greater than hi
+     * @throws IllegalArgumentException if either bound is NaN
+     */
+    public List<Student> studentsWithGpaBetween(double lo, double hi) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        requireGpaRange(lo, hi);
+        List<Student> matches = new ArrayList<>();
+        for (int handle : gpaRanks.between(lo, hi)) {
+            Student student = students.get(handle);
+            // Skip a student removed since the index was read
+            if (student != null) {
+                matches.add(student);
+            }
+        }
+        recordCall(metrics, Operation.GPA_RANK_QUERY, start);
+        return matches;
+    }
 
-        List<Grade> courseGrades = grades.stream()
-                .filter(grade -> grade.getCourse().getCourseCode().equals(normalizedCourseCode))
-                .collect(Collectors.toList());
+    /**
+     * Gets the students whose GPA lies in a range, choosing whether each bound is
+     * inclusive, such as academic probation with
+     * {@code studentsWithGpaBetween(0.0, true, 2.0, false)}.
+     *
+     * @param lo          the lower bound
+     * @param loInclusive whether a GPA equal to lo is included
+     * @param hi          the upper bound
+     * @param hiInclusive whether a GPA equal to hi is included
+     * @return the matching students, highest GPA first
+     * @throws IllegalArgumentException if either bound is NaN
+     */
+    public List<Student> studentsWithGpaBetween(double lo, boolean loInclusive, double hi, boolean hiInclusive) {
+        requireGpaRange(lo, hi);
+        return studentsWithGpaBetween(loInclusive ? lo : Math.nextUp(lo), hiInclusive ? hi : Math.nextDown(hi));
+    }
+
+    /**
+     * Streams the students whose GPA lies between two inclusive bounds, highest GPA
+     * first, without building the whole list.
+     * <p>
+     * The stream is lazy and reads the index in small batches, holding no lock while
+     * the caller processes students, so memory stays constant however large the cohort.
+     * On a system that changes while the stream is consumed, each student whose GPA
+     * stays in range is returned exactly once; a student whose GPA changes meanwhile
+     * may be returned once, twice or not at all.
+     *
+     * @param lo the lowest GPA to include
+     * @param hi the highest GPA to include
+     * @return a lazy stream of the matching students
+     * @throws IllegalArgumentException if either bound is NaN
+     */
+    public Stream<Student> streamStudentsWithGpaBetween(double lo, double hi) {
+        requireGpaRange(lo, hi);
+        return streamOf(new GpaRangeIterator(lo, hi));
+    }
 
-        if (courseGrades.isEmpty()) {
-            return 0.0;
+    /**
+     * Takes an immutable, point-in-time view of the whole system.
+     * <p>
+     * Nothing is copied when the snapshot is taken. The system instead copies each
+     * piece of its storage the first time it changes after the snapshot, so a snapshot
+     * costs at most one copy of the data that is changed while it is in use. On a
+     * concurrent system, taking a snapshot waits for in-flight writes and briefly
+     * blocks new ones; iterating it blocks nothing.
+     *
+     * @return a snapshot of the students, courses and grades
+     */
+    public GradingSnapshot snapshot() {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        GradingSnapshot snapshot;
+        studentLocks.lockAll();
+        try {
+            synchronized (students) {
+                synchronized (courses) {
+                    snapshot = new GradingSnapshot(modifications.sum(), students.snapshot(), courses.snapshot(),
+                            grades.snapshot(), gradingScale);
+                }
+            }
+        } finally {
+            studentLocks.unlockAll();
         }
+        recordCall(metrics, Operation.SNAPSHOT, start);
+        return snapshot;
+    }
+
+    /**
+     * Saves a snapshot of the whole system to a binary file, replacing the file if it
+     * exists. See {@link SnapshotFile} for the format.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        SnapshotFile.write(snapshot(), file);
+    }
 
-        return courseGrades.stream()
-                .mapToDouble(Grade::getGradeValue)
-                .average()
-                .orElse(0.0);
+    /**
+     * Loads a system from a binary snapshot file written by {@link #saveSnapshot(Path)}.
+     *
+     * @param file the file to read
+     * @return a new single-threaded system holding the saved students, courses and grades
+     * @throws IOException if the file cannot be read, is corrupt, or has an unsupported format
+     */
+    public static GradingSystem loadSnapshot(Path file) throws IOException {
+        return SnapshotFile.read(file);
     }
 
     /**
      * Gets all students in the system.
+     * <p>
+     * The result is a read-only view that does not change when students are added or
+     * removed later.
      *
      * @return a collection of all students
      */
     public Collection<Student> getAllStudents() {
-        return new ArrayList<>(students.values());
+        synchronized (students) {
+            return students.snapshot();
+        }
     }
 
     /**
      * Gets all courses in the system.
+     * <p>
+     * The result is a read-only view that does not change when courses are added or
+     * removed later.
      *
      * @return a collection of all courses
      */
     public Collection<Course> getAllCourses() {
-        return new ArrayList<>(courses.values());
+        synchronized (courses) {
+            return courses.snapshot();
+        }
     }
 
     /**
      * Gets all grades in the system.
+     * <p>
+     * The result is the read-only grade view of a new {@link #snapshot()}, so it does
+     * not change when grades are recorded or removed later.
      *
      * @return a collection of all grades
      */
     public Collection<Grade> getAllGrades() {
-        return new ArrayList<>(grades);
+        return snapshot().getAllGrades();
     }
 
     /**
@@ -213,9 +1143,17 @@ public class GradingSystem {
      * @return a collection of grades for the student
      */
     public Collection<Grade> getGradesForStudent(String studentId) {
-        return grades.stream()
-                .filter(grade -> grade.getStudent().getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+        return studentGrades(students.handleOf(studentId));
+    }
+
+    /**
+     * Gets all grades for a specific student, identified by their handle.
+     *
+     * @param studentHandle the student's handle
+     * @return a collection of grades for the student
+     */
+    public Collection<Grade> getGradesForStudent(int studentHandle) {
+        return studentGrades(studentHandle);
     }
 
     /**
@@ -225,29 +1163,980 @@ public class GradingSystem {
      * @return a collection of grades for the course
      */
     public Collection<Grade> getGradesForCourse(String courseCode) {
-        String normalizedCourseCode = courseCode.trim().toUpperCase();
-        return grades.stream()
-                .filter(grade -> grade.getCourse().getCourseCode().equals(normalizedCourseCode))
-                .collect(Collectors.toList());
+        return courseGrades(courses.handleOf(courseCode.trim().toUpperCase()));
     }
 
     /**
-     * Gets a student by ID.
+     * Gets all grades for a specific course, identified by its handle.
+     *
+     * @param courseHandle the course's handle
+     * @return a collection of grades for the course
+     */
+    public Collection<Grade> getGradesForCourse(int courseHandle) {
+        return courseGrades(courseHandle);
+    }
+
+    /**
+     * Gets one page of a student's grades, in the same order as
+     * {@link #getGradesForStudent(String)}. Only the page is materialised, so the
+     * memory used is proportional to the limit rather than to the student's grades.
      *
      * @param studentId the student's ID
-     * @return the student, or null if not found
+     * @param offset    the number of grades to skip
+     * @param limit     the maximum number of grades to return
+     * @return up to limit grades; empty if the student doesn't exist
+     * @throws IllegalArgumentException if offset or limit is negative
      */
-    public Student getStudent(String studentId) {
-        return students.get(studentId);
+    public List<Grade> getGradesForStudent(String studentId, int offset, int limit) {
+        requirePage(offset, limit);
+        return gradePage(false, students.handleOf(studentId), offset, limit);
     }
 
     /**
-     * Gets a course by code.
+     * Gets one page of a course's grades, in the same order as
+     * {@link #getGradesForCourse(String)}. Only the page is materialised, so the memory
+     * used is proportional to the limit rather than to the section size.
      *
      * @param courseCode the course code
-     * @return the course, or null if not found
+     * @param offset     the number of grades to skip
+     * @param limit      the maximum number of grades to return
+     * @return up to limit grades; empty if the course doesn't exist
+     * @throws IllegalArgumentException if offset or limit is negative
      */
-    public Course getCourse(String courseCode) {
-        return courses.get(courseCode.trim().toUpperCase());
+    public List<Grade> getGradesForCourse(String courseCode, int offset, int limit) {
+        requirePage(offset, limit);
+        return gradePage(true, courses.handleOf(courseCode.trim().toUpperCase()), offset, limit);
+    }
+
+    /**
+     * Streams a student's grades lazily, in the same order as
+     * {@link #getGradesForStudent(String)}.
+     * <p>
+     * Grades are read in small batches under the student's lock, so memory stays
+     * constant and no lock is held while the caller processes grades. If the system
+     * changes while the stream is consumed, grades recorded or removed meanwhile may or
+     * may not be seen; if the last grade read is itself removed, the stream cannot find
+     * its place again and throws {@link java.util.ConcurrentModificationException}. The
+     * stream ends early if the student is removed.
+     *
+     * @param studentId the student's ID
+     * @return a lazy stream of the student's grades; empty if the student doesn't exist
+     */
+    public Stream<Grade> streamGradesForStudent(String studentId) {
+        return streamOf(new GradeListIterator(false, students.handleOf(studentId)));
+    }
+
+    /**
+     * Streams a course's grades lazily, in the same order as
+     * {@link #getGradesForCourse(String)}, with the same behaviour under concurrent
+     * changes as {@link #streamGradesForStudent(String)}.
+     *
+     * @param courseCode the course code
+     * @return a lazy stream of the course's grades; empty if the course doesn't exist
+     */
+    public Stream<Grade> streamGradesForCourse(String courseCode) {
+        return streamOf(new GradeListIterator(true, courses.handleOf(courseCode.trim().toUpperCase())));
+    }
+
+    /**
+     * Streams every grade lazily from a new {@link #snapshot()}, so the stream sees one
+     * consistent state however long it takes to consume. Writes made while the stream
+     * is open copy the storage they change, as for any snapshot.
+     *
+     * @return a lazy stream of all grades
+     */
+    public Stream<Grade> streamAllGrades() {
+        return getAllGrades().stream();
+    }
+
+    /**
+     * Gets a student by ID.
+     *
+     * @param studentId the student's ID
+     * @return the student, or null if not found
+     */
+    public Student getStudent(String studentId) {
+        return students.get(students.handleOf(studentId));
+    }
+
+    /**
+     * Gets a student by handle.
+     *
+     * @param studentHandle the student's handle
+     * @return the student, or null if not found
+     */
+    public Student getStudent(int studentHandle) {
+        return students.get(studentHandle);
+    }
+
+    /**
+     * Gets a course by code.
+     *
+     * @param courseCode the course code
+     * @return the course, or null if not found
+     */
+    public Course getCourse(String courseCode) {
+        return courses.get(courses.handleOf(courseCode.trim().toUpperCase()));
+    }
+
+    /**
+     * Gets a course by handle.
+     *
+     * @param courseHandle the course's handle
+     * @return the course, or null if not found
+     */
+    public Course getCourse(int courseHandle) {
+        return courses.get(courseHandle);
+    }
+
+    /**
+     * Gets the handle assigned to a student when it was added.
+     * <p>
+     * Handles are dense, start at 0, and are never reused after the student is removed.
+     *
+     * @param studentId the student's ID
+     * @return the student's handle, or -1 if not found
+     */
+    public int getStudentHandle(String studentId) {
+        return students.handleOf(studentId);
+    }
+
+    /**
+     * Gets the handle assigned to a course when it was added.
+     * <p>
+     * Handles are dense, start at 0, and are never reused after the course is removed.
+     *
+     * @param courseCode the course code
+     * @return the course's handle, or -1 if not found
+     */
+    public int getCourseHandle(String courseCode) {
+        if (courseCode == null) {
+            return -1;
+        }
+        return courses.handleOf(courseCode.trim().toUpperCase());
+    }
+
+    /**
+     * Sets the version of a freshly loaded system to the version it was saved at, so
+     * versions keep increasing across a save and load. Only called before the system
+     * is shared.
+     */
+    void restoreVersion(long version) {
+        modifications.reset();
+        modifications.add(version);
+    }
+
+    /**
+     * Gets the number of changes applied so far, as {@link GradingSnapshot#getVersion()}
+     * would report it, without taking a snapshot. Only exact while no change is in flight.
+     */
+    long version() {
+        return modifications.sum();
+    }
+
+    /**
+     * Starts logging every change to a write-ahead log. Called by
+     * {@link WriteAheadLog#recover(Path, int)} before the system is shared.
+     */
+    void attachLog(WriteAheadLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Starts counting and timing calls, if not already started. See
+     * {@link GradingMetrics} for what is measured and what it costs.
+     *
+     * @return the system's metrics, which keep what they recorded before any earlier
+     *         {@link #disableMetrics()}
+     */
+    public synchronized GradingMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = retiredMetrics != null ? retiredMetrics : new GradingMetrics(this);
+        }
+        return metrics;
+    }
+
+    /**
+     * Stops counting and timing calls. The metrics keep their values, and any MBeans
+     * they registered stay registered.
+     */
+    public synchronized void disableMetrics() {
+        if (metrics != null) {
+            retiredMetrics = metrics;
+            metrics = null;
+        }
+    }
+
+    /**
+     * Gets the system's metrics while they are enabled.
+     *
+     * @return the metrics, or null if {@link #enableMetrics()} has not been called or
+     *         metrics have since been disabled
+     */
+    public GradingMetrics getMetrics() {
+        return metrics;
+    }
+
+    int studentCount() {
+        return students.size();
+    }
+
+    int courseCount() {
+        return courses.size();
+    }
+
+    int gradeCount() {
+        return grades.size();
+    }
+
+    /**
+     * Estimates the memory held by grade rows and course grade indexes. Reads the index
+     * sizes without locking, so the estimate can be slightly stale.
+     */
+    long estimatedGradeMemoryBytes() {
+        long bytes = grades.allocatedBytes();
+        CourseTotals[] totals = courseTotals;
+        int limit = Math.min(courses.capacity(), totals.length);
+        for (int handle = 0; handle < limit; handle++) {
+            if (totals[handle] != null) {
+                bytes += totals[handle].sorted.allocatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Counts the courses whose statistics are cached. Reads the cache without locking,
+     * so the count can be slightly stale.
+     */
+    int cachedStatisticsCount() {
+        int count = 0;
+        CourseTotals[] totals = courseTotals;
+        int limit = Math.min(courses.capacity(), totals.length);
+        for (int handle = 0; handle < limit; handle++) {
+            if (totals[handle] != null && totals[handle].statistics != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void recordCall(GradingMetrics metrics, Operation operation, long start) {
+        if (metrics != null) {
+            metrics.record(operation, start);
+        }
+    }
+
+    private void commitGradeRecorded(GradeRecordedEvent event, int studentHandle, int courseHandle, double gradeValue) {
+        if (event.shouldCommit()) {
+            event.studentId = studentIdOf(studentHandle);
+            event.courseCode = courseCodeOf(courseHandle);
+            event.gradeValue = gradeValue;
+            event.commit();
+        }
+    }
+
+    private void commitGpaCalculated(GpaCalculatedEvent event, int studentHandle, double gpa) {
+        if (event.shouldCommit()) {
+            event.studentId = studentIdOf(studentHandle);
+            event.gpa = gpa;
+            event.commit();
+        }
+    }
+
+    private static void commitCourseRemoved(CourseRemovedEvent event, String courseCode, boolean removed,
+                                            int gradesRemoved) {
+        if (event.shouldCommit()) {
+            event.courseCode = courseCode;
+            event.removed = removed;
+            event.gradesRemoved = gradesRemoved;
+            event.commit();
+        }
+    }
+
+    private static void commitGradeBatch(GradeBatchEvent event, int rows, int recorded, BitSet touchedStudents,
+                                         BitSet touchedCourses) {
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.recorded = recorded;
+            event.studentsUpdated = touchedStudents.cardinality();
+            event.coursesUpdated = touchedCourses.cardinality();
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets a student's ID for an event, or null if the student has since been removed.
+     */
+    private String studentIdOf(int studentHandle) {
+        Student student = students.get(studentHandle);
+        return student != null ? student.getStudentId() : null;
+    }
+
+    private String courseCodeOf(int courseHandle) {
+        Course course = courses.get(courseHandle);
+        return course != null ? course.getCourseCode() : null;
+    }
+
+    /**
+     * Logs the recorded rows of a batch as one record. The caller holds every lock.
+     *
+     * @return the version to commit to the write-ahead log
+     */
+    private long logGrades(int[] rowStudents, int[] rowCourses, double[] rowValues, int rows,
+                           BitSet missingStudents, BitSet missingCourses, int recorded) {
+        String[] studentIds = new String[recorded];
+        String[] courseCodes = new String[recorded];
+        double[] gradeValues = new double[recorded];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!missingStudents.get(row) && !missingCourses.get(row)) {
+                studentIds[count] = students.get(rowStudents[row]).getStudentId();
+                courseCodes[count] = courses.get(rowCourses[row]).getCourseCode();
+                gradeValues[count] = rowValues[row];
+                count++;
+            }
+        }
+        return log.logGrades(studentIds, courseCodes, gradeValues, count);
+    }
+
+    /**
+     * Waits for a logged change to become durable. Called after releasing the locks, so
+     * that other threads can add their changes to the same group commit meanwhile.
+     */
+    private void commitLog(long logged) {
+        if (logged != 0) {
+            log.commit(logged);
+        }
+    }
+
+    private void requireStudent(int studentHandle) {
+        if (students.get(studentHandle) == null) {
+            throw new IllegalArgumentException("Student with handle " + studentHandle + " not found");
+        }
+    }
+
+    private void requireCourse(int courseHandle) {
+        if (courses.get(courseHandle) == null) {
+            throw new IllegalArgumentException("Course with handle " + courseHandle + " not found");
+        }
+    }
+
+    private int requireCourse(String courseCode) {
+        int courseHandle = courses.handleOf(courseCode.trim().toUpperCase());
+        if (courseHandle < 0) {
+            throw new IllegalArgumentException("Course with code " + courseCode + " not found");
+        }
+        return courseHandle;
+    }
+
+    private static void requirePage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+    }
+
+    private static void requireGpaRange(double lo, double hi) {
+        if (Double.isNaN(lo) || Double.isNaN(hi)) {
+            throw new IllegalArgumentException("GPA bounds cannot be NaN");
+        }
+    }
+
+    /**
+     * Stores a grade for a student and course, replacing any previous grade.
+     *
+     * @return false if the student or course was removed before the student's lock was acquired
+     */
+    private boolean putGrade(int studentHandle, int courseHandle, double gradeValue) {
+        Grade.checkGradeValue(gradeValue);
+        long logged;
+        studentLocks.lock(studentHandle);
+        try {
+            // Removing a course takes every student lock, so both checks hold until we unlock
+            Student student = students.get(studentHandle);
+            Course course = courses.get(courseHandle);
+            if (student == null || course == null) {
+                return false;
+            }
+            int credits = course.getCredits();
+            CourseTotals statistics = courseTotals[courseHandle];
+
+            courseLocks.lock(courseHandle);
+            try {
+                applyGrade(studentHandle, courseHandle, credits, gradeValue);
+                publishStudent(studentHandle);
+                statistics.publish();
+                modifications.increment();
+                logged = log != null ? log.logGrade(student.getStudentId(), course.getCourseCode(), gradeValue) : 0;
+            } finally {
+                courseLocks.unlock(courseHandle);
+            }
+        } finally {
+            studentLocks.unlock(studentHandle);
+        }
+        commitLog(logged);
+        return true;
+    }
+
+    /**
+     * Appends grades for student and course pairs that have no grade yet, without
+     * searching for an existing grade to replace. This is how snapshot files are loaded:
+     * the caller guarantees that every pair is new and that every handle is live.
+     *
+     * @param rowStudents the student handle of each row
+     * @param rowCourses  the course handle of each row
+     * @param rowValues   the grade value of each row
+     * @param rows        the number of rows to append
+     */
+    void appendResolvedGrades(int[] rowStudents, int[] rowCourses, double[] rowValues, int rows) {
+        BitSet touchedStudents = new BitSet();
+        BitSet touchedCourses = new BitSet();
+        GradeBatchEvent event = new GradeBatchEvent();
+        event.begin();
+        long lockStart = event.isEnabled() ? System.nanoTime() : 0;
+        studentLocks.lockAll();
+        courseLocks.lockAll();
+        try {
+            if (event.isEnabled()) {
+                event.lockWait = System.nanoTime() - lockStart;
+            }
+            for (int row = 0; row < rows; row++) {
+                int studentHandle = rowStudents[row];
+                int courseHandle = rowCourses[row];
+                CourseTotals statistics = courseTotals[courseHandle];
+                int gradeRow = grades.insert(studentHandle, courseHandle, rowValues[row]);
+                studentTotals[studentHandle].add(statistics.gradingScale.gradePointsFor(rowValues[row]),
+                        courses.get(courseHandle).getCredits());
+                grades.setIndexNode(gradeRow, statistics.add(rowValues[row], gradeRow));
+                touchedStudents.set(studentHandle);
+                touchedCourses.set(courseHandle);
+            }
+            for (int s = touchedStudents.nextSetBit(0); s >= 0; s = touchedStudents.nextSetBit(s + 1)) {
+                publishStudent(s);
+            }
+            for (int c = touchedCourses.nextSetBit(0); c >= 0; c = touchedCourses.nextSetBit(c + 1)) {
+                courseTotals[c].publish();
+            }
+            modifications.add(rows);
+        } finally {
+            courseLocks.unlockAll();
+            studentLocks.unlockAll();
+        }
+        commitGradeBatch(event, rows, rows, touchedStudents, touchedCourses);
+    }
+
+    /**
+     * Stores a grade and updates the running totals without publishing them. The
+     * caller holds the student's and the course's locks.
+     */
+    private void applyGrade(int studentHandle, int courseHandle, int credits, double gradeValue) {
+        StudentTotals totals = studentTotals[studentHandle];
+        CourseTotals statistics = courseTotals[courseHandle];
+        int row = grades.find(studentHandle, courseHandle);
+        if (row == GradeStore.NONE) {
+            row = grades.insert(studentHandle, courseHandle, gradeValue);
+        } else {
+            double previous = grades.value(row);
+            totals.subtract(statistics.gradingScale.gradePointsFor(previous), credits);
+            statistics.subtract(previous, grades.indexNode(row));
+            grades.setValue(row, gradeValue);
+        }
+        totals.add(statistics.gradingScale.gradePointsFor(gradeValue), credits);
+        grades.setIndexNode(row, statistics.add(gradeValue, row));
+    }
+
+    /**
+     * Removes a student and their grades. The caller holds the student's lock.
+     *
+     * @return the version to commit to the write-ahead log, or 0 if there is no log
+     */
+    private long removeStudentLocked(String studentId, int studentHandle) {
+        long logged;
+        synchronized (students) {
+            students.remove(studentId);
+            modifications.increment();
+            logged = log != null ? log.logRemoveStudent(studentId) : 0;
+        }
+
+        int[] courseHandles = new int[grades.countOfStudent(studentHandle)];
+        int count = 0;
+        for (int row = grades.firstOfStudent(studentHandle); row != GradeStore.NONE; row = grades.nextOfStudent(row)) {
+            courseHandles[count++] = grades.course(row);
+        }
+
+        // Remove all grades for this student
+        int[] lockedStripes = courseLocks.lockKeys(courseHandles, count);
+        try {
+            grades.removeStudent(studentHandle, row -> {
+                CourseTotals statistics = courseTotals[grades.course(row)];
+                statistics.subtract(grades.value(row), grades.indexNode(row));
+                statistics.sorted.compact(grades::setIndexNode);
+                statistics.publish();
+            });
+        } finally {
+            courseLocks.unlockStripes(lockedStripes);
+        }
+        studentTotals[studentHandle].clear();
+        publishStudent(studentHandle);
+        return logged;
+    }
+
+    /**
+     * Removes a course and its grades. The caller holds every student lock and the course's lock.
+     *
+     * @return the version to commit to the write-ahead log, or 0 if there is no log
+     */
+    private long removeCourseLocked(String normalizedCode, int courseHandle) {
+        int credits = courses.get(courseHandle).getCredits();
+        long logged;
+        synchronized (courses) {
+            courses.remove(normalizedCode);
+            modifications.increment();
+            logged = log != null ? log.logRemoveCourse(normalizedCode) : 0;
+        }
+
+        // Remove all grades for this course
+        CourseTotals statistics = courseTotals[courseHandle];
+        grades.removeCourse(courseHandle, row -> {
+            int studentHandle = grades.student(row);
+            double gradePoints = statistics.gradingScale.gradePointsFor(grades.value(row));
+            studentTotals[studentHandle].subtract(gradePoints, credits);
+            publishStudent(studentHandle);
+        });
+        statistics.clear();
+        statistics.publish();
+        return logged;
+    }
+
+    /**
+     * Publishes a student's GPA and marks the student for moving to their new place in
+     * the class ranking, which the next rank query does. The caller holds the student's lock.
+     */
+    private void publishStudent(int studentHandle) {
+        studentTotals[studentHandle].publish();
+        gpaRanks.markChanged(studentHandle);
+    }
+
+    /**
+     * Gets a student's published GPA for the rank index, or -1 if the student has no grades.
+     */
+    private double rankedGpaOf(int studentHandle) {
+        StudentTotals totals = studentTotals[studentHandle];
+        return totals.ranked ? totals.gpa : -1.0;
+    }
+
+    /**
+     * Gets a course's cached statistics, building them if a change to the course has
+     * cleared the cache, and counts the hit or miss if metrics are enabled.
+     */
+    private CourseStatistics statisticsOf(int courseHandle, GradingMetrics metrics) {
+        CourseTotals totals = courseTotals[courseHandle];
+        CourseStatistics statistics = totals.statistics;
+        boolean built = false;
+        if (statistics == null) {
+            courseLocks.lock(courseHandle);
+            try {
+                statistics = totals.statistics;
+                if (statistics == null) {
+                    statistics = totals.toStatistics();
+                    totals.statistics = statistics;
+                    built = true;
+                }
+            } finally {
+                courseLocks.unlock(courseHandle);
+            }
+        }
+        if (metrics != null) {
+            metrics.recordStatisticsLookup(built);
+        }
+        return statistics;
+    }
+
+    /**
+     * Materialises the grade stored in a row.
+     */
+    private Grade gradeAt(int row) {
+        int courseHandle = grades.course(row);
+        return new Grade(students.get(grades.student(row)), courses.get(courseHandle), grades.value(row),
+                courseTotals[courseHandle].gradingScale);
+    }
+
+    /**
+     * Gets one more than the highest student handle issued so far, which bounds the
+     * handles a batch over every student has to visit.
+     */
+    int studentHandleLimit() {
+        return students.capacity();
+    }
+
+    /**
+     * Builds a student's transcript. The grades and GPA are read under the student's
+     * lock, so they agree with each other.
+     *
+     * @param studentHandle the student's handle
+     * @return the transcript, or null if the student has been removed
+     */
+    Transcript transcriptOf(int studentHandle) {
+        studentLocks.lock(studentHandle);
+        try {
+            Student student = students.get(studentHandle);
+            if (student == null) {
+                return null;
+            }
+            int count = grades.countOfStudent(studentHandle);
+            List<Grade> studentGrades = new ArrayList<>(count);
+            List<String> letterGrades = new ArrayList<>(count);
+            for (int row = grades.firstOfStudent(studentHandle); row != GradeStore.NONE; row = grades.nextOfStudent(row)) {
+                int courseHandle = grades.course(row);
+                double value = grades.value(row);
+                GradingScale scale = courseTotals[courseHandle].gradingScale;
+                studentGrades.add(new Grade(student, courses.get(courseHandle), value, scale));
+                letterGrades.add(scale.letterGradeFor(value));
+            }
+            StudentTotals totals = studentTotals[studentHandle];
+            return new Transcript(student, totals.gpa, totals.creditSum, studentGrades, letterGrades);
+        } finally {
+            studentLocks.unlock(studentHandle);
+        }
+    }
+
+    private List<Grade> studentGrades(int studentHandle) {
+        if (studentHandle < 0) {
+            return new ArrayList<>();
+        }
+        studentLocks.lock(studentHandle);
+        try {
+            List<Grade> studentGrades = new ArrayList<>(grades.countOfStudent(studentHandle));
+            for (int row = grades.firstOfStudent(studentHandle); row != GradeStore.NONE; row = grades.nextOfStudent(row)) {
+                studentGrades.add(gradeAt(row));
+            }
+            return studentGrades;
+        } finally {
+            studentLocks.unlock(studentHandle);
+        }
+    }
+
+    private List<Grade> extremeGrades(String courseCode, int count, boolean highest) {
+        GradingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        int courseHandle = requireCourse(courseCode);
+        List<Grade> extremes;
+        courseLocks.lock(courseHandle);
+        try {
+            CourseGradeIndex sorted = courseTotals[courseHandle].sorted;
+            extremes = gradesAt(highest ? sorted.highest(count) : sorted.lowest(count));
+        } finally {
+            courseLocks.unlock(courseHandle);
+        }
+        recordCall(metrics, Operation.COURSE_GRADE_QUERY, start);
+        return extremes;
+    }
+
+    /**
+     * Materialises the grades stored in some rows, in the order given. The caller holds
+     * the lock of the rows' course.
+     */
+    private List<Grade> gradesAt(int[] rows) {
+        List<Grade> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(gradeAt(row));
+        }
+        return result;
+    }
+
+    /**
+     * Materialises one page of a student's or a course's grade list.
+     */
+    private List<Grade> gradePage(boolean byCourse, int handle, int offset, int limit) {
+        List<Grade> page = new ArrayList<>();
+        if (handle < 0) {
+            return page;
+        }
+        StripedLocks locks = byCourse ? courseLocks : studentLocks;
+        locks.lock(handle);
+        try {
+            int row = byCourse ? grades.firstOfCourse(handle) : grades.firstOfStudent(handle);
+            for (int skipped = 0; skipped < offset && row != GradeStore.NONE; skipped++) {
+                row = byCourse ? grades.nextOfCourse(row) : grades.nextOfStudent(row);
+            }
+            while (row != GradeStore.NONE && page.size() < limit) {
+                page.add(gradeAt(row));
+                row = byCourse ? grades.nextOfCourse(row) : grades.nextOfStudent(row);
+            }
+            return page;
+        } finally {
+            locks.unlock(handle);
+        }
+    }
+
+    private static <T> Stream<T> streamOf(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private List<Grade> courseGrades(int courseHandle) {
+        if (courseHandle < 0) {
+            return new ArrayList<>();
+        }
+        courseLocks.lock(courseHandle);
+        try {
+            List<Grade> courseGrades = new ArrayList<>(grades.countOfCourse(courseHandle));
+            for (int row = grades.firstOfCourse(courseHandle); row != GradeStore.NONE; row = grades.nextOfCourse(row)) {
+                courseGrades.add(gradeAt(row));
+            }
+            return courseGrades;
+        } finally {
+            courseLocks.unlock(courseHandle);
+        }
+    }
+
+    /**
+     * Walks a GPA range of the rank index in fixed-size batches, resuming each batch
+     * after the last student returned.
+     */
+    private final class GpaRangeIterator implements Iterator<Student> {
+        private static final int BATCH = 256;
+
+        private final double lo;
+        private final double hi;
+        private final int[] handles = new int[BATCH];
+        private final double[] gpas = new double[BATCH];
+        private int count;
+        private int position;
+        private boolean exhausted;
+        private Student next;
+
+        GpaRangeIterator(double lo, double hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (position == count) {
+                    if (exhausted) {
+                        return false;
+                    }
+                    int after = count == 0 ? -1 : handles[count - 1];
+                    double afterGpa = count == 0 ? 0.0 : gpas[count - 1];
+                    count = gpaRanks.next(lo, hi, after, afterGpa, handles, gpas);
+                    position = 0;
+                    exhausted = count < BATCH;
+                    if (count == 0) {
+                        return false;
+                    }
+                }
+                // Null if the student was removed since the batch was read
+                next = students.get(handles[position++]);
+            }
+            return true;
+        }
+
+        @Override
+        public Student next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Student student = next;
+            next = null;
+            return student;
+        }
+    }
+
+    /**
+     * Walks a student's or a course's grade list in fixed-size batches. Each batch is
+     * read under the list's lock and resumes after the last row of the previous one,
+     * once that row is confirmed to still hold the same grade.
+     */
+    private final class GradeListIterator implements Iterator<Grade> {
+        private static final int BATCH = 256;
+
+        private final boolean byCourse;
+        private final int handle;
+        private final Grade[] batch = new Grade[BATCH];
+        private int count;
+        private int position;
+        private int lastRow = GradeStore.NONE;
+        private int lastStudent;
+        private int lastCourse;
+        private boolean exhausted;
+
+        /**
+         * @param byCourse whether handle is a course's rather than a student's
+         * @param handle   the handle whose grades to walk, or -1 for an empty walk
+         */
+        GradeListIterator(boolean byCourse, int handle) {
+            this.byCourse = byCourse;
+            this.handle = handle;
+            this.exhausted = handle < 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < count) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            fill();
+            return count > 0;
+        }
+
+        @Override
+        public Grade next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Grade grade = batch[position];
+            batch[position++] = null;
+            return grade;
+        }
+
+        private void fill() {
+            StripedLocks locks = byCourse ? courseLocks : studentLocks;
+            locks.lock(handle);
+            try {
+                count = 0;
+                position = 0;
+                if (byCourse ? courses.get(handle) == null : students.get(handle) == null) {
+                    exhausted = true;
+                    return;
+                }
+                int row;
+                if (lastRow == GradeStore.NONE) {
+                    row = byCourse ? grades.firstOfCourse(handle) : grades.firstOfStudent(handle);
+                } else if (grades.student(lastRow) == lastStudent && grades.course(lastRow) == lastCourse) {
+                    row = byCourse ? grades.nextOfCourse(lastRow) : grades.nextOfStudent(lastRow);
+                } else {
+                    throw new ConcurrentModificationException("Grade list changed under the iteration");
+                }
+                while (row != GradeStore.NONE && count < BATCH) {
+                    batch[count++] = gradeAt(row);
+                    lastRow = row;
+                    row = byCourse ? grades.nextOfCourse(row) : grades.nextOfStudent(row);
+                }
+                if (count > 0) {
+                    lastStudent = grades.student(lastRow);
+                    lastCourse = grades.course(lastRow);
+                }
+                exhausted = row == GradeStore.NONE;
+            } finally {
+                locks.unlock(handle);
+            }
+        }
+    }
+
+    /**
+     * Running credit-weighted grade point totals for one student.
+     * <p>
+     * Grade points such as the 3.7 of an A- have no exact binary form, so a sum of
+     * doubles would depend on the order grades were added and removed in. The totals
+     * count whole hundredths of a grade point instead, which every built-in scale is
+     * written in, so the sums are exact and students with the same grades always get
+     * the same GPA, and so the same rank, however they got them. The totals are changed
+     * under the student's lock; the GPA they imply is published once per operation
+     * through a volatile field so it can be read without locking.
+     */
+    private static final class StudentTotals {
+        private long weightedHundredthsSum;
+        private int creditSum;
+        private volatile double gpa;
+        private volatile boolean ranked;
+
+        void add(double gradePoints, int credits) {
+            weightedHundredthsSum += Math.round(gradePoints * 100) * credits;
+            creditSum += credits;
+        }
+
+        void subtract(double gradePoints, int credits) {
+            weightedHundredthsSum -= Math.round(gradePoints * 100) * credits;
+            creditSum -= credits;
+        }
+
+        void clear() {
+            weightedHundredthsSum = 0;
+            creditSum = 0;
+        }
+
+        void publish() {
+            gpa = creditSum > 0 ? weightedHundredthsSum / (100.0 * creditSum) : 0.0;
+            ranked = creditSum > 0;
+        }
+    }
+
+    /**
+     * Running statistics for the grades of one course, plus the course's grades in
+     * value order. The minimum and maximum are read from the ends of the sorted index,
+     * so removing the grade that held one of them needs no rescan.
+     * <p>
+     * The totals are changed under the course's lock. Publishing an update stores the
+     * new mean in a volatile field and drops the cached {@link CourseStatistics}, which
+     * is rebuilt on the next read.
+     */
+    private static final class CourseTotals {
+        private final String courseCode;
+        private final GradingScale gradingScale;
+        private final int[] letterCounts;
+        private final CourseGradeIndex sorted;
+        private int count;
+        private double sum;
+        private double sumOfSquares;
+        private volatile double mean;
+        private volatile CourseStatistics statistics;
+
+        CourseTotals(String courseCode, GradingScale gradingScale, GradeStorage gradeStorage) {
+            this.courseCode = courseCode;
+            this.gradingScale = gradingScale;
+            this.letterCounts = new int[gradingScale.bandCount()];
+            this.sorted = CourseGradeIndex.create(gradeStorage);
+        }
+
+        /**
+         * @return the grade's node in the sorted index, to pass to {@link #subtract}
+         */
+        int add(double value, int row) {
+            letterCounts[gradingScale.bandOf(value)]++;
+            count++;
+            sum += value;
+            sumOfSquares += value * value;
+            return sorted.insert(row, value);
+        }
+
+        void subtract(double value, int node) {
+            // Remove from the index first, so a failure there leaves the counters intact
+            sorted.remove(node);
+            letterCounts[gradingScale.bandOf(value)]--;
+            count--;
+            if (count == 0) {
+                // Drop accumulated rounding error once the course is empty again
+                clear();
+                return;
+            }
+            sum -= value;
+            sumOfSquares -= value * value;
+        }
+
+        void clear() {
+            Arrays.fill(letterCounts, 0);
+            count = 0;
+            sum = 0.0;
+            sumOfSquares = 0.0;
+            sorted.clear();
+        }
+
+        void publish() {
+            mean = count > 0 ? sum / count : 0.0;
+            statistics = null;
+        }
+
+        CourseStatistics toStatistics() {
+            return new CourseStatistics(courseCode, count, sum, sumOfSquares, sorted.min(), sorted.max(), letterCounts,
+                    gradingScale);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.gradingsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of importing a grade file: row counts, throughput, and the lines that
+ * could not be imported.
+ */
+public class ImportResult {
+    private final long rowCount;
+    private final long importedCount;
+    private final long failedCount;
+    private final List<Failure> failures;
+    private final long elapsedNanos;
+
+    /**
+     * Creates a result. Instances are built by {@link GradeImporter}.
+     *
+     * @param rowCount      the number of data rows read, excluding the header and blank lines
+     * @param importedCount the number of rows recorded
+     * @param failedCount   the number of rows not recorded
+     * @param failures      the first failed rows, in file order
+     * @param elapsedNanos  the wall-clock duration of the import
+     */
+    ImportResult(long rowCount, long importedCount, long failedCount, List<Failure> failures, long elapsedNanos) {
+        this.rowCount = rowCount;
+        this.importedCount = importedCount;
+        this.failedCount = failedCount;
+        this.failures = Collections.unmodifiableList(new ArrayList<>(failures));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Gets the failed rows. Only the first {@value GradeImporter#MAX_REPORTED_FAILURES}
+     * are kept, so a file in the wrong format does not exhaust memory;
+     * {@link #getFailedCount()} counts all of them.
+     *
+     * @return the first failed rows, in file order
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of data rows read per second of wall-clock time
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? rowCount * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "rowCount=" + rowCount +
+                ", importedCount=" + importedCount +
+                ", failedCount=" + failedCount +
+                ", rowsPerSecond=" + Math.round(getRowsPerSecond()) +
+                '}';
+    }
+
+    /**
+     * A line of a grade file that was not imported.
+     */
+    public static class Failure {
+        private final long lineNumber;
+        private final String line;
+        private final String message;
+
+        Failure(long lineNumber, String line, String message) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * @return the one-based line number in the file
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return the text of the line, without its line terminator
+         */
+        public String getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{" +
+                    "lineNumber=" + lineNumber +
+                    ", line='" + line + '\'' +
+                    ", message='" + message + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.gradingsystem;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of call durations in nanoseconds that reports percentiles to within
+ * about 1.6%, in constant memory, however many values are recorded.
+ * <p>
+ * Values are counted in log-linear buckets, as in an HDR histogram: values below 128
+ * each have their own bucket, and every power of two above that is split into 64
+ * equal buckets, so a bucket is never wider than 1/64 of the values it holds. Any
+ * {@code long} fits, in 3712 buckets. Recording a value is a few bit operations, an
+ * atomic increment of its bucket and an add to the running total, never a lock or an
+ * allocation, so many threads can record into one histogram at once. Reads sum the
+ * buckets, so they cost more than recording and are meant for occasional polling.
+ * <p>
+ * A percentile is the highest value of the bucket it falls in, capped at the largest
+ * value recorded. Reads made while values are being recorded or the histogram is
+ * reset may count some of the concurrent values and not others.
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one call.
+     *
+     * @param nanos how long the call took; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos));
+        total.add(nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    @Override
+    public long getCount() {
+        long calls = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            calls += counts.get(i);
+        }
+        return calls;
+    }
+
+    @Override
+    public double getMeanNanos() {
+        long calls = getCount();
+        return calls == 0 ? 0.0 : (double) total.sum() / calls;
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    @Override
+    public long get50thPercentileNanos() {
+        return getPercentileNanos(50.0);
+    }
+
+    @Override
+    public long get99thPercentileNanos() {
+        return getPercentileNanos(99.0);
+    }
+
+    @Override
+    public long get999thPercentileNanos() {
+        return getPercentileNanos(99.9);
+    }
+
+    /**
+     * Gets the time a percentage of the recorded calls took at most.
+     *
+     * @param percentile the percentage, from 0.0 to 100.0
+     * @return the time in nanoseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if percentile is not between 0.0 and 100.0
+     */
+    public long getPercentileNanos(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0.0 and 100.0");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long calls = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            calls += snapshot[i];
+        }
+        if (calls == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * calls));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Finds the bucket of a value that is not negative.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        // The top SUB_BUCKET_BITS bits of the value, from HALF_SUB_BUCKETS to SUB_BUCKETS - 1
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS + 1));
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS + subBucket - HALF_SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the highest value that falls in a bucket.
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int block = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        // For the last bucket the shift reaches 2^63 and the subtraction wraps to Long.MAX_VALUE
+        return ((subBucket + 1) << (block + 1)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + getCount() +
+                ", meanNanos=" + getMeanNanos() +
+                ", p50=" + get50thPercentileNanos() +
+                ", p99=" + get99thPercentileNanos() +
+                ", p999=" + get999thPercentileNanos() +
+                ", max=" + getMaxNanos() +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.gradingsystem;
+
+/**
+ * The management interface of a {@link LatencyHistogram}, as published over JMX by
+ * {@link GradingMetrics#registerMBeans(String)}. Times are in nanoseconds.
+ */
+public interface LatencyHistogramMXBean {
+    /**
+     * @return the number of recorded calls
+     */
+    long getCount();
+
+    /**
+     * @return the mean recorded time, or 0.0 if nothing was recorded
+     */
+    double getMeanNanos();
+
+    /**
+     * @return the longest recorded time, or 0 if nothing was recorded
+     */
+    long getMaxNanos();
+
+    /**
+     * @return the median recorded time
+     */
+    long get50thPercentileNanos();
+
+    /**
+     * @return the time 99% of calls took at most
+     */
+    long get99thPercentileNanos();
+
+    /**
+     * @return the time 99.9% of calls took at most
+     */
+    long get999thPercentileNanos();
+
+    /**
+     * Discards everything recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,521 @@
+package com.gradingsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a {@link GradingSystem} to, and loads it from, a compact binary snapshot file.
+ * <p>
+ * The file is little-endian and laid out as:
+ * <ol>
+ *   <li>a header: the magic number {@code GRDS}, the format version, the system
+ *       version (see {@link GradingSnapshot#getVersion()}), and the number of students,
+ *       courses, grades and exact grade values;</li>
+ *   <li>the grading scales in use: their number, then the name and
+ *       {@link GradingScale#toSpec() bands} of each as strings, starting with the
+ *       system's default scale;</li>
+ *   <li>a string table of length-prefixed UTF-8 strings: the ID, name and email of
+ *       every student, then the code and name of every course;</li>
+ *   <li>the course credits as an int column;</li>
+ *   <li>the scale of each course as an int column of positions in the scale list, or
+ *       -1 for a course graded on the default scale;</li>
+ *   <li>the grades whose value is not a whole number of hundredths, as pairs of row
+ *       number and double value;</li>
+ *   <li>the grades, ordered by student, as three primitive columns: the student index
+ *       and course index as ints, and the value as a short number of hundredths, or -1
+ *       for an exact value;</li>
+ *   <li>a CRC-32 of everything before it.</li>
+ * </ol>
+ * That comes to ten bytes per grade. Files are written sequentially through a
+ * {@link FileChannel} into a temporary file that replaces the target only once it is
+ * complete and forced to disk, so a crash never leaves a half-written snapshot behind.
+ * They are loaded through memory-mapping, reading the three grade columns side by side.
+ * Because the grades are ordered by student, the loader can check that no student has
+ * two grades for the same course and then append every grade
+ * without searching for an existing one to replace.
+ * <p>
+ * Files in format version 1, which predates grading scales, are still read; their
+ * courses are graded on {@link GradingScale#STANDARD}.
+ */
+public final class SnapshotFile {
+    static final int MAGIC = 0x53445247;
+    static final int FORMAT_VERSION = 2;
+    private static final int UNSCALED_FORMAT_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int WINDOW_SIZE = 1 << 30;
+    private static final int LOAD_BATCH_SIZE = 1 << 16;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing the file if it exists.
+     *
+     * @param snapshot the snapshot to write
+     * @param file     the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(GradingSnapshot snapshot, Path file) throws IOException {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null");
+        }
+        SymbolTable.Snapshot<Student> students = snapshot.studentTable();
+        SymbolTable.Snapshot<Course> courses = snapshot.courseTable();
+        GradeStore.Snapshot grades = snapshot.gradeTable();
+
+        // Handles can have gaps left by removals; the file numbers students and courses densely
+        int[] studentIndexes = denseIndexes(students);
+        int[] courseIndexes = denseIndexes(courses);
+        int[] rows = rowsByStudent(grades, studentIndexes, students.size());
+        // Courses sharing a scale object share its entry; the default scale comes first
+        Map<GradingScale, Integer> scaleIndexes = new IdentityHashMap<>();
+        List<GradingScale> scales = new ArrayList<>();
+        scales.add(snapshot.gradingScale());
+        scaleIndexes.put(snapshot.gradingScale(), 0);
+        for (Course course : courses) {
+            GradingScale scale = course.getGradingScale();
+            if (scale != null && !scaleIndexes.containsKey(scale)) {
+                scaleIndexes.put(scale, scales.size());
+                scales.add(scale);
+            }
+        }
+        int exactValues = 0;
+        for (int row : rows) {
+            if (GradeStore.hundredthsOf(grades.value(row)) == GradeStore.EXACT_VALUE) {
+                exactValues++;
+            }
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ChannelWriter out = new ChannelWriter(channel);
+                out.putInt(MAGIC);
+                out.putInt(FORMAT_VERSION);
+                out.putLong(snapshot.getVersion());
+                out.putInt(students.size());
+                out.putInt(courses.size());
+                out.putInt(grades.size());
+                out.putInt(exactValues);
+
+                out.putInt(scales.size());
+                for (GradingScale scale : scales) {
+                    out.putString(scale.getName());
+                    out.putString(scale.toSpec());
+                }
+                for (Student student : students) {
+                    out.putString(student.getStudentId());
+                    out.putString(student.getName());
+                    out.putString(student.getEmail());
+                }
+                for (Course course : courses) {
+                    out.putString(course.getCourseCode());
+                    out.putString(course.getCourseName());
+                }
+                for (Course course : courses) {
+                    out.putInt(course.getCredits());
+                }
+                for (Course course : courses) {
+                    out.putInt(course.getGradingScale() != null ? scaleIndexes.get(course.getGradingScale()) : -1);
+                }
+
+                for (int index = 0; index < rows.length; index++) {
+                    double value = grades.value(rows[index]);
+                    if (GradeStore.hundredthsOf(value) == GradeStore.EXACT_VALUE) {
+                        out.putInt(index);
+                        out.putDouble(value);
+                    }
+                }
+                for (int row : rows) {
+                    out.putInt(studentIndexes[grades.student(row)]);
+                }
+                for (int row : rows) {
+                    out.putInt(courseIndexes[grades.course(row)]);
+                }
+                for (int row : rows) {
+                    out.putShort(GradeStore.hundredthsOf(grades.value(row)));
+                }
+                out.finish();
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Loads a snapshot file into a new single-threaded grading system.
+     *
+     * @param file the file to read
+     * @return a system holding the students, courses and grades from the file
+     * @throws IOException if the file cannot be read, is corrupt, or has an unsupported format
+     */
+    public static GradingSystem read(Path file) throws IOException {
+        return read(file, 0);
+    }
+
+    /**
+     * Loads a snapshot file into a new grading system.
+     * <p>
+     * Students and courses get new handles, assigned densely in the order they were
+     * added; the system version continues from the version that was saved, and its
+     * default grading scale is the one that was saved.
+     *
+     * @param file        the file to read
+     * @param lockStripes the number of lock stripes, as for {@link GradingSystem#GradingSystem(int)}
+     * @return a system holding the students, courses and grades from the file
+     * @throws IOException if the file cannot be read, is corrupt, or has an unsupported format
+     * @throws IllegalArgumentException if lockStripes is negative
+     */
+    public static GradingSystem read(Path file, int lockStripes) throws IOException {
+        return read(file, lockStripes, GradeStorage.HEAP);
+    }
+
+    /**
+     * Loads a snapshot file into a new grading system that keeps its per-grade data
+     * where chosen, as for {@link GradingSystem#GradingSystem(int, GradingScale, GradeStorage)}.
+     *
+     * @param file         the file to read
+     * @param lockStripes  the number of lock stripes, as for {@link GradingSystem#GradingSystem(int)}
+     * @param gradeStorage where the loaded system allocates grade rows and course grade indexes
+     * @return a system holding the students, courses and grades from the file
+     * @throws IOException if the file cannot be read, is corrupt, or has an unsupported format
+     * @throws IllegalArgumentException if lockStripes is negative or gradeStorage is null
+     */
+    public static GradingSystem read(Path file, int lockStripes, GradeStorage gradeStorage) throws IOException {
+        if (gradeStorage == null) {
+            throw new IllegalArgumentException("Grade storage cannot be null");
+        }
+        if (lockStripes < 0) {
+            throw new IllegalArgumentException("Lock stripes cannot be negative");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.position() < header.capacity() || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a grading system snapshot: " + file);
+            }
+            int formatVersion = header.getInt(Integer.BYTES);
+            if (formatVersion != FORMAT_VERSION && formatVersion != UNSCALED_FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + formatVersion);
+            }
+            verifyChecksum(channel, size);
+
+            MappedReader in = new MappedReader(channel, header.capacity(), size - Integer.BYTES);
+            long version = in.getLong();
+            int studentCount = in.getInt();
+            int courseCount = in.getInt();
+            int gradeCount = in.getInt();
+            int exactValueCount = in.getInt();
+
+            GradingScale[] scales;
+            if (formatVersion == UNSCALED_FORMAT_VERSION) {
+                scales = new GradingScale[]{GradingScale.STANDARD};
+            } else {
+                scales = new GradingScale[in.getInt()];
+                if (scales.length == 0) {
+                    throw new IOException("Snapshot file is corrupt: no default grading scale");
+                }
+                for (int i = 0; i < scales.length; i++) {
+                    scales[i] = GradingScale.parse(in.getString(), in.getString());
+                }
+            }
+            GradingSystem gradingSystem = new GradingSystem(lockStripes, scales[0], gradeStorage);
+            int[] studentHandles = new int[studentCount];
+            for (int i = 0; i < studentCount; i++) {
+                Student student = new Student(in.getString(), in.getString(), in.getString());
+                gradingSystem.addStudent(student);
+                studentHandles[i] = gradingSystem.getStudentHandle(student.getStudentId());
+            }
+            String[] courseCodes = new String[courseCount];
+            String[] courseNames = new String[courseCount];
+            for (int i = 0; i < courseCount; i++) {
+                courseCodes[i] = in.getString();
+                courseNames[i] = in.getString();
+            }
+            int[] courseCredits = new int[courseCount];
+            for (int i = 0; i < courseCount; i++) {
+                courseCredits[i] = in.getInt();
+            }
+            int[] courseHandles = new int[courseCount];
+            for (int i = 0; i < courseCount; i++) {
+                int scale = formatVersion == UNSCALED_FORMAT_VERSION ? -1 : in.getInt();
+                GradingScale courseScale = scale == -1 ? null : scales[checkIndex(scale, scales.length)];
+                gradingSystem.addCourse(new Course(courseCodes[i], courseNames[i], courseCredits[i], courseScale));
+                courseHandles[i] = gradingSystem.getCourseHandle(courseCodes[i]);
+            }
+            Map<Integer, Double> exactValues = new HashMap<>();
+            for (int i = 0; i < exactValueCount; i++) {
+                exactValues.put(in.getInt(), in.getDouble());
+            }
+
+            long studentColumn = in.position();
+            long courseColumn = studentColumn + (long) gradeCount * Integer.BYTES;
+            long valueColumn = courseColumn + (long) gradeCount * Integer.BYTES;
+            if (valueColumn + (long) gradeCount * Short.BYTES != size - Integer.BYTES) {
+                throw new IOException("Snapshot file is truncated or has trailing data");
+            }
+            MappedReader studentsIn = new MappedReader(channel, studentColumn, courseColumn);
+            MappedReader coursesIn = new MappedReader(channel, courseColumn, valueColumn);
+            MappedReader valuesIn = new MappedReader(channel, valueColumn, size - Integer.BYTES);
+
+            int batchSize = Math.min(gradeCount, LOAD_BATCH_SIZE);
+            int[] rowStudents = new int[batchSize];
+            int[] rowCourses = new int[batchSize];
+            double[] rowValues = new double[batchSize];
+            // The last student index that graded each course, to catch duplicate grades
+            int[] lastStudent = new int[courseCount];
+            Arrays.fill(lastStudent, -1);
+            int previousStudent = 0;
+            for (int start = 0; start < gradeCount; start += batchSize) {
+                int rows = Math.min(batchSize, gradeCount - start);
+                for (int row = 0; row < rows; row++) {
+                    int studentIndex = checkIndex(studentsIn.getInt(), studentCount);
+                    int courseIndex = checkIndex(coursesIn.getInt(), courseCount);
+                    if (studentIndex < previousStudent || lastStudent[courseIndex] == studentIndex) {
+                        throw new IOException("Snapshot file is corrupt: grade " + (start + row) + " is out of order");
+                    }
+                    previousStudent = studentIndex;
+                    lastStudent[courseIndex] = studentIndex;
+                    rowStudents[row] = studentHandles[studentIndex];
+                    rowCourses[row] = courseHandles[courseIndex];
+                    short hundredths = valuesIn.getShort();
+                    rowValues[row] = hundredths == GradeStore.EXACT_VALUE
+                            ? exactValues.getOrDefault(start + row, Double.NaN) : hundredths / 100.0;
+                    if (Double.isNaN(rowValues[row])) {
+                        throw new IOException("Snapshot file is corrupt: missing exact value for grade " + (start + row));
+                    }
+                    Grade.checkGradeValue(rowValues[row]);
+                }
+                gradingSystem.appendResolvedGrades(rowStudents, rowCourses, rowValues, rows);
+            }
+            gradingSystem.restoreVersion(version);
+            return gradingSystem;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Snapshot file is corrupt: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Numbers the present entries of a table densely, in handle order.
+     *
+     * @return the dense index of each handle, or -1 for handles that are not present
+     */
+    private static int[] denseIndexes(SymbolTable.Snapshot<?> table) {
+        int[] indexes = new int[table.limit()];
+        int next = 0;
+        for (int handle = 0; handle < indexes.length; handle++) {
+            indexes[handle] = table.get(handle) != null ? next++ : -1;
+        }
+        return indexes;
+    }
+
+    /**
+     * Lists the live rows of a grade table grouped by the dense index of their student,
+     * keeping row order within each student.
+     */
+    private static int[] rowsByStudent(GradeStore.Snapshot grades, int[] studentIndexes, int studentCount) {
+        int[] starts = new int[studentCount + 1];
+        for (int row = grades.nextRow(0); row != GradeStore.NONE; row = grades.nextRow(row + 1)) {
+            starts[studentIndexes[grades.student(row)] + 1]++;
+        }
+        for (int i = 0; i < studentCount; i++) {
+            starts[i + 1] += starts[i];
+        }
+        int[] rows = new int[grades.size()];
+        for (int row = grades.nextRow(0); row != GradeStore.NONE; row = grades.nextRow(row + 1)) {
+            rows[starts[studentIndexes[grades.student(row)]]++] = row;
+        }
+        return rows;
+    }
+
+    private static int checkIndex(int index, int count) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IOException("Snapshot file is corrupt: index " + index + " out of range");
+        }
+        return index;
+    }
+
+    private static void verifyChecksum(FileChannel channel, long size) throws IOException {
+        if (size < Integer.BYTES * 3) {
+            throw new IOException("Snapshot file is truncated");
+        }
+        CRC32 crc = new CRC32();
+        long contentSize = size - Integer.BYTES;
+        for (long position = 0; position < contentSize; position += WINDOW_SIZE) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, contentSize - position)));
+        }
+        ByteBuffer stored = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(stored, contentSize);
+        if (stored.getInt(0) != (int) crc.getValue()) {
+            throw new IOException("Snapshot file is corrupt: checksum mismatch");
+        }
+    }
+
+    /**
+     * Buffers primitive writes into large sequential channel writes and checksums them.
+     */
+    private static final class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(Short.BYTES);
+            buffer.putShort(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Writes the checksum and flushes everything.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            writeFully();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            writeFully();
+        }
+
+        private void writeFully() throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads primitives sequentially from a region of a file through a memory-mapped
+     * window that is moved along as it is used up, so regions may exceed 2 GB.
+     */
+    private static final class MappedReader {
+        private final FileChannel channel;
+        private final long end;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedReader(FileChannel channel, long start, long end) throws IOException {
+            this.channel = channel;
+            this.end = end;
+            map(start);
+        }
+
+        long position() {
+            return windowStart + window.position();
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        short getShort() throws IOException {
+            ensure(Short.BYTES);
+            return window.getShort();
+        }
+
+        double getDouble() throws IOException {
+            ensure(Double.BYTES);
+            return window.getDouble();
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if (length < 0 || length > end - position()) {
+                throw new IOException("Snapshot file is corrupt: bad string length " + length);
+            }
+            ensure(length);
+            byte[] bytes = new byte[length];
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                long position = position();
+                if (end - position < bytes) {
+                    throw new IOException("Snapshot file is truncated");
+                }
+                map(position);
+            }
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, end - start));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.gradingsystem;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out between integer keys by their low bits.
+ * <p>
+ * A table created with zero stripes is disabled: every method returns immediately,
+ * which lets single-threaded callers run the same locking code at no cost. Callers
+ * that hold several stripes must acquire them in ascending stripe order.
+ */
+final class StripedLocks {
+    static final int MAX_STRIPES = 1 << 16;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * Creates the locks.
+     *
+     * @param stripes number of stripes, rounded up to a power of two and capped at
+     *                {@value #MAX_STRIPES}; 0 disables locking
+     * @throws IllegalArgumentException if stripes is negative
+     */
+    StripedLocks(int stripes) {
+        if (stripes < 0) {
+            throw new IllegalArgumentException("Lock stripes cannot be negative");
+        }
+        int count = stripes <= 1 ? stripes : Integer.highestOneBit(Math.min(stripes, MAX_STRIPES) - 1) << 1;
+        this.locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = Math.max(0, count - 1);
+    }
+
+    boolean isEnabled() {
+        return locks.length > 0;
+    }
+
+    /**
+     * @return the number of stripes, or 0 if locking is disabled
+     */
+    int stripes() {
+        return locks.length;
+    }
+
+    int stripeOf(int key) {
+        return key & mask;
+    }
+
+    void lock(int key) {
+        if (locks.length > 0) {
+            locks[key & mask].lock();
+        }
+    }
+
+    void unlock(int key) {
+        if (locks.length > 0) {
+            locks[key & mask].unlock();
+        }
+    }
+
+    /**
+     * Acquires the stripes of several keys in ascending stripe order.
+     *
+     * @return the distinct stripes that were locked, to pass to {@link #unlockStripes(int[])}
+     */
+    int[] lockKeys(int[] keys, int count) {
+        if (locks.length == 0) {
+            return new int[0];
+        }
+        int[] stripes = new int[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = keys[i] & mask;
+        }
+        Arrays.sort(stripes);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || stripes[distinct - 1] != stripes[i]) {
+                stripes[distinct++] = stripes[i];
+            }
+        }
+        stripes = Arrays.copyOf(stripes, distinct);
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        return stripes;
+    }
+
+    void unlockStripes(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Acquires every stripe in ascending order.
+     */
+    void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.gradingsystem;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns string keys as dense integer handles.
+ * <p>
+ * Handles are assigned in insertion order starting at 0 and are never reused, so a
+ * handle held after its entry is removed simply stops resolving instead of pointing at
+ * a different entry. Handles are only meaningful within the table that issued them.
+ * <p>
+ * Lookups are safe from any thread. {@link #add} and {@link #remove} must be
+ * serialised by the caller; a value is stored under its handle before the key is
+ * published, so a reader that finds a handle also finds its value.
+ * <p>
+ * {@link #snapshot()} freezes the values without copying them: the table marks its
+ * value array as shared and copies it on the next add or remove instead.
+ *
+ * @param <T> the type of value stored under each handle
+ */
+final class SymbolTable<T> {
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[16];
+    private volatile int nextHandle;
+    private boolean shared;
+
+    /**
+     * Adds a value under a key that is not yet present.
+     *
+     * @return the handle assigned to the key
+     */
+    int add(String key, T value) {
+        int handle = nextHandle;
+        Object[] current = values;
+        if (handle == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        } else if (shared) {
+            current = current.clone();
+        }
+        shared = false;
+        current[handle] = value;
+        values = current;
+        nextHandle = handle + 1;
+        handles.put(key, handle);
+        return handle;
+    }
+
+    /**
+     * @return the handle of the key, or -1 if the key is not present
+     */
+    int handleOf(String key) {
+        if (key == null) {
+            return -1;
+        }
+        Integer handle = handles.get(key);
+        return handle == null ? -1 : handle;
+    }
+
+    /**
+     * @return the value stored under the handle, or null if the handle does not resolve
+     */
+    @SuppressWarnings("unchecked")
+    T get(int handle) {
+        Object[] current = values;
+        return handle >= 0 && handle < current.length ? (T) current[handle] : null;
+    }
+
+    /**
+     * Removes a key and retires its handle.
+     *
+     * @return the retired handle, or -1 if the key was not present
+     */
+    int remove(String key) {
+        Integer handle = handles.remove(key);
+        if (handle == null) {
+            return -1;
+        }
+        Object[] current = shared ? values.clone() : values;
+        shared = false;
+        current[handle] = null;
+        values = current;
+        return handle;
+    }
+
+    /**
+     * @return the number of keys currently present
+     */
+    int size() {
+        return handles.size();
+    }
+
+    /**
+     * Gets the handle that the next {@link #add} will assign, so callers can prepare
+     * handle-indexed state before the key becomes visible to readers.
+     *
+     * @return one more than the highest handle ever issued
+     */
+    int capacity() {
+        return nextHandle;
+    }
+
+    /**
+     * @return the present values in handle order
+     */
+    @SuppressWarnings("unchecked")
+    List<T> values() {
+        Object[] current = values;
+        int limit = Math.min(nextHandle, current.length);
+        List<T> present = new ArrayList<>(handles.size());
+        for (int handle = 0; handle < limit; handle++) {
+            if (current[handle] != null) {
+                present.add((T) current[handle]);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Freezes the current values. Must be serialised with {@link #add} and
+     * {@link #remove} by the caller.
+     *
+     * @return a read-only view of the present values that later changes do not affect
+     */
+    Snapshot<T> snapshot() {
+        shared = true;
+        return new Snapshot<>(values, nextHandle, handles.size());
+    }
+
+    /**
+     * The values of a table at the time {@link #snapshot()} was called, in handle order.
+     *
+     * @param <T> the type of value stored under each handle
+     */
+    static final class Snapshot<T> extends AbstractCollection<T> {
+        private final Object[] values;
+        private final int limit;
+        private final int size;
+
+        private Snapshot(Object[] values, int limit, int size) {
+            this.values = values;
+            this.limit = limit;
+            this.size = size;
+        }
+
+        /**
+         * @return the value that was stored under the handle, or null if the handle did not resolve
+         */
+        @SuppressWarnings("unchecked")
+        T get(int handle) {
+            return handle >= 0 && handle < limit ? (T) values[handle] : null;
+        }
+
+        /**
+         * @return one more than the highest handle the snapshot can resolve
+         */
+        int limit() {
+            return limit;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next < limit;
+                }
+
+                @Override
+                public T next() {
+                    if (next >= limit) {
+                        throw new NoSuchElementException();
+                    }
+                    T value = get(next);
+                    next = advance(next + 1);
+                    return value;
+                }
+            };
+        }
+
+        private int advance(int handle) {
+            while (handle < limit && values[handle] == null) {
+                handle++;
+            }
+            return handle;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.gradingsystem;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A student's transcript: their grades, the letter grade for each, and their GPA, all
+ * read at the same moment.
+ */
+public class Transcript {
+    private final Student student;
+    private final double gpa;
+    private final int totalCredits;
+    private final List<Grade> grades;
+    private final List<String> letterGrades;
+
+    /**
+     * Creates a transcript. Instances are built by {@link GradingSystem}.
+     *
+     * @param student      the student
+     * @param gpa          the student's GPA
+     * @param totalCredits the credits of every graded course
+     * @param grades       the student's grades, in the order they were first recorded
+     * @param letterGrades the letter grade of each grade, in the same order
+     */
+    Transcript(Student student, double gpa, int totalCredits, List<Grade> grades, List<String> letterGrades) {
+        this.student = student;
+        this.gpa = gpa;
+        this.totalCredits = totalCredits;
+        this.grades = Collections.unmodifiableList(grades);
+        this.letterGrades = Collections.unmodifiableList(letterGrades);
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    /**
+     * @return the GPA, equal to what {@link GradingSystem#calculateGPA(String)} returned
+     *         when the transcript was built
+     */
+    public double getGpa() {
+        return gpa;
+    }
+
+    /**
+     * @return the credits of every course the student has a grade in
+     */
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    /**
+     * @return the student's grades, in the order they were first recorded
+     */
+    public List<Grade> getGrades() {
+        return grades;
+    }
+
+    /**
+     * @return the letter grade of each grade, in the same order as {@link #getGrades()}
+     */
+    public List<String> getLetterGrades() {
+        return letterGrades;
+    }
+
+    @Override
+    public String toString() {
+        return "Transcript{" +
+                "studentId='" + student.getStudentId() + '\'' +
+                ", gpa=" + gpa +
+                ", totalCredits=" + totalCredits +
+                ", grades=" + grades.size() +
+                '}';
+    }
+}
@@ -0,0 +1,173 @@
+package com.gradingsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds transcripts for many students at once, in parallel.
+ * <p>
+ * The students are split into contiguous ranges that are built as fork-join tasks,
+ * halving each range until it is small enough to build on one thread, so idle workers
+ * steal the remaining halves and the work spreads over every core. Each task writes
+ * its transcripts into its own slots of a shared result array, so the output order is
+ * fixed by the input and not by scheduling: {@link #generateAll()} lists students in
+ * the order they were added, and {@link #generate(Collection)} in the order given.
+ * <p>
+ * Each transcript is built under its student's lock and is consistent on its own; on a
+ * system that changes during the run, different transcripts may reflect different
+ * moments.
+ */
+public class TranscriptGenerator {
+    private static final int MIN_LEAF_SIZE = 64;
+
+    private final GradingSystem gradingSystem;
+    private final int parallelism;
+
+    /**
+     * Creates a generator that runs on the common fork-join pool.
+     *
+     * @param gradingSystem the system to read
+     * @throws IllegalArgumentException if gradingSystem is null
+     */
+    public TranscriptGenerator(GradingSystem gradingSystem) {
+        if (gradingSystem == null) {
+            throw new IllegalArgumentException("Grading system cannot be null");
+        }
+        this.gradingSystem = gradingSystem;
+        this.parallelism = 0;
+    }
+
+    /**
+     * Creates a generator that runs each batch on its own fork-join pool.
+     *
+     * @param gradingSystem the system to read
+     * @param parallelism   the number of worker threads
+     * @throws IllegalArgumentException if gradingSystem is null or parallelism is not positive
+     */
+    public TranscriptGenerator(GradingSystem gradingSystem, int parallelism) {
+        if (gradingSystem == null) {
+            throw new IllegalArgumentException("Grading system cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.gradingSystem = gradingSystem;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Builds the transcript of every student.
+     *
+     * @return one transcript per student, in the order the students were added
+     */
+    public List<Transcript> generateAll() {
+        int limit = gradingSystem.studentHandleLimit();
+        Transcript[] transcripts = new Transcript[limit];
+        run(new Build(null, transcripts, 0, limit, leafSize(limit)));
+        List<Transcript> result = new ArrayList<>(limit);
+        for (Transcript transcript : transcripts) {
+            // Null for handles of removed students
+            if (transcript != null) {
+                result.add(transcript);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the transcripts of some students.
+     *
+     * @param studentIds the students' IDs
+     * @return one transcript per ID, in the order given
+     * @throws IllegalArgumentException if a student doesn't exist
+     */
+    public List<Transcript> generate(Collection<String> studentIds) {
+        List<String> ids = new ArrayList<>(studentIds);
+        int[] handles = new int[ids.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = gradingSystem.getStudentHandle(ids.get(i));
+            if (handles[i] < 0) {
+                throw new IllegalArgumentException("Student with ID " + ids.get(i) + " not found");
+            }
+        }
+        Transcript[] transcripts = new Transcript[handles.length];
+        run(new Build(handles, transcripts, 0, handles.length, leafSize(handles.length)));
+        for (int i = 0; i < transcripts.length; i++) {
+            // Null if the student was removed while the batch ran
+            if (transcripts[i] == null) {
+                throw new IllegalArgumentException("Student with ID " + ids.get(i) + " not found");
+            }
+        }
+        return Arrays.asList(transcripts);
+    }
+
+    /**
+     * @return the number of worker threads a batch runs on
+     */
+    public int getParallelism() {
+        return parallelism > 0 ? parallelism : ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    private void run(Build build) {
+        if (parallelism == 0) {
+            ForkJoinPool.commonPool().invoke(build);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(build);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Sizes the leaves so each worker gets several to balance uneven students, without
+     * making tasks so small that forking dominates.
+     */
+    private int leafSize(int students) {
+        return Math.max(MIN_LEAF_SIZE, students / (getParallelism() * 8));
+    }
+
+    /**
+     * Builds the transcripts for positions [from, to) of the input.
+     */
+    private final class Build extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] handles;
+        private final Transcript[] transcripts;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        /**
+         * @param handles the student handle of each position, or null if the position
+         *                is the handle itself
+         */
+        Build(int[] handles, Transcript[] transcripts, int from, int to, int leafSize) {
+            this.handles = handles;
+            this.transcripts = transcripts;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Build(handles, transcripts, from, mid, leafSize),
+                        new Build(handles, transcripts, mid, to, leafSize));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                transcripts[i] = gradingSystem.transcriptOf(handles == null ? i : handles[i]);
+            }
+        }
+    }
+}
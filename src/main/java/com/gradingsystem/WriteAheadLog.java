@@ -0,0 +1,754 @@
+package com.gradingsystem;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every change made to a {@link GradingSystem}, so that the changes
+ * made since the last snapshot survive a crash.
+ * <p>
+ * A log is put to use with {@link #recover(Path, int)}, which loads the latest snapshot,
+ * replays the changes logged after it and returns a system that logs every further
+ * change before the mutating method returns. Each change is appended to an in-memory
+ * buffer while the system still holds the locks that order it, and written out once the
+ * locks are released. Changes made while another thread is writing pile up in the
+ * buffer and are written, and forced to disk, together by the next thread to commit: a
+ * group commit, so durability costs one {@link FileChannel#force(boolean)} per group
+ * rather than one per grade. A {@link GradingSystem#recordGrades(java.util.Collection) batch} is
+ * a single log record.
+ * <p>
+ * The file starts with the magic number {@code GRDW} and the format version, followed
+ * by records of a little-endian length, the record body and a CRC-32 of the body. Each
+ * body holds the record type, the {@link GradingSnapshot#getVersion() system version}
+ * after the change, and the IDs and values the change was made with. Recovery skips the
+ * records a snapshot already contains by their version, and stops at the first torn or
+ * corrupt record, which it cuts off so that new records follow the last good one. A
+ * {@link Checkpointer} keeps the log short by snapshotting the system and dropping the
+ * records the snapshot covers.
+ */
+public final class WriteAheadLog implements Closeable {
+    static final int MAGIC = 0x57445247;
+    static final int FORMAT_VERSION = 1;
+
+    /** Default interval between forces for {@link SyncPolicy#INTERVAL}, in milliseconds. */
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final byte ADD_STUDENT = 1;
+    private static final byte REMOVE_STUDENT = 2;
+    private static final byte ADD_COURSE = 3;
+    private static final byte REMOVE_COURSE = 4;
+    private static final byte RECORD_GRADE = 5;
+    private static final byte RECORD_GRADES = 6;
+    private static final byte ADD_SCALED_COURSE = 7;
+
+    /**
+     * When logged changes are forced to disk.
+     */
+    public enum SyncPolicy {
+        /**
+         * A mutating method returns once its change is written and forced, so it
+         * survives a power failure. Concurrent changes share one force.
+         */
+        ALWAYS,
+        /**
+         * A mutating method returns once its change is written to the file, so it
+         * survives the process crashing. A background thread forces the file
+         * periodically, bounding what a power failure can lose.
+         */
+        INTERVAL,
+        /**
+         * As {@link #INTERVAL}, but the file is only forced by {@link #sync()} and
+         * {@link #close()}; the operating system decides when data reaches the disk.
+         */
+        NEVER
+    }
+
+    private final Path file;
+    private final SyncPolicy syncPolicy;
+    private final long syncIntervalMillis;
+    private final Object writeLock = new Object();
+    private ScheduledExecutorService syncer;
+    private GradingSystem gradingSystem;
+    private boolean closed;
+
+    // Guarded by this: records appended but not yet written
+    private RecordBuffer pending = new RecordBuffer();
+    private long appendedVersion;
+    private long recordCount;
+
+    // Guarded by writeLock: the file and the buffer being written
+    private FileChannel channel;
+    private RecordBuffer writing = new RecordBuffer();
+    private volatile long size;
+    private volatile long writtenVersion;
+    private volatile long syncedVersion;
+    private volatile long syncCount;
+
+    /**
+     * Creates a log that is forced to disk at every commit.
+     *
+     * @param file the log file, created if it does not exist
+     */
+    public WriteAheadLog(Path file) {
+        this(file, SyncPolicy.ALWAYS);
+    }
+
+    /**
+     * Creates a log with a sync policy and the default sync interval.
+     *
+     * @param file       the log file, created if it does not exist
+     * @param syncPolicy when logged changes are forced to disk
+     */
+    public WriteAheadLog(Path file, SyncPolicy syncPolicy) {
+        this(file, syncPolicy, DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Creates a log. The file is not opened until {@link #recover(Path, int)}.
+     *
+     * @param file               the log file, created if it does not exist
+     * @param syncPolicy         when logged changes are forced to disk
+     * @param syncIntervalMillis the interval between forces for {@link SyncPolicy#INTERVAL}
+     * @throws IllegalArgumentException if file or syncPolicy is null, or the interval is not positive
+     */
+    public WriteAheadLog(Path file, SyncPolicy syncPolicy, long syncIntervalMillis) {
+        if (file == null) {
+            throw new IllegalArgumentException("Log file cannot be null");
+        }
+        if (syncPolicy == null) {
+            throw new IllegalArgumentException("Sync policy cannot be null");
+        }
+        if (syncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive");
+        }
+        this.file = file;
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    /**
+     * Recovers a single-threaded system from a snapshot file and this log.
+     *
+     * @param snapshotFile the latest snapshot, or a file that does not exist to start empty
+     * @return the recovered system, which logs every further change here
+     * @throws IOException if a file cannot be read or written, or they do not fit together
+     * @see #recover(Path, int)
+     */
+    public GradingSystem recover(Path snapshotFile) throws IOException {
+        return recover(snapshotFile, 0);
+    }
+
+    /**
+     * Recovers a system from a snapshot file and this log, and starts logging to it.
+     * <p>
+     * The snapshot is loaded if it exists, then every logged change newer than the
+     * snapshot is replayed on top of it. Torn or corrupt records at the end of the log,
+     * left by a crash in the middle of a write, are discarded.
+     *
+     * @param snapshotFile the latest snapshot, or a file that does not exist to start empty
+     * @param lockStripes  the number of lock stripes, as for {@link GradingSystem#GradingSystem(int)}
+     * @return the recovered system, which logs every further change here
+     * @throws IOException if a file cannot be read or written, the snapshot is newer than
+     *                     the log allows, or the log does not continue the snapshot
+     * @throws IllegalStateException if this log has already been recovered or is closed
+     * @throws IllegalArgumentException if lockStripes is negative
+     */
+    public GradingSystem recover(Path snapshotFile, int lockStripes) throws IOException {
+        return recover(snapshotFile, lockStripes, GradingScale.STANDARD);
+    }
+
+    /**
+     * Recovers a system from a snapshot file and this log, as {@link #recover(Path, int)}
+     * does, with a default grading scale for when there is no snapshot yet. A snapshot
+     * records the default scale of the system it was taken from, which takes precedence.
+     *
+     * @param snapshotFile the latest snapshot, or a file that does not exist to start empty
+     * @param lockStripes  the number of lock stripes, as for {@link GradingSystem#GradingSystem(int)}
+     * @param gradingScale the default grading scale of a system started empty
+     * @return the recovered system, which logs every further change here
+     * @throws IOException if a file cannot be read or written, the snapshot is newer than
+     *                     the log allows, or the log does not continue the snapshot
+     * @throws IllegalStateException if this log has already been recovered or is closed
+     * @throws IllegalArgumentException if lockStripes is negative or gradingScale is null
+     */
+    public GradingSystem recover(Path snapshotFile, int lockStripes, GradingScale gradingScale) throws IOException {
+        return recover(snapshotFile, lockStripes, gradingScale, GradeStorage.HEAP);
+    }
+
+    /**
+     * Recovers a system from a snapshot file and this log, as
+     * {@link #recover(Path, int, GradingScale)} does, into a system that keeps its
+     * per-grade data where chosen.
+     *
+     * @param snapshotFile the latest snapshot, or a file that does not exist to start empty
+     * @param lockStripes  the number of lock stripes, as for {@link GradingSystem#GradingSystem(int)}
+     * @param gradingScale the default grading scale of a system started empty
+     * @param gradeStorage where the recovered system allocates grade rows and course grade indexes
+     * @return the recovered system, which logs every further change here
+     * @throws IOException if a file cannot be read or written, the snapshot is newer than
+     *                     the log allows, or the log does not continue the snapshot
+     * @throws IllegalStateException if this log has already been recovered or is closed
+     * @throws IllegalArgumentException if lockStripes is negative, or gradingScale or
+     *                                  gradeStorage is null
+     */
+    public synchronized GradingSystem recover(Path snapshotFile, int lockStripes, GradingScale gradingScale,
+                                              GradeStorage gradeStorage) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        if (gradingSystem != null) {
+            throw new IllegalStateException("Write-ahead log has already been recovered");
+        }
+        if (gradingScale == null) {
+            throw new IllegalArgumentException("Grading scale cannot be null");
+        }
+        GradingSystem recovered = snapshotFile != null && Files.exists(snapshotFile)
+                ? SnapshotFile.read(snapshotFile, lockStripes, gradeStorage)
+                : new GradingSystem(lockStripes, gradingScale, gradeStorage);
+
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long end = replay(opened, recovered);
+            if (end < opened.size()) {
+                opened.truncate(end);
+                opened.force(true);
+            }
+            opened.position(end);
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+
+        channel = opened;
+        size = opened.position();
+        appendedVersion = recovered.version();
+        writtenVersion = appendedVersion;
+        syncedVersion = appendedVersion;
+        if (syncPolicy == SyncPolicy.INTERVAL) {
+            syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "grade-log-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        recovered.attachLog(this);
+        gradingSystem = recovered;
+        return recovered;
+    }
+
+    /**
+     * Writes every logged change and forces it to disk.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public void sync() throws IOException {
+        synchronized (writeLock) {
+            if (channel != null && channel.isOpen()) {
+                flush(true);
+            }
+        }
+    }
+
+    /**
+     * Syncs and closes the log. Changes to the recovered system fail afterwards.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        synchronized (writeLock) {
+            if (channel != null) {
+                try {
+                    flush(true);
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the sync policy.
+     *
+     * @return when logged changes are forced to disk
+     */
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * Gets the number of records logged since the log was recovered.
+     *
+     * @return the number of records appended
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the number of times the log has been forced to disk since it was recovered.
+     * With concurrent writers this is lower than {@link #getRecordCount()}.
+     *
+     * @return the number of forces
+     */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * Gets the size of the log file, including the records written since the last sync
+     * but not those still waiting to be written.
+     *
+     * @return the size of the log file in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the log file.
+     *
+     * @return the path of the log file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    synchronized long logAddStudent(Student student) {
+        RecordBuffer buffer = begin(ADD_STUDENT, 1);
+        buffer.putString(student.getStudentId());
+        buffer.putString(student.getName());
+        buffer.putString(student.getEmail());
+        return end(buffer);
+    }
+
+    synchronized long logRemoveStudent(String studentId) {
+        RecordBuffer buffer = begin(REMOVE_STUDENT, 1);
+        buffer.putString(studentId);
+        return end(buffer);
+    }
+
+    synchronized long logAddCourse(Course course) {
+        GradingScale scale = course.getGradingScale();
+        RecordBuffer buffer = begin(scale != null ? ADD_SCALED_COURSE : ADD_COURSE, 1);
+        buffer.putString(course.getCourseCode());
+        buffer.putString(course.getCourseName());
+        buffer.putInt(course.getCredits());
+        if (scale != null) {
+            buffer.putString(scale.getName());
+            buffer.putString(scale.toSpec());
+        }
+        return end(buffer);
+    }
+
+    synchronized long logRemoveCourse(String courseCode) {
+        RecordBuffer buffer = begin(REMOVE_COURSE, 1);
+        buffer.putString(courseCode);
+        return end(buffer);
+    }
+
+    synchronized long logGrade(String studentId, String courseCode, double gradeValue) {
+        RecordBuffer buffer = begin(RECORD_GRADE, 1);
+        buffer.putString(studentId);
+        buffer.putString(courseCode);
+        buffer.putDouble(gradeValue);
+        return end(buffer);
+    }
+
+    synchronized long logGrades(String[] studentIds, String[] courseCodes, double[] gradeValues, int count) {
+        RecordBuffer buffer = begin(RECORD_GRADES, count);
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putString(studentIds[i]);
+            buffer.putString(courseCodes[i]);
+            buffer.putDouble(gradeValues[i]);
+        }
+        return end(buffer);
+    }
+
+    /**
+     * Waits until a logged change is as durable as the sync policy promises, writing
+     * it, and everything logged before it, if no other thread is doing so already.
+     *
+     * @param version the version returned when the change was logged
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    void commit(long version) {
+        boolean force = syncPolicy == SyncPolicy.ALWAYS;
+        if (version <= (force ? syncedVersion : writtenVersion)) {
+            return;
+        }
+        synchronized (writeLock) {
+            // Whoever held the lock before us may have written our record along with theirs
+            if (version <= (force ? syncedVersion : writtenVersion)) {
+                return;
+            }
+            try {
+                flush(force);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write to the write-ahead log", e);
+            }
+        }
+    }
+
+    /**
+     * Starts a record in the pending buffer. The caller holds this log's monitor until
+     * it has finished the record with {@link #end}, so records are never interleaved.
+     */
+    private RecordBuffer begin(byte type, int changes) {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        appendedVersion += changes;
+        RecordBuffer buffer = pending;
+        buffer.startRecord(type, appendedVersion);
+        return buffer;
+    }
+
+    private long end(RecordBuffer buffer) {
+        buffer.endRecord();
+        recordCount++;
+        return appendedVersion;
+    }
+
+    /**
+     * Writes the pending records, and forces them if asked. The caller holds writeLock.
+     */
+    private void flush(boolean force) throws IOException {
+        RecordBuffer batch;
+        long batchVersion;
+        synchronized (this) {
+            batch = pending;
+            pending = writing;
+            batchVersion = appendedVersion;
+        }
+        writing = batch;
+        ByteBuffer bytes = batch.contents();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        size = channel.position();
+        batch.clear();
+        writtenVersion = batchVersion;
+        if (force && syncedVersion < batchVersion) {
+            channel.force(false);
+            syncCount++;
+            syncedVersion = batchVersion;
+        }
+    }
+
+    /**
+     * Gets the system this log was recovered into.
+     *
+     * @return the system, or null if the log has not been recovered
+     */
+    synchronized GradingSystem gradingSystem() {
+        return gradingSystem;
+    }
+
+    /**
+     * Writes the pending records and returns the end of the file. Every record before
+     * that position is contained in any snapshot taken afterwards.
+     *
+     * @return the file position after the last written record
+     * @throws IOException if the log cannot be written
+     */
+    long mark() throws IOException {
+        synchronized (writeLock) {
+            requireOpen();
+            flush(false);
+            return channel.position();
+        }
+    }
+
+    /**
+     * Drops the records before a position returned by {@link #mark()}, once a snapshot
+     * taken after the mark is safely on disk.
+     * <p>
+     * The records after the position, typically only those logged while the snapshot
+     * was being written, are copied to a new file that atomically replaces the log.
+     * Commits wait for the copy; appending carries on.
+     *
+     * @param position the position returned by {@link #mark()}
+     * @return the number of bytes reclaimed
+     * @throws IOException if the log cannot be rewritten
+     */
+    long truncateBefore(long position) throws IOException {
+        synchronized (writeLock) {
+            requireOpen();
+            flush(false);
+            if (position <= HEADER_SIZE) {
+                return 0;
+            }
+            long end = channel.position();
+            if (position > end) {
+                throw new IllegalArgumentException("Position " + position + " is past the end of the log");
+            }
+            Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(),
+                    file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+                    while (header.hasRemaining()) {
+                        out.write(header);
+                    }
+                    for (long copied = position; copied < end; ) {
+                        copied += channel.transferTo(copied, end - copied, out);
+                    }
+                    out.force(true);
+                }
+                try {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            FileChannel replaced = channel;
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            size = channel.position();
+            syncedVersion = writtenVersion;
+            replaced.close();
+            return position - HEADER_SIZE;
+        }
+    }
+
+    private void requireOpen() {
+        if (channel == null || !channel.isOpen()) {
+            throw new IllegalStateException("Write-ahead log is not open");
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // The next commit or sync reports the failure
+        }
+    }
+
+    /**
+     * Replays the records newer than the system's version into it.
+     *
+     * @return the file position after the last good record
+     */
+    private static long replay(FileChannel channel, GradingSystem gradingSystem) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            // New, or torn while writing the header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            return HEADER_SIZE;
+        }
+
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16);
+        ByteBuffer header = ByteBuffer.wrap(in.readNBytes(HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a grading system write-ahead log: " + channel);
+        }
+        int formatVersion = header.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported write-ahead log format version " + formatVersion);
+        }
+
+        long position = HEADER_SIZE;
+        long size = channel.size();
+        CRC32 crc = new CRC32();
+        byte[] lengthBytes = new byte[Integer.BYTES];
+        while (size - position >= Integer.BYTES * 2) {
+            in.readNBytes(lengthBytes, 0, Integer.BYTES);
+            int length = ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            if (length <= 0 || length > size - position - Integer.BYTES * 2) {
+                break;
+            }
+            byte[] body = in.readNBytes(length + Integer.BYTES);
+            if (body.length < length + Integer.BYTES) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+            crc.reset();
+            crc.update(body, 0, length);
+            if (record.getInt(length) != (int) crc.getValue()) {
+                break;
+            }
+            record.limit(length);
+            try {
+                apply(record, gradingSystem);
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                throw new IOException("Write-ahead log does not match the snapshot at offset " + position
+                        + ": " + e.getMessage(), e);
+            }
+            position += Integer.BYTES + length + Integer.BYTES;
+        }
+        return position;
+    }
+
+    /**
+     * Applies one record, unless the system already contains it.
+     */
+    private static void apply(ByteBuffer record, GradingSystem gradingSystem) throws IOException {
+        byte type = record.get();
+        long version = record.getLong();
+        long current = gradingSystem.version();
+        if (version <= current) {
+            return;
+        }
+        // The first record replayed must continue exactly where the snapshot left off
+        int changes = type == RECORD_GRADES ? record.getInt(record.position()) : 1;
+        if (version - changes != current) {
+            throw new IOException("Write-ahead log does not continue the snapshot: expected version "
+                    + (current + changes) + " but found " + version);
+        }
+        switch (type) {
+            case ADD_STUDENT:
+                gradingSystem.addStudent(new Student(getString(record), getString(record), getString(record)));
+                break;
+            case REMOVE_STUDENT:
+                require(gradingSystem.removeStudent(getString(record)), "student was not found");
+                break;
+            case ADD_COURSE:
+                gradingSystem.addCourse(new Course(getString(record), getString(record), record.getInt()));
+                break;
+            case ADD_SCALED_COURSE:
+                gradingSystem.addCourse(new Course(getString(record), getString(record), record.getInt(),
+                        GradingScale.parse(getString(record), getString(record))));
+                break;
+            case REMOVE_COURSE:
+                require(gradingSystem.removeCourse(getString(record)), "course was not found");
+                break;
+            case RECORD_GRADE:
+                gradingSystem.recordGrade(getString(record), getString(record), record.getDouble());
+                break;
+            case RECORD_GRADES:
+                record.getInt();
+                List<GradeRecord> batch = new ArrayList<>(changes);
+                for (int i = 0; i < changes; i++) {
+                    batch.add(new GradeRecord(getString(record), getString(record), record.getDouble()));
+                }
+                BatchResult result = gradingSystem.recordGrades(batch);
+                require(result.isSuccessful(), result.getFailedCount() + " grades could not be recorded");
+                break;
+            default:
+                throw new IOException("Write-ahead log has an unknown record type " + type);
+        }
+    }
+
+    private static void require(boolean applied, String message) {
+        if (!applied) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0 || length > record.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(record.array(), record.arrayOffset() + record.position(), length,
+                StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    /**
+     * A growable little-endian buffer of framed records.
+     */
+    private static final class RecordBuffer {
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private int recordStart;
+
+        void startRecord(byte type, long version) {
+            recordStart = buffer.position();
+            ensure(Integer.BYTES + 1 + Long.BYTES);
+            buffer.putInt(0);
+            buffer.put(type);
+            buffer.putLong(version);
+        }
+
+        void endRecord() {
+            int bodyStart = recordStart + Integer.BYTES;
+            int length = buffer.position() - bodyStart;
+            buffer.putInt(recordStart, length);
+            crc.reset();
+            crc.update(buffer.array(), bodyStart, length);
+            putInt((int) crc.getValue());
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        ByteBuffer contents() {
+            return ByteBuffer.wrap(buffer.array(), 0, buffer.position());
+        }
+
+        void clear() {
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+    }
+}
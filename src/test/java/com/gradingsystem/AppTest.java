@@ -13,4 +13,11 @@ public class AppTest {
         // This test ensures main method runs without throwing exceptions
         assertDoesNotThrow(() -> App.main(new String[]{}));
     }
+
+    @Test
+    public void testInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> App.main(new String[]{"--verbose", "true"}));
+        assertThrows(IllegalArgumentException.class, () -> App.main(new String[]{"--serve"}));
+        assertThrows(IllegalArgumentException.class, () -> App.main(new String[]{"--serve", "http"}));
+    }
 }
@@ -0,0 +1,118 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for the Checkpointer class.
+ */
+public class CheckpointerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotFile;
+    private Path logFile;
+    private WriteAheadLog log;
+    private GradingSystem gradingSystem;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        snapshotFile = tempDir.resolve("grades.snapshot");
+        logFile = tempDir.resolve("grades.wal");
+        log = new WriteAheadLog(logFile);
+        gradingSystem = log.recover(snapshotFile, 4);
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+        for (int i = 0; i < 50; i++) {
+            gradingSystem.addStudent(new Student("S" + i, "Student " + i, "s" + i + "@example.com"));
+            gradingSystem.recordGrade("S" + i, "CS101", i * 2);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        log.close();
+    }
+
+    private double recoveredAverage(String courseCode) throws IOException {
+        try (WriteAheadLog reopened = new WriteAheadLog(logFile)) {
+            return reopened.recover(snapshotFile).calculateCourseAverage(courseCode);
+        }
+    }
+
+    @Test
+    @DisplayName("Should save a snapshot and shrink the log to the changes made after it")
+    public void testCheckpoint() throws IOException {
+        long sizeBefore = log.getSize();
+        Checkpointer checkpointer = new Checkpointer(log, snapshotFile, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        checkpointer.checkpoint();
+
+        assertTrue(Files.exists(snapshotFile));
+        assertTrue(log.getSize() < sizeBefore);
+        assertEquals(Files.size(logFile), log.getSize());
+        assertEquals(1, checkpointer.getCheckpointCount());
+        assertEquals(gradingSystem.snapshot().getVersion(), checkpointer.getLastCheckpointVersion());
+        assertEquals(sizeBefore - log.getSize(), checkpointer.getLastBytesReclaimed());
+        assertEquals(checkpointer.getLastBytesReclaimed(), checkpointer.getTotalBytesReclaimed());
+        assertTrue(checkpointer.getLastDurationMillis() >= 0);
+
+        gradingSystem.recordGrade("S1", "MATH101", 90.0);
+        gradingSystem.recordGrade("S2", "MATH101", 70.0);
+        assertEquals(80.0, recoveredAverage("MATH101"), 0.0);
+        assertEquals(gradingSystem.calculateCourseAverage("CS101"), recoveredAverage("CS101"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should recover the same state whether or not a checkpoint was taken")
+    public void testRepeatedCheckpoints() throws IOException {
+        Checkpointer checkpointer = new Checkpointer(log, snapshotFile, Long.MAX_VALUE, Long.MAX_VALUE);
+        for (int round = 0; round < 3; round++) {
+            for (int i = round; i < 50; i++) {
+                gradingSystem.recordGrade("S" + i, "MATH101", (i + round * 7) % 101);
+            }
+            checkpointer.checkpoint();
+            gradingSystem.removeStudent("S" + round);
+        }
+
+        assertEquals(3, checkpointer.getCheckpointCount());
+        assertEquals(gradingSystem.calculateCourseAverage("MATH101"), recoveredAverage("MATH101"), 0.0);
+        assertEquals(gradingSystem.calculateCourseAverage("CS101"), recoveredAverage("CS101"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should checkpoint in the background once the log grows past its limit")
+    public void testBackgroundCheckpointBySize() throws Exception {
+        try (Checkpointer checkpointer = new Checkpointer(log, snapshotFile, 1024, Long.MAX_VALUE)) {
+            checkpointer.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (checkpointer.getCheckpointCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertTrue(checkpointer.getCheckpointCount() > 0);
+            assertEquals(0, checkpointer.getFailureCount());
+            assertNull(checkpointer.getLastFailure());
+        }
+        assertEquals(gradingSystem.calculateCourseAverage("CS101"), recoveredAverage("CS101"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid arguments")
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(null, snapshotFile, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(log, null, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(log, snapshotFile, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(log, snapshotFile, 1, 0));
+        WriteAheadLog unrecovered = new WriteAheadLog(tempDir.resolve("other.wal"));
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(unrecovered, snapshotFile, 1, 1));
+    }
+}
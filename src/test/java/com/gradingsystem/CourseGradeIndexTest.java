@@ -0,0 +1,147 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for the CourseGradeIndex class.
+ */
+public class CourseGradeIndexTest {
+
+    @Test
+    @DisplayName("Should match a sorted list through random inserts, removals and merges")
+    public void testMatchesSortedList() {
+        assertMatchesSortedList(new CourseGradeIndex());
+    }
+
+    @Test
+    @DisplayName("Should match a sorted list with its nodes stored off the heap")
+    public void testOffHeapMatchesSortedList() {
+        CourseGradeIndex index = CourseGradeIndex.create(GradeStorage.OFF_HEAP);
+        assertTrue(index instanceof CourseGradeIndex.OffHeap);
+        assertMatchesSortedList(index);
+    }
+
+    private void assertMatchesSortedList(CourseGradeIndex index) {
+        Map<Integer, Double> grades = new HashMap<>();
+        Map<Integer, Integer> nodes = new HashMap<>();
+        Random random = new Random(29);
+
+        for (int step = 0; step < 20000; step++) {
+            int row = random.nextInt(400);
+            Double previous = grades.remove(row);
+            if (previous != null) {
+                index.remove(nodes.remove(row));
+            }
+            if (previous == null || random.nextBoolean()) {
+                // Few distinct values, so ties are common
+                double value = random.nextInt(21) * 5.0;
+                nodes.put(row, index.insert(row, value));
+                grades.put(row, value);
+            }
+            if (random.nextInt(50) == 0) {
+                // Merge the pending grades, so removals hit both pending and merged nodes
+                index.min();
+            }
+
+            if (step % 500 == 0) {
+                List<Integer> expected = new ArrayList<>(grades.keySet());
+                expected.sort(Comparator.<Integer>comparingDouble(grades::get).thenComparingInt(r -> r));
+
+                assertEquals(expected.size(), index.size());
+                assertEquals(grades.get(expected.get(0)), index.min(), 0.0);
+                assertEquals(grades.get(expected.get(expected.size() - 1)), index.max(), 0.0);
+                int k = random.nextInt(expected.size() + 5);
+                int[] lowest = index.lowest(k);
+                int[] highest = index.highest(k);
+                assertEquals(Math.min(k, expected.size()), lowest.length);
+                for (int i = 0; i < lowest.length; i++) {
+                    assertEquals(expected.get(i), lowest[i]);
+                    assertEquals(grades.get(expected.get(expected.size() - 1 - i)), grades.get(highest[i]), 0.0);
+                }
+
+                double lo = random.nextInt(22) * 5.0 - 2.5;
+                double hi = lo + random.nextInt(10) * 5.0;
+                List<Integer> inRange = new ArrayList<>();
+                for (int r : expected) {
+                    if (grades.get(r) >= lo && grades.get(r) <= hi) {
+                        inRange.add(r);
+                    }
+                }
+                int[] between = index.between(lo, hi);
+                assertEquals(inRange.size(), between.length);
+                for (int i = 0; i < between.length; i++) {
+                    assertEquals(inRange.get(i), between[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should include both bounds and handle an empty index")
+    public void testBoundsAndEmpty() {
+        CourseGradeIndex index = new CourseGradeIndex();
+        assertEquals(0, index.size());
+        assertEquals(0.0, index.min(), 0.0);
+        assertEquals(0.0, index.max(), 0.0);
+        assertEquals(0, index.between(0.0, 100.0).length);
+        assertEquals(0, index.highest(3).length);
+
+        index.insert(7, 60.0);
+        index.insert(3, 75.0);
+        index.insert(9, 90.0);
+        assertArrayEquals(new int[] {7, 3}, index.between(60.0, 75.0));
+        assertArrayEquals(new int[0], index.between(75.0, 60.0));
+        assertArrayEquals(new int[] {9, 3}, index.highest(2));
+        assertArrayEquals(new int[] {7, 3, 9}, index.lowest(10));
+
+        index.clear();
+        assertEquals(0, index.size());
+        index.insert(1, 50.0);
+        assertArrayEquals(new int[] {1}, index.lowest(1));
+    }
+
+    @Test
+    @DisplayName("Should compact a mostly removed index and keep working through the new nodes")
+    public void testCompact() {
+        for (CourseGradeIndex index : List.of(new CourseGradeIndex(), CourseGradeIndex.create(GradeStorage.OFF_HEAP))) {
+            Map<Integer, Integer> nodes = new HashMap<>();
+            for (int row = 0; row < 1000; row++) {
+                nodes.put(row, index.insert(row, row % 100));
+            }
+            assertFalse(index.compact((row, node) -> fail("Nothing should move")));
+            index.min();
+            for (int row = 0; row < 1000; row++) {
+                if (row % 10 != 0) {
+                    index.remove(nodes.remove(row));
+                }
+            }
+            // Leave a few grades pending, so compaction merges them too
+            for (int row = 1000; row < 1005; row++) {
+                nodes.put(row, index.insert(row, 50.0));
+            }
+            long before = index.allocatedBytes();
+
+            assertTrue(index.compact(nodes::put));
+            assertTrue(index.allocatedBytes() < before / 4);
+            assertEquals(105, index.size());
+            assertFalse(index.compact((row, node) -> fail("Nothing should move")));
+
+            index.remove(nodes.remove(1000));
+            index.remove(nodes.remove(0));
+            nodes.put(2000, index.insert(2000, 99.5));
+            assertEquals(104, index.size());
+            assertEquals(0.0, index.min(), 0.0);
+            assertArrayEquals(new int[] {2000, 990}, index.highest(2));
+            assertArrayEquals(new int[] {100, 200}, index.lowest(2));
+            assertEquals(14, index.between(50.0, 50.0).length);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Map;
+
+/**
+ * Unit tests for the CourseStatistics class.
+ */
+public class CourseStatisticsTest {
+
+    @Test
+    @DisplayName("Should derive mean, variance and standard deviation from running sums")
+    public void testDerivedValues() {
+        // Grades 80, 90 and 100
+        CourseStatistics statistics = new CourseStatistics("CS101", 3, 270.0, 24500.0,
+                80.0, 100.0, new int[]{2, 1, 0, 0, 0}, GradingScale.STANDARD);
+
+        assertEquals("CS101", statistics.getCourseCode());
+        assertEquals(3, statistics.getCount());
+        assertEquals(90.0, statistics.getMean(), 0.001);
+        assertEquals(200.0 / 3.0, statistics.getVariance(), 0.001);
+        assertEquals(Math.sqrt(200.0 / 3.0), statistics.getStandardDeviation(), 0.001);
+        assertEquals(80.0, statistics.getMin(), 0.001);
+        assertEquals(100.0, statistics.getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should report zeros for a course without grades")
+    public void testEmptyStatistics() {
+        CourseStatistics statistics = new CourseStatistics("CS101", 0, 0.0, 0.0,
+                55.0, 77.0, new int[5], GradingScale.STANDARD);
+
+        assertEquals(0, statistics.getCount());
+        assertEquals(0.0, statistics.getMean(), 0.001);
+        assertEquals(0.0, statistics.getVariance(), 0.001);
+        assertEquals(0.0, statistics.getMin(), 0.001);
+        assertEquals(0.0, statistics.getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should never report a negative variance")
+    public void testVarianceNotNegative() {
+        double value = 0.1 + 0.2;
+        CourseStatistics statistics = new CourseStatistics("CS101", 3, 3 * value, 3 * value * value * 0.999999999,
+                value, value, new int[]{0, 0, 0, 0, 3}, GradingScale.STANDARD);
+
+        assertEquals(0.0, statistics.getVariance(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should expose the letter grade histogram")
+    public void testLetterDistribution() {
+        CourseStatistics statistics = new CourseStatistics("CS101", 6, 450.0, 35000.0,
+                50.0, 95.0, new int[]{1, 2, 0, 1, 2}, GradingScale.STANDARD);
+
+        assertEquals(2, statistics.getLetterCount("B"));
+        assertEquals(0, statistics.getLetterCount("C"));
+
+        Map<String, Integer> distribution = statistics.getLetterDistribution();
+        assertArrayEquals(new String[]{"A", "B", "C", "D", "F"}, distribution.keySet().toArray());
+        assertEquals(2, distribution.get("F"));
+    }
+
+    @Test
+    @DisplayName("Should throw exception for unknown letter grade")
+    public void testUnknownLetterGrade() {
+        CourseStatistics statistics = new CourseStatistics("CS101", 0, 0.0, 0.0, 0.0, 0.0, new int[5],
+                GradingScale.STANDARD);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> statistics.getLetterCount("E"));
+
+        assertEquals("Unknown letter grade: E", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should not be affected by changes to the source histogram")
+    public void testHistogramIsCopied() {
+        int[] letterCounts = {1, 0, 0, 0, 0};
+        CourseStatistics statistics = new CourseStatistics("CS101", 1, 95.0, 9025.0, 95.0, 95.0, letterCounts,
+                GradingScale.STANDARD);
+
+        letterCounts[0] = 7;
+
+        assertEquals(1, statistics.getLetterCount("A"));
+    }
+}
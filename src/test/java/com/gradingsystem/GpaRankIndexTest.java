@@ -0,0 +1,253 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Unit tests for the GpaRankIndex class.
+ */
+public class GpaRankIndexTest {
+
+    @Test
+    @DisplayName("Should match a sorted list through random updates")
+    public void testMatchesSortedList() {
+        Published published = new Published();
+        GpaRankIndex index = published.index;
+        Random random = new Random(17);
+        int students = 500;
+        double[] gpas = new double[students];
+        boolean[] ranked = new boolean[students];
+
+        for (int step = 0; step < 20000; step++) {
+            int handle = random.nextInt(students);
+            boolean isRanked = random.nextInt(10) > 0;
+            // Few distinct values, so ties are common
+            double gpa = random.nextInt(17) / 4.0;
+            published.update(handle, gpa, isRanked);
+            gpas[handle] = gpa;
+            ranked[handle] = isRanked;
+
+            if (step % 500 == 0) {
+                List<Integer> expected = new ArrayList<>();
+                for (int h = 0; h < students; h++) {
+                    if (ranked[h]) {
+                        expected.add(h);
+                    }
+                }
+                expected.sort(Comparator.<Integer>comparingDouble(h -> -gpas[h]).thenComparingInt(h -> h));
+
+                assertEquals(expected.size(), index.size());
+                int[] top = index.top(expected.size() + 10);
+                assertEquals(expected.size(), top.length);
+                for (int i = 0; i < top.length; i++) {
+                    assertEquals(expected.get(i), top[i]);
+                }
+                for (int h = 0; h < students; h++) {
+                    int above = 0;
+                    for (int other : expected) {
+                        if (gpas[other] > gpas[h]) {
+                            above++;
+                        }
+                    }
+                    assertEquals(ranked[h] ? above + 1 : 0, index.rankOf(h));
+                    assertEquals(ranked[h] ? 100.0 * (expected.size() - above) / expected.size() : 0.0,
+                            index.percentileOf(h), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should list GPA ranges in order, whole or in batches")
+    public void testRanges() {
+        Published published = new Published();
+        GpaRankIndex index = published.index;
+        Random random = new Random(23);
+        int students = 300;
+        double[] gpas = new double[students];
+        boolean[] ranked = new boolean[students];
+        for (int handle = 0; handle < students; handle++) {
+            ranked[handle] = random.nextInt(8) > 0;
+            gpas[handle] = random.nextInt(17) / 4.0;
+            published.update(handle, gpas[handle], ranked[handle]);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            double lo = random.nextInt(19) / 4.0 - 0.25;
+            double hi = random.nextInt(19) / 4.0 - 0.25;
+            List<Integer> expected = new ArrayList<>();
+            for (int h = 0; h < students; h++) {
+                if (ranked[h] && gpas[h] >= lo && gpas[h] <= hi) {
+                    expected.add(h);
+                }
+            }
+            expected.sort(Comparator.<Integer>comparingDouble(h -> -gpas[h]).thenComparingInt(h -> h));
+
+            int[] whole = index.between(lo, hi);
+            assertEquals(expected.size(), whole.length);
+            for (int i = 0; i < whole.length; i++) {
+                assertEquals(expected.get(i), whole[i]);
+            }
+
+            int[] handles = new int[1 + random.nextInt(7)];
+            double[] batchGpas = new double[handles.length];
+            List<Integer> batched = new ArrayList<>();
+            int count = index.next(lo, hi, -1, 0.0, handles, batchGpas);
+            while (count > 0) {
+                for (int i = 0; i < count; i++) {
+                    batched.add(handles[i]);
+                    assertEquals(gpas[handles[i]], batchGpas[i], 0.0);
+                }
+                count = index.next(lo, hi, handles[count - 1], batchGpas[count - 1], handles, batchGpas);
+            }
+            assertEquals(expected, batched);
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume a batched range after the index changes")
+    public void testRangeResumesAfterChanges() {
+        Published published = new Published();
+        GpaRankIndex index = published.index;
+        for (int handle = 0; handle < 6; handle++) {
+            published.update(handle, 3.0, true);
+        }
+        int[] handles = new int[3];
+        double[] gpas = new double[3];
+        assertEquals(3, index.next(2.0, 4.0, -1, 0.0, handles, gpas));
+        assertArrayEquals(new int[] {0, 1, 2}, handles);
+
+        // Remove the last student returned and move one already returned below the cursor
+        published.update(2, 0.0, false);
+        published.update(0, 2.5, true);
+        assertEquals(3, index.next(2.0, 4.0, 2, 3.0, handles, gpas));
+        assertArrayEquals(new int[] {3, 4, 5}, handles);
+        assertEquals(1, index.next(2.0, 4.0, 5, 3.0, handles, gpas));
+        assertEquals(0, handles[0]);
+    }
+
+    @Test
+    @DisplayName("Should handle an empty index and unknown handles")
+    public void testEmpty() {
+        Published published = new Published();
+        GpaRankIndex index = published.index;
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.top(5).length);
+        assertEquals(0, index.rankOf(3));
+        assertEquals(0.0, index.percentileOf(-1), 0.0);
+        assertEquals(0, index.between(0.0, 4.0).length);
+
+        published.update(1000, 3.5, true);
+        published.update(2000, 2.0, false);
+        assertEquals(1, index.size());
+        assertEquals(1, index.rankOf(1000));
+        assertArrayEquals(new int[] {1000}, index.top(1));
+    }
+
+    @Test
+    @DisplayName("Should apply changes marked only once per query, however often they were marked")
+    public void testChangesApplyAtQueryTime() {
+        Published published = new Published();
+        GpaRankIndex index = published.index;
+        published.update(0, 2.0, true);
+        published.update(1, 3.0, true);
+        assertArrayEquals(new int[] {1, 0}, index.top(2));
+
+        // Published but not yet marked: the index keeps the old order
+        published.gpas[0] = 4.0;
+        assertArrayEquals(new int[] {1, 0}, index.top(2));
+        for (int i = 0; i < 3; i++) {
+            index.markChanged(0);
+        }
+        assertArrayEquals(new int[] {0, 1}, index.top(2));
+        assertEquals(1, index.rankOf(0));
+
+        published.update(0, 0.0, false);
+        assertEquals(1, index.size());
+        assertEquals(0, index.rankOf(0));
+    }
+
+    @Test
+    @DisplayName("Should not lose changes marked by concurrent writers while the index grows")
+    public void testConcurrentMarks() throws Exception {
+        int writers = 4;
+        int studentsPerWriter = 3000;
+        double[] gpas = new double[writers * studentsPerWriter];
+        Arrays.fill(gpas, -1.0);
+        GpaRankIndex index = new GpaRankIndex(handle -> gpas[handle]);
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int first = w * studentsPerWriter;
+                results.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int step = 0; step < 20000; step++) {
+                        // Each writer owns its students, as each student's lock would ensure
+                        int handle = first + Math.min(step, random.nextInt(studentsPerWriter));
+                        gpas[handle] = random.nextInt(17) / 4.0;
+                        index.markChanged(handle);
+                    }
+                }));
+            }
+            results.add(pool.submit(() -> {
+                for (int query = 0; query < 2000; query++) {
+                    index.top(10);
+                }
+            }));
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int h = 0; h < gpas.length; h++) {
+            if (gpas[h] >= 0.0) {
+                expected.add(h);
+            }
+        }
+        expected.sort(Comparator.<Integer>comparingDouble(h -> -gpas[h]).thenComparingInt(h -> h));
+        int[] top = index.top(gpas.length);
+        assertEquals(expected.size(), top.length);
+        for (int i = 0; i < top.length; i++) {
+            assertEquals(expected.get(i), top[i]);
+        }
+    }
+
+    /**
+     * Stands in for the grading system's published GPAs, marking each change.
+     */
+    private static final class Published implements IntToDoubleFunction {
+        private double[] gpas = new double[0];
+        final GpaRankIndex index = new GpaRankIndex(this);
+
+        void update(int handle, double gpa, boolean isRanked) {
+            if (handle >= gpas.length) {
+                int length = gpas.length;
+                gpas = Arrays.copyOf(gpas, handle + 1);
+                Arrays.fill(gpas, length, gpas.length, -1.0);
+            }
+            gpas[handle] = isRanked ? gpa : -1.0;
+            index.markChanged(handle);
+        }
+
+        @Override
+        public double applyAsDouble(int handle) {
+            return handle < gpas.length ? gpas[handle] : -1.0;
+        }
+    }
+}
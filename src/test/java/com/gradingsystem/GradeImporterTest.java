@@ -0,0 +1,185 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the GradeImporter class.
+ */
+public class GradeImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GradingSystem gradingSystem;
+
+    @BeforeEach
+    public void setUp() {
+        gradingSystem = new GradingSystem();
+        for (int i = 0; i < 10; i++) {
+            gradingSystem.addStudent(new Student("S00" + i, "Student " + i, "s" + i + "@example.com"));
+        }
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("grades.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should import a CSV file with a header")
+    public void testImportCsv() throws IOException {
+        Path file = write("student_id,course_code,grade\r\n"
+                + "S001,CS101,95\r\n"
+                + " S002 , \"math101\" , 85.5\r\n"
+                + "\r\n"
+                + "S001,MATH101,72.25\r\n");
+
+        ImportResult result = new GradeImporter(gradingSystem, 2).importGrades(file);
+
+        assertEquals(3, result.getRowCount());
+        assertEquals(3, result.getImportedCount());
+        assertEquals(0, result.getFailedCount());
+        assertTrue(result.getRowsPerSecond() > 0);
+        assertEquals(95.0, gradingSystem.calculateCourseAverage("CS101"), 0.0);
+        assertEquals(78.875, gradingSystem.calculateCourseAverage("MATH101"), 0.0);
+        assertEquals(1, gradingSystem.getGradesForStudent("S002").size());
+    }
+
+    @Test
+    @DisplayName("Should import a TSV file without a header")
+    public void testImportTsv() throws IOException {
+        Path file = write("S001\tCS101\t90\nS002\tCS101\t80");
+
+        ImportResult result = new GradeImporter(gradingSystem, 1).importGrades(file);
+
+        assertEquals(2, result.getImportedCount());
+        assertEquals(85.0, gradingSystem.calculateCourseAverage("CS101"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should report failed lines with their line numbers and keep going")
+    public void testReportsFailures() throws IOException {
+        Path file = write("studentId,courseCode,grade\n"
+                + "S999,CS101,80\n"
+                + "S001,NOPE,80\n"
+                + "S001,CS101,abc\n"
+                + "\n"
+                + "S001,CS101,101\n"
+                + "S001,CS101\n"
+                + "S001,CS101,88\n");
+
+        ImportResult result = new GradeImporter(gradingSystem, 2).importGrades(file);
+
+        assertEquals(6, result.getRowCount());
+        assertEquals(1, result.getImportedCount());
+        assertEquals(5, result.getFailedCount());
+        List<ImportResult.Failure> failures = result.getFailures();
+        assertEquals(2, failures.get(0).getLineNumber());
+        assertEquals("S999,CS101,80", failures.get(0).getLine());
+        assertEquals("Student with ID S999 not found", failures.get(0).getMessage());
+        assertEquals("Course with code NOPE not found", failures.get(1).getMessage());
+        assertEquals("Invalid grade value: abc", failures.get(2).getMessage());
+        assertEquals(6, failures.get(3).getLineNumber());
+        assertEquals("Grade value must be between 0.0 and 100.0", failures.get(3).getMessage());
+        assertEquals(7, failures.get(4).getLineNumber());
+        assertEquals("Expected 3 fields but found 2", failures.get(4).getMessage());
+        assertEquals(88.0, gradingSystem.calculateCourseAverage("CS101"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should give the same result with many small chunks on several threads")
+    public void testSmallChunksMatchSequentialRecording() throws IOException {
+        GradingSystem sequential = new GradingSystem();
+        for (Student student : gradingSystem.getAllStudents()) {
+            sequential.addStudent(student);
+        }
+        for (Course course : gradingSystem.getAllCourses()) {
+            sequential.addCourse(course);
+        }
+        Random random = new Random(11);
+        StringBuilder content = new StringBuilder("student,course,grade\n");
+        for (int i = 0; i < 2000; i++) {
+            String studentId = "S00" + random.nextInt(10);
+            String courseCode = random.nextBoolean() ? "CS101" : "MATH101";
+            String value = random.nextInt(10001) / 100.0 + "";
+            content.append(studentId).append(',').append(courseCode).append(',').append(value).append('\n');
+            sequential.recordGrade(studentId, courseCode, Double.parseDouble(value));
+        }
+        content.append("S999,CS101,50\n");
+        Path file = write(content.toString());
+
+        ImportResult result = new GradeImporter(gradingSystem, 4, 64).importGrades(file);
+
+        assertEquals(2001, result.getRowCount());
+        assertEquals(2000, result.getImportedCount());
+        assertEquals(2002, result.getFailures().get(0).getLineNumber());
+        for (Student student : sequential.getAllStudents()) {
+            assertEquals(sequential.calculateGPA(student.getStudentId()),
+                    gradingSystem.calculateGPA(student.getStudentId()), 0.0);
+        }
+        for (Course course : sequential.getAllCourses()) {
+            assertEquals(sequential.calculateCourseAverage(course.getCourseCode()),
+                    gradingSystem.calculateCourseAverage(course.getCourseCode()), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse grade values exactly as Double.parseDouble does")
+    public void testParseValue() {
+        Random random = new Random(5);
+        String[] samples = new String[1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Double.toString(random.nextInt(1_000_000) / Math.pow(10, random.nextInt(6)));
+        }
+        for (String sample : List.of(samples)) {
+            ByteBuffer buffer = ByteBuffer.wrap(sample.getBytes(StandardCharsets.US_ASCII));
+            assertEquals(Double.parseDouble(sample), GradeImporter.parseValue(buffer, 0, buffer.limit()), 0.0, sample);
+        }
+
+        assertEquals(85.0, parse("85."), 0.0);
+        assertEquals(0.5, parse(".5"), 0.0);
+        assertEquals(1e2, parse("1e2"), 0.0);
+        assertEquals(-5.0, parse("-5"), 0.0);
+        assertTrue(Double.isNaN(parse("")));
+        assertTrue(Double.isNaN(parse(".")));
+        assertTrue(Double.isNaN(parse("NaN")));
+        assertTrue(Double.isNaN(parse("Infinity")));
+        assertTrue(Double.isNaN(parse("12a")));
+    }
+
+    private double parse(String text) {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        return GradeImporter.parseValue(buffer, 0, buffer.limit());
+    }
+
+    @Test
+    @DisplayName("Should import nothing from an empty file")
+    public void testEmptyFile() throws IOException {
+        ImportResult result = new GradeImporter(gradingSystem).importGrades(write(""));
+
+        assertEquals(0, result.getRowCount());
+        assertEquals(0, result.getImportedCount());
+        assertTrue(result.getFailures().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid constructor arguments")
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GradeImporter(null));
+        assertThrows(IllegalArgumentException.class, () -> new GradeImporter(gradingSystem, 0));
+    }
+}
@@ -0,0 +1,43 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GradeRecord class.
+ */
+public class GradeRecordTest {
+
+    @Test
+    @DisplayName("Should keep fields as given without validation")
+    public void testFieldsAsGiven() {
+        GradeRecord record = new GradeRecord(" s001 ", null, 150.0);
+
+        assertEquals(" s001 ", record.getStudentId());
+        assertNull(record.getCourseCode());
+        assertEquals(150.0, record.getGradeValue(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should compare records by all fields")
+    public void testEquality() {
+        GradeRecord record = new GradeRecord("S001", "CS101", 85.0);
+
+        assertEquals(record, new GradeRecord("S001", "CS101", 85.0));
+        assertEquals(record.hashCode(), new GradeRecord("S001", "CS101", 85.0).hashCode());
+        assertNotEquals(record, new GradeRecord("S001", "CS101", 85.5));
+        assertNotEquals(record, new GradeRecord("S002", "CS101", 85.0));
+        assertNotEquals(record, null);
+    }
+
+    @Test
+    @DisplayName("Should describe the record in toString")
+    public void testToString() {
+        String text = new GradeRecord("S001", "CS101", 85.0).toString();
+
+        assertTrue(text.contains("S001"));
+        assertTrue(text.contains("CS101"));
+        assertTrue(text.contains("85.0"));
+    }
+}
@@ -0,0 +1,213 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the GradeStore class.
+ */
+public class GradeStoreTest {
+
+    private GradeStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new GradeStore();
+    }
+
+    @Test
+    @DisplayName("Should insert and find grades by student and course")
+    public void testInsertAndFind() {
+        int row = store.insert(3, 7, 85.5);
+
+        assertEquals(row, store.find(3, 7));
+        assertEquals(GradeStore.NONE, store.find(3, 8));
+        assertEquals(GradeStore.NONE, store.find(4, 7));
+        assertEquals(3, store.student(row));
+        assertEquals(7, store.course(row));
+        assertEquals(85.5, store.value(row), 0.0);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should round-trip grade values exactly")
+    public void testValuesRoundTripExactly() {
+        double[] values = {0.0, 100.0, 85.3, 72.25, 87.125, 1.0 / 3.0, 99.99, 59.999};
+        int[] rows = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = store.insert(i, 0, values[i]);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToLongBits(values[i]), Double.doubleToLongBits(store.value(rows[i])));
+        }
+
+        store.setValue(rows[0], 2.0 / 3.0);
+        store.setValue(rows[4], 64.5);
+        assertEquals(2.0 / 3.0, store.value(rows[0]), 0.0);
+        assertEquals(64.5, store.value(rows[4]), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should keep per-student and per-course lists in insertion order")
+    public void testListsInInsertionOrder() {
+        store.insert(0, 0, 90.0);
+        store.insert(1, 0, 80.0);
+        store.insert(0, 1, 70.0);
+        store.insert(0, 2, 60.0);
+
+        assertEquals(List.of(0, 1, 2), coursesOfStudent(0));
+        assertEquals(List.of(0, 1), studentsOfCourse(0));
+        assertEquals(3, store.countOfStudent(0));
+        assertEquals(2, store.countOfCourse(0));
+        assertEquals(0, store.countOfStudent(5));
+        assertEquals(GradeStore.NONE, store.firstOfCourse(9));
+    }
+
+    @Test
+    @DisplayName("Should remove every grade of a student from both lists")
+    public void testRemoveStudent() {
+        store.insert(0, 0, 90.0);
+        store.insert(1, 0, 80.0);
+        store.insert(0, 1, 70.0);
+        store.insert(2, 0, 60.0);
+
+        List<Integer> removedCourses = new ArrayList<>();
+        store.removeStudent(0, row -> removedCourses.add(store.course(row)));
+
+        assertEquals(List.of(0, 1), removedCourses);
+        assertEquals(List.of(1, 2), studentsOfCourse(0));
+        assertTrue(studentsOfCourse(1).isEmpty());
+        assertTrue(coursesOfStudent(0).isEmpty());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Should remove every grade of a course from both lists")
+    public void testRemoveCourse() {
+        store.insert(0, 0, 90.0);
+        store.insert(0, 1, 80.0);
+        store.insert(0, 2, 70.0);
+        store.insert(1, 1, 60.0);
+
+        List<Integer> removedStudents = new ArrayList<>();
+        store.removeCourse(1, row -> removedStudents.add(store.student(row)));
+
+        assertEquals(List.of(0, 1), removedStudents);
+        assertEquals(List.of(0, 2), coursesOfStudent(0));
+        assertTrue(coursesOfStudent(1).isEmpty());
+        assertEquals(GradeStore.NONE, store.find(0, 1));
+        assertEquals(2, store.size());
+
+        // The student list must still accept appends after its last row was unlinked
+        store.insert(0, 3, 50.0);
+        assertEquals(List.of(0, 2, 3), coursesOfStudent(0));
+    }
+
+    @Test
+    @DisplayName("Should reuse freed rows")
+    public void testFreedRowsReused() {
+        int first = store.insert(0, 0, 90.0);
+        store.insert(1, 0, 80.0);
+        store.removeStudent(0, row -> { });
+
+        assertEquals(first, store.insert(2, 1, 70.0));
+        List<Integer> rows = new ArrayList<>();
+        store.forEachRow(rows::add);
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    @DisplayName("Should grow across many chunks")
+    public void testManyRows() {
+        int students = 3000;
+        for (int student = 0; student < students; student++) {
+            for (int course = 0; course < 5; course++) {
+                store.insert(student, course, (student + course) % 101);
+            }
+        }
+
+        assertEquals(students * 5, store.size());
+        assertEquals(students, store.countOfCourse(4));
+        int row = store.find(2999, 4);
+        assertEquals((2999 + 4) % 101, store.value(row), 0.0);
+    }
+
+    private List<Integer> coursesOfStudent(int student) {
+        List<Integer> courses = new ArrayList<>();
+        for (int row = store.firstOfStudent(student); row != GradeStore.NONE; row = store.nextOfStudent(row)) {
+            courses.add(store.course(row));
+        }
+        return courses;
+    }
+
+    private List<Integer> studentsOfCourse(int course) {
+        List<Integer> students = new ArrayList<>();
+        for (int row = store.firstOfCourse(course); row != GradeStore.NONE; row = store.nextOfCourse(row)) {
+            students.add(store.student(row));
+        }
+        return students;
+    }
+
+    @Test
+    @DisplayName("Should keep snapshots unchanged by later writes")
+    public void testSnapshotIsolation() {
+        int kept = store.insert(0, 0, 90.0);
+        int replaced = store.insert(1, 0, 80.0);
+        store.insert(2, 1, 70.0);
+
+        GradeStore.Snapshot snapshot = store.snapshot();
+        store.setValue(replaced, 1.0 / 3.0);
+        store.removeCourse(1, row -> { });
+        for (int i = 0; i < 5000; i++) {
+            store.insert(10 + i, 2, 60.0);
+        }
+
+        assertEquals(3, snapshot.size());
+        List<String> rows = new ArrayList<>();
+        for (int row = snapshot.nextRow(0); row != GradeStore.NONE; row = snapshot.nextRow(row + 1)) {
+            rows.add(snapshot.student(row) + ":" + snapshot.course(row) + ":" + snapshot.value(row));
+        }
+        assertEquals(List.of("0:0:90.0", "1:0:80.0", "2:1:70.0"), rows);
+
+        assertEquals(90.0, store.value(kept), 0.0);
+        assertEquals(1.0 / 3.0, store.value(replaced), 0.0);
+        assertEquals(5002, store.size());
+    }
+
+    @Test
+    @DisplayName("Should store, remove and snapshot rows off the heap")
+    public void testOffHeapStore() {
+        GradeStore offHeap = new GradeStore(4, GradeStorage.OFF_HEAP);
+        for (int student = 0; student < 3000; student++) {
+            for (int course = 0; course < 3; course++) {
+                offHeap.insert(student, course, student % 2 == 0 ? (student + course) % 101 : student / 7.0);
+            }
+        }
+        int row = offHeap.find(2999, 2);
+        assertEquals(2999 / 7.0, offHeap.value(row), 0.0);
+        assertEquals(2998 % 101 + 2, offHeap.value(offHeap.find(2998, 2)), 0.0);
+        offHeap.setIndexNode(row, 42);
+        assertEquals(42, offHeap.indexNode(row));
+
+        GradeStore.Snapshot snapshot = offHeap.snapshot();
+        offHeap.setValue(row, 12.5);
+        offHeap.removeCourse(1, removed -> { });
+        offHeap.removeStudent(0, removed -> { });
+
+        assertEquals(9000, snapshot.size());
+        assertEquals(2999 / 7.0, snapshot.value(row), 0.0);
+        assertEquals(12.5, offHeap.value(row), 0.0);
+        assertEquals(5998, offHeap.size());
+        assertEquals(GradeStore.NONE, offHeap.find(5, 1));
+        assertEquals(2999, offHeap.countOfCourse(2));
+
+        int reused = offHeap.insert(5, 1, 77.7);
+        assertEquals(77.7, offHeap.value(reused), 0.0);
+        assertEquals(5, offHeap.student(reused));
+    }
+}
@@ -65,6 +65,17 @@ public class GradeTest {
         assertEquals("Grade value must be between 0.0 and 100.0", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Should throw exception for NaN and infinite grade values")
+    public void testCreateGradeWithNaNOrInfiniteValue() {
+        for (double value : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Grade(student, course, value));
+
+            assertEquals("Grade value must be between 0.0 and 100.0", exception.getMessage());
+        }
+    }
+
     @Test
     @DisplayName("Should allow boundary grade values")
     public void testCreateGradeWithBoundaryValues() {
@@ -0,0 +1,114 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for the Flight Recorder events emitted by the GradingSystem class.
+ */
+public class GradingEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GradingSystem gradingSystem;
+
+    @BeforeEach
+    public void setUp() {
+        gradingSystem = new GradingSystem(4);
+        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+        gradingSystem.addStudent(new Student("S002", "Jane Smith", "jane.smith@example.com"));
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+    }
+
+    @Test
+    @DisplayName("Should emit an event for each recorded grade and GPA read")
+    public void testGradeAndGpaEvents() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            gradingSystem.recordGrade("S001", "cs101", 85.0);
+            gradingSystem.recordGrade(gradingSystem.getStudentHandle("S002"), gradingSystem.getCourseHandle("MATH101"), 70.0);
+            gradingSystem.calculateGPA("S001");
+            assertThrows(IllegalArgumentException.class, () -> gradingSystem.calculateGPA("S999"));
+        });
+
+        List<RecordedEvent> recorded = ofType(events, "com.gradingsystem.GradeRecorded");
+        assertEquals(2, recorded.size());
+        assertEquals("S001", recorded.get(0).getString("studentId"));
+        assertEquals("CS101", recorded.get(0).getString("courseCode"));
+        assertEquals(85.0, recorded.get(0).getDouble("gradeValue"));
+        assertEquals("MATH101", recorded.get(1).getString("courseCode"));
+
+        List<RecordedEvent> gpas = ofType(events, "com.gradingsystem.GpaCalculated");
+        assertEquals(1, gpas.size());
+        assertEquals("S001", gpas.get(0).getString("studentId"));
+        assertEquals(3.0, gpas.get(0).getDouble("gpa"));
+    }
+
+    @Test
+    @DisplayName("Should emit an event with the grades removed and the lock wait for each course removal")
+    public void testCourseRemovedEvents() throws IOException {
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S002", "CS101", 70.0);
+
+        List<RecordedEvent> events = ofType(record(() -> {
+            gradingSystem.removeCourse("CS101");
+            gradingSystem.removeCourse("CS999");
+        }), "com.gradingsystem.CourseRemoved");
+
+        assertEquals(2, events.size());
+        assertEquals("CS101", events.get(0).getString("courseCode"));
+        assertTrue(events.get(0).getBoolean("removed"));
+        assertEquals(2, events.get(0).getInt("gradesRemoved"));
+        assertTrue(events.get(0).getLong("lockWait") >= 0);
+        assertFalse(events.get(1).getBoolean("removed"));
+        assertEquals(0, events.get(1).getInt("gradesRemoved"));
+    }
+
+    @Test
+    @DisplayName("Should emit an event for each batch of grades")
+    public void testGradeBatchEvents() throws IOException {
+        List<RecordedEvent> events = ofType(record(() -> gradingSystem.recordGrades(List.of(
+                new GradeRecord("S001", "CS101", 85.0),
+                new GradeRecord("S001", "MATH101", 90.0),
+                new GradeRecord("S002", "CS101", 70.0),
+                new GradeRecord("S999", "CS101", 60.0)))), "com.gradingsystem.GradeBatch");
+
+        assertEquals(1, events.size());
+        assertEquals(3, events.get(0).getInt("rows"));
+        assertEquals(3, events.get(0).getInt("recorded"));
+        assertEquals(2, events.get(0).getInt("studentsUpdated"));
+        assertEquals(2, events.get(0).getInt("coursesUpdated"));
+    }
+
+    private List<RecordedEvent> record(Runnable operations) throws IOException {
+        Path file = tempDir.resolve("grading.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("GradeRecorded", "GpaCalculated", "CourseRemoved", "GradeBatch")) {
+                recording.enable("com.gradingsystem." + name).withoutThreshold();
+            }
+            recording.start();
+            operations.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
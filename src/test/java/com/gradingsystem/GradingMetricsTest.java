@@ -0,0 +1,148 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Unit tests for the GradingMetrics class.
+ */
+public class GradingMetricsTest {
+
+    private GradingSystem gradingSystem;
+
+    @BeforeEach
+    public void setUp() {
+        gradingSystem = new GradingSystem();
+        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+        gradingSystem.addStudent(new Student("S002", "Jane Smith", "jane.smith@example.com"));
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+    }
+
+    @Test
+    @DisplayName("Should only count calls made while metrics are enabled")
+    public void testEnableAndDisable() {
+        assertNull(gradingSystem.getMetrics());
+        gradingSystem.recordGrade("S001", "CS101", 90.0);
+
+        GradingMetrics metrics = gradingSystem.enableMetrics();
+        assertSame(metrics, gradingSystem.enableMetrics());
+        assertSame(metrics, gradingSystem.getMetrics());
+        gradingSystem.recordGrade("S002", "CS101", 80.0);
+        gradingSystem.recordGrade(gradingSystem.getStudentHandle("S001"), gradingSystem.getCourseHandle("CS101"), 70.0);
+        gradingSystem.calculateGPA("S001");
+        gradingSystem.topGradesForCourse("CS101", 1);
+        gradingSystem.getGradesForCourseWithLetter("CS101", "B");
+        gradingSystem.rankOf("S002");
+        gradingSystem.snapshot();
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.recordGrade("S999", "CS101", 50.0));
+
+        assertEquals(2, metrics.getHistogram(GradingMetrics.Operation.RECORD_GRADE).getCount());
+        assertEquals(1, metrics.getHistogram(GradingMetrics.Operation.CALCULATE_GPA).getCount());
+        assertEquals(2, metrics.getHistogram(GradingMetrics.Operation.COURSE_GRADE_QUERY).getCount());
+        assertEquals(1, metrics.getHistogram(GradingMetrics.Operation.GPA_RANK_QUERY).getCount());
+        assertEquals(1, metrics.getHistogram(GradingMetrics.Operation.SNAPSHOT).getCount());
+        assertEquals(0, metrics.getHistogram(GradingMetrics.Operation.ADD_STUDENT).getCount());
+        assertTrue(metrics.getHistogram(GradingMetrics.Operation.RECORD_GRADE).getMaxNanos() > 0);
+
+        gradingSystem.disableMetrics();
+        assertNull(gradingSystem.getMetrics());
+        gradingSystem.calculateGPA("S001");
+        assertEquals(1, metrics.getHistogram(GradingMetrics.Operation.CALCULATE_GPA).getCount());
+
+        assertSame(metrics, gradingSystem.enableMetrics());
+        gradingSystem.calculateGPA("S001");
+        assertEquals(2, metrics.getHistogram(GradingMetrics.Operation.CALCULATE_GPA).getCount());
+        metrics.reset();
+        assertEquals(0, metrics.getHistogram(GradingMetrics.Operation.CALCULATE_GPA).getCount());
+    }
+
+    @Test
+    @DisplayName("Should report entity counts, memory and operation counts")
+    public void testGauges() {
+        GradingMetrics metrics = gradingSystem.enableMetrics();
+        gradingSystem.recordGrade("S001", "CS101", 90.0);
+        gradingSystem.recordGrade("S002", "CS101", 1.0 / 3.0);
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+        gradingSystem.removeStudent("S002");
+        gradingSystem.removeStudent("S999");
+
+        assertEquals(1, metrics.getStudentCount());
+        assertEquals(2, metrics.getCourseCount());
+        assertEquals(1, metrics.getGradeCount());
+        assertTrue(metrics.getEstimatedGradeMemoryBytes() > 0);
+        Map<String, Long> counts = metrics.getOperationCounts();
+        assertEquals(GradingMetrics.Operation.values().length, counts.size());
+        assertEquals(2L, counts.get("recordGrade"));
+        assertEquals(1L, counts.get("addCourse"));
+        assertEquals(2L, counts.get("removeStudent"));
+    }
+
+    @Test
+    @DisplayName("Should count course statistics cache hits and misses")
+    public void testStatisticsCache() {
+        gradingSystem.recordGrade("S001", "CS101", 90.0);
+        gradingSystem.getCourseStatistics("CS101");
+        GradingMetrics metrics = gradingSystem.enableMetrics();
+
+        CourseStatistics first = gradingSystem.getCourseStatistics("CS101");
+        assertSame(first, gradingSystem.getCourseStatistics(gradingSystem.getCourseHandle("CS101")));
+        assertEquals(2, metrics.getStatisticsCacheHits());
+        assertEquals(0, metrics.getStatisticsCacheMisses());
+        assertEquals(1, metrics.getStatisticsCacheSize());
+
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+        gradingSystem.getCourseStatistics("MATH101");
+        assertEquals(2, metrics.getStatisticsCacheSize());
+        gradingSystem.recordGrade("S002", "CS101", 80.0);
+        assertEquals(1, metrics.getStatisticsCacheSize());
+        gradingSystem.removeCourse("MATH101");
+        assertEquals(0, metrics.getStatisticsCacheSize());
+        CourseStatistics second = gradingSystem.getCourseStatistics("CS101");
+        assertNotSame(first, second);
+        assertEquals(85.0, second.getMean(), 0.001);
+        gradingSystem.removeStudent("S001");
+        gradingSystem.getCourseStatistics("CS101");
+        gradingSystem.getCourseStatistics("CS101");
+        assertEquals(3, metrics.getStatisticsCacheHits());
+        assertEquals(3, metrics.getStatisticsCacheMisses());
+        assertEquals(1, metrics.getStatisticsCacheSize());
+
+        metrics.reset();
+        assertEquals(0, metrics.getStatisticsCacheHits());
+        assertEquals(0, metrics.getStatisticsCacheMisses());
+    }
+
+    @Test
+    @DisplayName("Should publish gauges and histograms as MBeans")
+    public void testRegisterMBeans() throws JMException {
+        GradingMetrics metrics = gradingSystem.enableMetrics();
+        gradingSystem.calculateGPA("S001");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName name = metrics.registerMBeans("metrics-test");
+        try {
+            assertEquals(2, server.getAttribute(name, "StudentCount"));
+            assertEquals(1, server.getAttribute(name, "CourseCount"));
+            ObjectName gpa = new ObjectName(name + ",operation=calculateGPA");
+            assertEquals(1L, server.getAttribute(gpa, "Count"));
+            assertTrue((Long) server.getAttribute(gpa, "99thPercentileNanos") > 0);
+            assertThrows(IllegalStateException.class, () -> metrics.registerMBeans("metrics-test"));
+
+            GradingMetrics other = new GradingSystem().enableMetrics();
+            assertThrows(JMException.class, () -> other.registerMBeans("metrics-test"));
+            assertTrue(server.isRegistered(name));
+        } finally {
+            metrics.unregisterMBeans();
+        }
+        assertFalse(server.isRegistered(name));
+        assertThrows(IllegalArgumentException.class, () -> metrics.registerMBeans(" "));
+        metrics.unregisterMBeans();
+    }
+}
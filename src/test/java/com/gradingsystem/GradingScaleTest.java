@@ -0,0 +1,121 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the GradingScale class.
+ */
+public class GradingScaleTest {
+
+    @Test
+    @DisplayName("Should convert values on the standard scale at and around every cut-off")
+    public void testStandardScale() {
+        GradingScale scale = GradingScale.STANDARD;
+
+        assertEquals("A", scale.letterGradeFor(100.0));
+        assertEquals("A", scale.letterGradeFor(90.0));
+        assertEquals("B", scale.letterGradeFor(Math.nextDown(90.0)));
+        assertEquals("B", scale.letterGradeFor(89.99));
+        assertEquals("B", scale.letterGradeFor(80.0));
+        assertEquals("C", scale.letterGradeFor(79.999));
+        assertEquals("D", scale.letterGradeFor(60.0));
+        assertEquals("F", scale.letterGradeFor(59.5));
+        assertEquals("F", scale.letterGradeFor(0.0));
+        assertEquals(4.0, scale.gradePointsFor(95.0), 0.0);
+        assertEquals(3.0, scale.gradePointsFor(85.0), 0.0);
+        assertEquals(1.0, scale.gradePointsFor(60.0), 0.0);
+        assertEquals(0.0, scale.gradePointsFor(12.5), 0.0);
+        assertEquals(Arrays.asList("A", "B", "C", "D", "F"), scale.getLetterGrades());
+        assertEquals(80.0, scale.minimumValueFor("B"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should agree with a linear search over the bands for every hundredth and its neighbours")
+    public void testTableMatchesBands() {
+        for (GradingScale scale : List.of(GradingScale.STANDARD, GradingScale.PLUS_MINUS)) {
+            for (int hundredths = 0; hundredths <= 10000; hundredths++) {
+                double value = hundredths / 100.0;
+                for (double probe : new double[]{Math.nextDown(value), value, Math.nextUp(value)}) {
+                    if (probe < 0.0 || probe > 100.0) {
+                        continue;
+                    }
+                    GradingScale.Band expected = null;
+                    for (GradingScale.Band band : scale.getBands()) {
+                        if (probe >= band.getMinimum()) {
+                            expected = band;
+                            break;
+                        }
+                    }
+                    assertEquals(expected.getLetter(), scale.letterGradeFor(probe), "value " + probe);
+                    assertEquals(expected.getPoints(), scale.gradePointsFor(probe), 0.0, "value " + probe);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should convert values on the plus/minus scale")
+    public void testPlusMinusScale() {
+        GradingScale scale = GradingScale.PLUS_MINUS;
+
+        assertEquals("A", scale.letterGradeFor(93.0));
+        assertEquals("A-", scale.letterGradeFor(92.99));
+        assertEquals("B+", scale.letterGradeFor(88.0));
+        assertEquals("D-", scale.letterGradeFor(60.0));
+        assertEquals("F", scale.letterGradeFor(59.99));
+        assertEquals(3.7, scale.gradePointsFor(91.0), 0.0);
+        assertEquals(2.3, scale.gradePointsFor(77.0), 0.0);
+        assertEquals(12, scale.getLetterGrades().size());
+        assertEquals(87.0, scale.minimumValueFor("B+"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should order bands by cut-off and round-trip through the spec form")
+    public void testCustomScaleAndSpec() {
+        GradingScale scale = new GradingScale("Pass/Fail", Arrays.asList(
+                new GradingScale.Band("F", 0.0, 0.0),
+                new GradingScale.Band("P", 50.0, 1.0),
+                new GradingScale.Band("D", 85.5, 2.0)));
+
+        assertEquals(Arrays.asList("D", "P", "F"), scale.getLetterGrades());
+        assertEquals("P", scale.letterGradeFor(85.49));
+        assertEquals("D", scale.letterGradeFor(85.5));
+        assertEquals("D:85.5:2.0,P:50.0:1.0,F:0.0:0.0", scale.toSpec());
+
+        GradingScale parsed = GradingScale.parse("Copy", scale.toSpec());
+        assertEquals(scale, parsed);
+        assertEquals(scale.hashCode(), parsed.hashCode());
+        assertEquals("Copy", parsed.getName());
+        assertNotEquals(GradingScale.STANDARD, scale);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid scales")
+    public void testInvalidScales() {
+        GradingScale.Band zero = new GradingScale.Band("F", 0.0, 0.0);
+
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale("Empty", List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale(" ", List.of(zero)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GradingScale("No zero", List.of(new GradingScale.Band("P", 50.0, 1.0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GradingScale("Twice", List.of(zero, new GradingScale.Band("F", 50.0, 1.0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GradingScale("Same cut-off", List.of(zero, new GradingScale.Band("E", 0.0, 1.0))));
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale.Band("A", 90.005, 4.0));
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale.Band("A", 100.01, 4.0));
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale.Band("A", 90.0, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale.Band("A", 90.0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new GradingScale.Band("A:B", 90.0, 4.0));
+        assertThrows(IllegalArgumentException.class, () -> GradingScale.parse("Bad", "A:90"));
+        assertThrows(IllegalArgumentException.class, () -> GradingScale.parse("Bad", "A:x:4.0,F:0:0"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> GradingScale.STANDARD.minimumValueFor("A-"));
+        assertEquals("Unknown letter grade: A-", exception.getMessage());
+    }
+}
@@ -0,0 +1,159 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for the GradingServer class.
+ */
+public class GradingServerTest {
+
+    private GradingSystem gradingSystem;
+    private GradingServer server;
+    private HttpClient client;
+
+    @BeforeAll
+    public static void disableNagle() {
+        // As App does; the JDK reads the property when the first server is created
+        System.setProperty(GradingServer.NO_DELAY_PROPERTY, "true");
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        gradingSystem = new GradingSystem(4);
+        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+        gradingSystem.addStudent(new Student("S002", "Jane \"JJ\" Smith", "jane.smith@example.com"));
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S001", "MATH101", 92.0);
+        gradingSystem.recordGrade("S002", "CS101", 78.5);
+
+        server = new GradingServer(gradingSystem, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should serve GPAs and course averages")
+    public void testSingleValues() throws Exception {
+        HttpResponse<String> gpa = get("/students/S001/gpa");
+        assertEquals(200, gpa.statusCode());
+        assertEquals("application/json; charset=utf-8", gpa.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("{\"studentId\":\"S001\",\"gpa\":" + gradingSystem.calculateGPA("S001") + "}", gpa.body());
+
+        HttpResponse<String> average = get("/courses/cs101/average");
+        assertEquals(200, average.statusCode());
+        assertEquals("{\"courseCode\":\"CS101\",\"average\":81.75}", average.body());
+    }
+
+    @Test
+    @DisplayName("Should stream a student's and a course's grades")
+    public void testGradeLists() throws Exception {
+        HttpResponse<String> student = get("/students/S001/grades");
+        assertEquals(200, student.statusCode());
+        assertEquals("[{\"studentId\":\"S001\",\"courseCode\":\"CS101\",\"gradeValue\":85.0,\"letterGrade\":\"B\",\"gradePoints\":3.0},"
+                + "{\"studentId\":\"S001\",\"courseCode\":\"MATH101\",\"gradeValue\":92.0,\"letterGrade\":\"A\",\"gradePoints\":4.0}]",
+                student.body());
+
+        HttpResponse<String> course = get("/courses/MATH101/grades");
+        assertEquals(200, course.statusCode());
+        assertEquals(1, course.body().split("\"studentId\"").length - 1);
+
+        gradingSystem.addCourse(new Course("PHYS101", "Physics I", 4));
+        assertEquals("[]", get("/courses/PHYS101/grades").body());
+    }
+
+    @Test
+    @DisplayName("Should answer unknown keys, paths and methods with JSON errors")
+    public void testErrors() throws Exception {
+        HttpResponse<String> student = get("/students/S999/gpa");
+        assertEquals(404, student.statusCode());
+        assertEquals("{\"error\":\"Student with ID S999 not found\"}", student.body());
+        assertEquals(404, get("/students/S999/grades").statusCode());
+        assertEquals(404, get("/courses/CS999/average").statusCode());
+        assertEquals(404, get("/courses/CS999/grades").statusCode());
+        assertEquals(404, get("/students/S001/transcript").statusCode());
+        assertEquals(404, get("/students/gpa").statusCode());
+        assertEquals(404, get("/students/S001/x/gpa").statusCode());
+        assertEquals(404, get("/courses/CS101/").statusCode());
+        assertEquals(404, get("/courses//average").statusCode());
+        HttpResponse<String> unknown = get("/teachers/T001/gpa");
+        assertEquals(404, unknown.statusCode());
+        assertEquals("{\"error\":\"Not found\"}", unknown.body());
+
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri("/students/S001/gpa"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}")).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, post.statusCode());
+        assertEquals("GET", post.headers().firstValue("Allow").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Should serve many concurrent requests over kept-alive connections")
+    public void testConcurrentRequests() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String path = i % 2 == 0 ? "/students/S002/gpa" : "/courses/CS101/grades";
+                results.add(pool.submit(() -> get(path).statusCode()));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(200, result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should validate arguments and lifecycle")
+    public void testLifecycle() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new GradingServer(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GradingServer(gradingSystem, 70000));
+        assertThrows(IllegalArgumentException.class, () -> new GradingServer(gradingSystem, null, 4));
+
+        assertTrue(server.getPort() > 0);
+        assertEquals(Runtime.version().feature() >= 21, server.isUsingVirtualThreads());
+        server.start();
+        server.close();
+        assertThrows(IllegalStateException.class, server::getPort);
+        assertThrows(IllegalStateException.class, server::start);
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should escape strings as JSON")
+    public void testAppendString() {
+        StringBuilder json = new StringBuilder();
+        GradingServer.appendString(json, "a\"b\\c\nd\u0001é");
+        assertEquals("\"a\\\"b\\\\c\\nd\\u0001é\"", json.toString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
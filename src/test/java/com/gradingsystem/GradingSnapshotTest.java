@@ -0,0 +1,111 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the GradingSnapshot class.
+ */
+public class GradingSnapshotTest {
+
+    private GradingSystem gradingSystem;
+    private Student student1;
+    private Student student2;
+    private Course course1;
+    private Course course2;
+
+    @BeforeEach
+    public void setUp() {
+        gradingSystem = new GradingSystem();
+        student1 = new Student("S001", "John Doe", "john.doe@example.com");
+        student2 = new Student("S002", "Jane Smith", "jane.smith@example.com");
+        course1 = new Course("CS101", "Introduction to Computer Science", 3);
+        course2 = new Course("MATH101", "Calculus I", 4);
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(course2);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S002", "CS101", 92.0);
+        gradingSystem.recordGrade("S002", "MATH101", 78.0);
+    }
+
+    private List<String> describe(Iterable<Grade> grades) {
+        List<String> described = new ArrayList<>();
+        for (Grade grade : grades) {
+            described.add(grade.getStudent().getStudentId() + "/" + grade.getCourse().getCourseCode()
+                    + "=" + grade.getGradeValue());
+        }
+        return described;
+    }
+
+    @Test
+    @DisplayName("Should show the current students, courses and grades")
+    public void testSnapshotContents() {
+        GradingSnapshot snapshot = gradingSystem.snapshot();
+
+        assertEquals(List.of(student1, student2), new ArrayList<>(snapshot.getAllStudents()));
+        assertEquals(List.of(course1, course2), new ArrayList<>(snapshot.getAllCourses()));
+        assertEquals(3, snapshot.getAllGrades().size());
+        assertEquals(List.of("S001/CS101=85.0", "S002/CS101=92.0", "S002/MATH101=78.0"),
+                describe(snapshot.getAllGrades()));
+    }
+
+    @Test
+    @DisplayName("Should not change when the system changes")
+    public void testSnapshotIsolation() {
+        GradingSnapshot snapshot = gradingSystem.snapshot();
+
+        gradingSystem.recordGrade("S001", "CS101", 55.0);
+        gradingSystem.removeStudent("S002");
+        gradingSystem.removeCourse("MATH101");
+        gradingSystem.addStudent(new Student("S003", "Bob Johnson", "bob@example.com"));
+        gradingSystem.recordGrade("S003", "CS101", 70.0);
+
+        assertEquals(2, snapshot.getAllStudents().size());
+        assertEquals(2, snapshot.getAllCourses().size());
+        assertEquals(List.of("S001/CS101=85.0", "S002/CS101=92.0", "S002/MATH101=78.0"),
+                describe(snapshot.getAllGrades()));
+        assertEquals(List.of("S001/CS101=55.0", "S003/CS101=70.0"), describe(gradingSystem.snapshot().getAllGrades()));
+    }
+
+    @Test
+    @DisplayName("Should increase the version with every change")
+    public void testVersion() {
+        long version = gradingSystem.snapshot().getVersion();
+        assertEquals(7, version);
+        assertEquals(version, gradingSystem.snapshot().getVersion());
+
+        gradingSystem.recordGrade("S001", "MATH101", 88.0);
+        assertEquals(version + 1, gradingSystem.snapshot().getVersion());
+
+        gradingSystem.removeCourse("MATH101");
+        assertEquals(version + 2, gradingSystem.snapshot().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should reject modification of the views")
+    public void testViewsAreReadOnly() {
+        GradingSnapshot snapshot = gradingSystem.snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getAllStudents().add(student1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getAllCourses().clear());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getAllGrades().iterator().remove());
+    }
+
+    @Test
+    @DisplayName("Should be empty for an empty system")
+    public void testEmptySnapshot() {
+        GradingSnapshot snapshot = new GradingSystem().snapshot();
+
+        assertEquals(0, snapshot.getVersion());
+        assertTrue(snapshot.getAllStudents().isEmpty());
+        assertTrue(snapshot.getAllCourses().isEmpty());
+        assertTrue(snapshot.getAllGrades().isEmpty());
+        assertFalse(snapshot.getAllGrades().iterator().hasNext());
+    }
+}
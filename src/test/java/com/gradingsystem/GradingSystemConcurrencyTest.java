@@ -0,0 +1,229 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Multi-threaded tests for a GradingSystem created with lock stripes.
+ */
+public class GradingSystemConcurrencyTest {
+
+    private static final int THREADS = 4;
+    private static final int STUDENTS = 64;
+    private static final int COURSES = 8;
+
+    private GradingSystem newPopulatedSystem() {
+        GradingSystem gradingSystem = new GradingSystem(16);
+        for (int s = 0; s < STUDENTS; s++) {
+            gradingSystem.addStudent(new Student("S" + s, "Student " + s, "s" + s + "@example.com"));
+        }
+        for (int c = 0; c < COURSES; c++) {
+            gradingSystem.addCourse(new Course("C" + c, "Course " + c, 1 + c % 4));
+        }
+        return gradingSystem;
+    }
+
+    private void runThreads(Runnable... work) throws InterruptedException {
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread[] threads = new Thread[work.length];
+        for (int t = 0; t < work.length; t++) {
+            Runnable task = work[t];
+            threads[t] = new Thread(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.peek());
+        }
+    }
+
+    /**
+     * Checks every running aggregate against a recomputation from the stored grades.
+     */
+    private void assertAggregatesMatchGrades(GradingSystem gradingSystem) {
+        Collection<Grade> allGrades = gradingSystem.getAllGrades();
+
+        for (Student student : gradingSystem.getAllStudents()) {
+            double points = 0.0;
+            int credits = 0;
+            for (Grade grade : allGrades) {
+                if (grade.getStudent().equals(student)) {
+                    points += grade.getGradePoints() * grade.getCourse().getCredits();
+                    credits += grade.getCourse().getCredits();
+                }
+            }
+            double expected = credits > 0 ? points / credits : 0.0;
+            assertEquals(expected, gradingSystem.calculateGPA(student.getStudentId()), 0.001);
+        }
+
+        for (Course course : gradingSystem.getAllCourses()) {
+            List<Double> values = new ArrayList<>();
+            for (Grade grade : allGrades) {
+                if (grade.getCourse().equals(course)) {
+                    values.add(grade.getGradeValue());
+                }
+            }
+            CourseStatistics statistics = gradingSystem.getCourseStatistics(course.getCourseCode());
+            assertEquals(values.size(), statistics.getCount());
+            assertEquals(values.size(), gradingSystem.getGradesForCourse(course.getCourseCode()).size());
+            if (!values.isEmpty()) {
+                double sum = values.stream().mapToDouble(Double::doubleValue).sum();
+                assertEquals(sum / values.size(), gradingSystem.calculateCourseAverage(course.getCourseCode()), 0.001);
+                assertEquals(values.stream().mapToDouble(Double::doubleValue).min().getAsDouble(), statistics.getMin(), 0.001);
+                assertEquals(values.stream().mapToDouble(Double::doubleValue).max().getAsDouble(), statistics.getMax(), 0.001);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should report whether the system is concurrent")
+    public void testIsConcurrent() {
+        assertFalse(new GradingSystem().isConcurrent());
+        assertTrue(new GradingSystem(4).isConcurrent());
+        assertThrows(IllegalArgumentException.class, () -> new GradingSystem(-1));
+    }
+
+    @Test
+    @DisplayName("Should keep aggregates exact under concurrent grade writes")
+    public void testConcurrentRecordGrade() throws InterruptedException {
+        GradingSystem gradingSystem = newPopulatedSystem();
+        Runnable[] writers = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            writers[t] = () -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    gradingSystem.recordGrade("S" + random.nextInt(STUDENTS), "C" + random.nextInt(COURSES),
+                            random.nextInt(10_001) / 100.0);
+                }
+            };
+        }
+
+        runThreads(writers);
+
+        assertAggregatesMatchGrades(gradingSystem);
+    }
+
+    @Test
+    @DisplayName("Should keep aggregates exact while students and courses are removed concurrently")
+    public void testConcurrentRemovals() throws InterruptedException {
+        GradingSystem gradingSystem = newPopulatedSystem();
+        Runnable writer = () -> {
+            Random random = new Random(1);
+            for (int i = 0; i < 20_000; i++) {
+                try {
+                    gradingSystem.recordGrade("S" + random.nextInt(STUDENTS), "C" + random.nextInt(COURSES),
+                            random.nextInt(101));
+                } catch (IllegalArgumentException e) {
+                    // The student or course was removed by another thread
+                }
+            }
+        };
+        Runnable studentChurn = () -> {
+            for (int i = 0; i < 2_000; i++) {
+                String id = "S" + (i % STUDENTS);
+                if (gradingSystem.removeStudent(id)) {
+                    gradingSystem.addStudent(new Student(id, "Student " + id, id + "@example.com"));
+                }
+            }
+        };
+        Runnable courseChurn = () -> {
+            for (int i = 0; i < 200; i++) {
+                String code = "C" + (i % COURSES);
+                if (gradingSystem.removeCourse(code)) {
+                    gradingSystem.addCourse(new Course(code, "Course " + code, 3));
+                }
+            }
+        };
+        Runnable reader = () -> {
+            for (int i = 0; i < 20_000; i++) {
+                try {
+                    double gpa = gradingSystem.calculateGPA("S" + (i % STUDENTS));
+                    assertTrue(gpa >= 0.0 && gpa <= 4.0);
+                    gradingSystem.getCourseStatistics("C" + (i % COURSES));
+                } catch (IllegalArgumentException e) {
+                    // Removed between the lookup and the read
+                }
+            }
+        };
+
+        runThreads(writer, writer, studentChurn, courseChurn, reader);
+
+        assertAggregatesMatchGrades(gradingSystem);
+    }
+
+    @Test
+    @DisplayName("Should iterate the same snapshot contents while writers keep changing grades")
+    public void testSnapshotUnderConcurrentWrites() throws InterruptedException {
+        GradingSystem gradingSystem = newPopulatedSystem();
+        Runnable writer = () -> {
+            Random random = new Random(2);
+            for (int i = 0; i < 20_000; i++) {
+                gradingSystem.recordGrade("S" + random.nextInt(STUDENTS), "C" + random.nextInt(COURSES),
+                        random.nextInt(101));
+            }
+        };
+        Runnable reader = () -> {
+            for (int i = 0; i < 50; i++) {
+                GradingSnapshot snapshot = gradingSystem.snapshot();
+                List<String> first = new ArrayList<>();
+                for (Grade grade : snapshot.getAllGrades()) {
+                    first.add(grade.getStudent().getStudentId() + grade.getCourse().getCourseCode() + grade.getGradeValue());
+                }
+                List<String> second = new ArrayList<>();
+                for (Grade grade : snapshot.getAllGrades()) {
+                    second.add(grade.getStudent().getStudentId() + grade.getCourse().getCourseCode() + grade.getGradeValue());
+                }
+                assertEquals(first, second);
+                assertEquals(snapshot.getAllGrades().size(), first.size());
+            }
+        };
+
+        runThreads(writer, writer, reader);
+
+        assertAggregatesMatchGrades(gradingSystem);
+    }
+
+    @Test
+    @DisplayName("Should keep aggregates exact when batches run alongside single writes")
+    public void testConcurrentBatches() throws InterruptedException {
+        GradingSystem gradingSystem = newPopulatedSystem();
+        Runnable batchWriter = () -> {
+            Random random = new Random(3);
+            for (int b = 0; b < 50; b++) {
+                List<GradeRecord> batch = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    batch.add(new GradeRecord("S" + random.nextInt(STUDENTS), "C" + random.nextInt(COURSES),
+                            random.nextInt(101)));
+                }
+                assertEquals(200, gradingSystem.recordGrades(batch).getRecordedCount());
+            }
+        };
+        Runnable writer = () -> {
+            Random random = new Random(4);
+            for (int i = 0; i < 20_000; i++) {
+                gradingSystem.recordGrade("S" + random.nextInt(STUDENTS), "C" + random.nextInt(COURSES),
+                        random.nextInt(101));
+            }
+        };
+
+        runThreads(batchWriter, batchWriter, writer);
+
+        assertAggregatesMatchGrades(gradingSystem);
+    }
+}
@@ -4,7 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 /**
  * Unit tests for the GradingSystem class.
@@ -78,6 +85,110 @@ public class GradingSystemTest {
         assertFalse(gradingSystem.removeStudent("  "));
     }
 
+    @Test
+    @DisplayName("Should remove many students in one pass, as removing them one by one would")
+    public void testRemoveStudents() {
+        GradingSystem oneByOne = new GradingSystem();
+        for (GradingSystem system : List.of(gradingSystem, oneByOne)) {
+            for (int s = 0; s < 20; s++) {
+                system.addStudent(new Student("S" + s, "Student " + s, "s" + s + "@example.com"));
+            }
+            system.addCourse(course1);
+            system.addCourse(course2);
+            for (int s = 0; s < 20; s++) {
+                system.recordGrade("S" + s, "CS101", 50.0 + s * 2);
+                if (s % 3 == 0) {
+                    system.recordGrade("S" + s, "MATH101", 95.0 - s);
+                }
+            }
+        }
+
+        List<String> retired = List.of("S0", "S3", "S4", "S3", "S99", "S12");
+        assertEquals(4, gradingSystem.removeStudents(retired));
+        for (String studentId : retired) {
+            oneByOne.removeStudent(studentId);
+        }
+        assertEquals(0, gradingSystem.removeStudents(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.removeStudents(null));
+
+        assertNull(gradingSystem.getStudent("S3"));
+        assertEquals(oneByOne.getAllStudents().size(), gradingSystem.getAllStudents().size());
+        assertEquals(oneByOne.getAllGrades().size(), gradingSystem.getAllGrades().size());
+        for (String courseCode : List.of("CS101", "MATH101")) {
+            CourseStatistics expected = oneByOne.getCourseStatistics(courseCode);
+            CourseStatistics actual = gradingSystem.getCourseStatistics(courseCode);
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+            assertEquals(expected.getMin(), actual.getMin());
+            assertEquals(expected.getMax(), actual.getMax());
+            assertEquals(oneByOne.topGradesForCourse(courseCode, 3).size(), gradingSystem.topGradesForCourse(courseCode, 3).size());
+        }
+        for (Student student : oneByOne.getAllStudents()) {
+            assertEquals(oneByOne.rankOf(student.getStudentId()), gradingSystem.rankOf(student.getStudentId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should shrink a course's index after most of its students are removed")
+    public void testRemoveStudentsCompactsIndex() {
+        gradingSystem.addCourse(course1);
+        List<String> retired = new ArrayList<>();
+        for (int s = 0; s < 2000; s++) {
+            gradingSystem.addStudent(new Student("S" + s, "Student " + s, "s" + s + "@example.com"));
+            gradingSystem.recordGrade("S" + s, "CS101", s % 101);
+            if (s % 20 != 0) {
+                retired.add("S" + s);
+            }
+        }
+        gradingSystem.topGradesForCourse("CS101", 1);
+        long before = gradingSystem.estimatedGradeMemoryBytes();
+
+        assertEquals(1900, gradingSystem.removeStudents(retired));
+        assertTrue(before - gradingSystem.estimatedGradeMemoryBytes() > 1900 * 20);
+
+        // The remaining grades are found through their new index nodes
+        gradingSystem.recordGrade("S0", "CS101", 100.0);
+        gradingSystem.removeStudent("S20");
+        CourseStatistics statistics = gradingSystem.getCourseStatistics("CS101");
+        assertEquals(99, statistics.getCount());
+        assertEquals(100.0, statistics.getMax(), 0.0);
+        assertEquals(2, gradingSystem.getGradesForCourseBetween("CS101", 100.0, 100.0).size());
+        assertEquals(99, gradingSystem.getGradesForCourseBetween("CS101", 0.0, 100.0).size());
+    }
+
+    @Test
+    @DisplayName("Should remove many courses in one pass, as removing them one by one would")
+    public void testRemoveCourses() {
+        GradingSystem oneByOne = new GradingSystem();
+        for (GradingSystem system : List.of(gradingSystem, oneByOne)) {
+            system.addStudent(student1);
+            system.addStudent(student2);
+            system.addCourse(course1);
+            system.addCourse(course2);
+            system.addCourse(course3);
+            system.recordGrade("S001", "CS101", 85.0);
+            system.recordGrade("S001", "MATH101", 92.0);
+            system.recordGrade("S001", "ENG101", 71.0);
+            system.recordGrade("S002", "MATH101", 64.0);
+            system.recordGrade("S002", "ENG101", 99.0);
+        }
+
+        List<String> cancelled = Arrays.asList("cs101", " ENG101 ", null, "CS999", "CS101");
+        assertEquals(2, gradingSystem.removeCourses(cancelled));
+        oneByOne.removeCourse("CS101");
+        oneByOne.removeCourse("ENG101");
+        assertEquals(0, gradingSystem.removeCourses(List.of("CS101")));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.removeCourses(null));
+
+        assertNull(gradingSystem.getCourse("ENG101"));
+        assertEquals(2, gradingSystem.getAllGrades().size());
+        for (String studentId : List.of("S001", "S002")) {
+            assertEquals(oneByOne.calculateGPA(studentId), gradingSystem.calculateGPA(studentId), 1e-9);
+            assertEquals(oneByOne.rankOf(studentId), gradingSystem.rankOf(studentId));
+        }
+        assertEquals(78.0, gradingSystem.calculateCourseAverage("MATH101"), 1e-9);
+    }
+
     @Test
     @DisplayName("Should add course successfully")
     public void testAddCourse() {
@@ -167,6 +278,23 @@ public class GradingSystemTest {
         assertEquals("Course with code CS999 not found", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Should reject a NaN grade without touching the course average")
+    public void testRecordNaNGrade() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+        gradingSystem.recordGrade("S002", "CS101", 70.0);
+
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.recordGrade("S001", "CS101", Double.NaN));
+        BatchResult result = gradingSystem.recordGrades(List.of(new GradeRecord("S001", "CS101", Double.NaN)));
+        assertEquals(0, result.getRecordedCount());
+        gradingSystem.recordGrade("S001", "CS101", 90.0);
+
+        assertEquals(80.0, gradingSystem.calculateCourseAverage("CS101"), 0.001);
+        assertEquals(2, gradingSystem.getCourseStatistics("CS101").getCount());
+    }
+
     @Test
     @DisplayName("Should replace existing grade when recording new grade for same student-course")
     public void testReplaceExistingGrade() {
@@ -334,4 +462,666 @@ public class GradingSystemTest {
         // GPA = (0.0 + 16.0) / (3 + 4) = 16.0 / 7 ≈ 2.286
         assertEquals(16.0 / 7.0, gradingSystem.calculateGPA("S001"), 0.001);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should keep other grades when removing a student")
+    public void testRemoveStudentKeepsOtherGrades() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(course2);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S001", "MATH101", 75.0);
+        gradingSystem.recordGrade("S002", "CS101", 95.0);
+
+        gradingSystem.removeStudent("S001");
+
+        assertEquals(1, gradingSystem.getAllGrades().size());
+        assertTrue(gradingSystem.getGradesForCourse("MATH101").isEmpty());
+        assertEquals(1, gradingSystem.getGradesForCourse("CS101").size());
+        assertEquals(95.0, gradingSystem.calculateCourseAverage("CS101"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should keep other grades when removing a course")
+    public void testRemoveCourseKeepsOtherGrades() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(course2);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S001", "MATH101", 75.0);
+        gradingSystem.recordGrade("S002", "CS101", 95.0);
+
+        gradingSystem.removeCourse("cs101");
+
+        assertEquals(1, gradingSystem.getAllGrades().size());
+        assertTrue(gradingSystem.getGradesForStudent("S002").isEmpty());
+        assertEquals(1, gradingSystem.getGradesForStudent("S001").size());
+        assertEquals(2.0, gradingSystem.calculateGPA("S001"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should replace grade in both student and course views")
+    public void testReplaceGradeUpdatesCourseView() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S001", "CS101", 65.0);
+
+        Collection<Grade> grades = gradingSystem.getGradesForCourse("CS101");
+        assertEquals(1, grades.size());
+        assertEquals(65.0, grades.iterator().next().getGradeValue(), 0.001);
+        assertEquals(1, gradingSystem.getAllGrades().size());
+    }
+
+    @Test
+    @DisplayName("Should keep existing grade when replacement value is invalid")
+    public void testInvalidReplacementKeepsExistingGrade() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> gradingSystem.recordGrade("S001", "CS101", 150.0));
+
+        assertEquals(85.0, gradingSystem.calculateCourseAverage("CS101"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should keep GPA current as grades are replaced and removed")
+    public void testGPAFollowsGradeChanges() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1); // 3 credits
+        gradingSystem.addCourse(course2); // 4 credits
+
+        gradingSystem.recordGrade("S001", "CS101", 95.0);   // A (4.0) * 3 = 12.0
+        gradingSystem.recordGrade("S001", "MATH101", 65.0); // D (1.0) * 4 = 4.0
+        assertEquals(16.0 / 7.0, gradingSystem.calculateGPA("S001"), 0.001);
+
+        gradingSystem.recordGrade("S001", "MATH101", 85.0); // B (3.0) * 4 = 12.0
+        assertEquals(24.0 / 7.0, gradingSystem.calculateGPA("S001"), 0.001);
+
+        gradingSystem.removeCourse("CS101");
+        assertEquals(3.0, gradingSystem.calculateGPA("S001"), 0.001);
+
+        gradingSystem.removeCourse("MATH101");
+        assertEquals(0.0, gradingSystem.calculateGPA("S001"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should start with a fresh GPA when a removed student is added again")
+    public void testGPAResetAfterStudentReadded() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+        gradingSystem.recordGrade("S001", "CS101", 95.0);
+
+        gradingSystem.removeStudent("S001");
+        gradingSystem.addStudent(student1);
+
+        assertEquals(0.0, gradingSystem.calculateGPA("S001"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should maintain course statistics across inserts, replacements and removals")
+    public void testCourseStatistics() {
+        Student student3 = new Student("S003", "Alex Lee", "alex.lee@example.com");
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addStudent(student3);
+        gradingSystem.addCourse(course1);
+
+        gradingSystem.recordGrade("S001", "CS101", 95.0);
+        gradingSystem.recordGrade("S002", "CS101", 55.0);
+        gradingSystem.recordGrade("S003", "CS101", 72.0);
+
+        CourseStatistics statistics = gradingSystem.getCourseStatistics("cs101");
+        assertEquals("CS101", statistics.getCourseCode());
+        assertEquals(3, statistics.getCount());
+        assertEquals(74.0, statistics.getMean(), 0.001);
+        assertEquals(55.0, statistics.getMin(), 0.001);
+        assertEquals(95.0, statistics.getMax(), 0.001);
+        assertEquals(1, statistics.getLetterCount("A"));
+        assertEquals(1, statistics.getLetterCount("C"));
+        assertEquals(1, statistics.getLetterCount("F"));
+
+        // Replacing the lowest grade moves the minimum and the histogram
+        gradingSystem.recordGrade("S002", "CS101", 85.0);
+        statistics = gradingSystem.getCourseStatistics("CS101");
+        assertEquals(72.0, statistics.getMin(), 0.001);
+        assertEquals(0, statistics.getLetterCount("F"));
+        assertEquals(1, statistics.getLetterCount("B"));
+
+        // Removing the student with the highest grade moves the maximum
+        gradingSystem.removeStudent("S001");
+        statistics = gradingSystem.getCourseStatistics("CS101");
+        assertEquals(2, statistics.getCount());
+        assertEquals(85.0, statistics.getMax(), 0.001);
+        assertEquals(78.5, statistics.getMean(), 0.001);
+        assertEquals(42.25, statistics.getVariance(), 0.001);
+        assertEquals(78.5, gradingSystem.calculateCourseAverage("CS101"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should keep duplicate grade values in course extremes")
+    public void testCourseStatisticsWithDuplicateValues() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+
+        gradingSystem.recordGrade("S001", "CS101", 60.0);
+        gradingSystem.recordGrade("S002", "CS101", 60.0);
+        gradingSystem.removeStudent("S001");
+
+        CourseStatistics statistics = gradingSystem.getCourseStatistics("CS101");
+        assertEquals(60.0, statistics.getMin(), 0.001);
+        assertEquals(60.0, statistics.getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when getting statistics for non-existent course")
+    public void testCourseStatisticsForNonExistentCourse() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> gradingSystem.getCourseStatistics("CS999"));
+
+        assertEquals("Course with code CS999 not found", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should assign handles to students and courses")
+    public void testHandles() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+
+        int handle = gradingSystem.getStudentHandle("S002");
+        assertEquals(1, handle);
+        assertEquals(student2, gradingSystem.getStudent(handle));
+        assertEquals(0, gradingSystem.getCourseHandle(" cs101 "));
+        assertEquals(course1, gradingSystem.getCourse(0));
+
+        assertEquals(-1, gradingSystem.getStudentHandle("S999"));
+        assertEquals(-1, gradingSystem.getCourseHandle("CS999"));
+        assertEquals(-1, gradingSystem.getCourseHandle(null));
+        assertNull(gradingSystem.getStudent(99));
+        assertNull(gradingSystem.getCourse(-1));
+    }
+
+    @Test
+    @DisplayName("Should record and query grades by handle")
+    public void testHandleOperations() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1); // 3 credits
+        gradingSystem.addCourse(course2); // 4 credits
+        int s1 = gradingSystem.getStudentHandle("S001");
+        int s2 = gradingSystem.getStudentHandle("S002");
+        int cs101 = gradingSystem.getCourseHandle("CS101");
+        int math101 = gradingSystem.getCourseHandle("MATH101");
+
+        gradingSystem.recordGrade(s1, cs101, 90.0);
+        gradingSystem.recordGrade(s1, math101, 80.0);
+        gradingSystem.recordGrade(s2, cs101, 70.0);
+
+        assertEquals(24.0 / 7.0, gradingSystem.calculateGPA(s1), 0.001);
+        assertEquals(gradingSystem.calculateGPA("S001"), gradingSystem.calculateGPA(s1), 0.0);
+        assertEquals(80.0, gradingSystem.calculateCourseAverage(cs101), 0.001);
+        assertEquals(2, gradingSystem.getCourseStatistics(cs101).getCount());
+        assertEquals(2, gradingSystem.getGradesForStudent(s1).size());
+        assertEquals(2, gradingSystem.getGradesForCourse(cs101).size());
+        assertEquals(3, gradingSystem.getAllGrades().size());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown or retired handles")
+    public void testInvalidHandles() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+        int s1 = gradingSystem.getStudentHandle("S001");
+        int cs101 = gradingSystem.getCourseHandle("CS101");
+        gradingSystem.removeStudent("S001");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> gradingSystem.recordGrade(s1, cs101, 85.0));
+        assertEquals("Student with handle 0 not found", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> gradingSystem.calculateCourseAverage(7));
+        assertEquals("Course with handle 7 not found", exception.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.calculateGPA(s1));
+        assertTrue(gradingSystem.getGradesForStudent(s1).isEmpty());
+        assertTrue(gradingSystem.getGradesForCourse(-1).isEmpty());
+
+        gradingSystem.addStudent(student1);
+        assertNotEquals(s1, gradingSystem.getStudentHandle("S001"));
+    }
+
+    @Test
+    @DisplayName("Should record a batch of grades and update aggregates")
+    public void testRecordGrades() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(course2);
+
+        BatchResult result = gradingSystem.recordGrades(List.of(
+                new GradeRecord("S001", "cs101", 95.0),
+                new GradeRecord("S001", "MATH101", 85.0),
+                new GradeRecord("S002", "CS101", 75.0),
+                new GradeRecord("S002", " cs101 ", 65.0)));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(4, result.getRecordedCount());
+        assertEquals(3, gradingSystem.getAllGrades().size());
+        assertEquals(3.429, gradingSystem.calculateGPA("S001"), 0.001);
+        assertEquals(1.0, gradingSystem.calculateGPA("S002"), 0.001);
+        assertEquals(80.0, gradingSystem.calculateCourseAverage("CS101"), 0.001);
+        assertEquals(65.0, gradingSystem.getCourseStatistics("CS101").getMin(), 0.001);
+        assertEquals(95.0, gradingSystem.getCourseStatistics("CS101").getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should report failed rows without aborting the batch")
+    public void testRecordGradesReportsFailures() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+
+        List<GradeRecord> batch = new ArrayList<>();
+        batch.add(new GradeRecord("S999", "CS101", 80.0));
+        batch.add(new GradeRecord("S001", "CS101", 90.0));
+        batch.add(new GradeRecord("S001", "NOPE", 80.0));
+        batch.add(null);
+        batch.add(new GradeRecord("S001", "CS101", 101.0));
+        batch.add(new GradeRecord("S001", null, 80.0));
+        BatchResult result = gradingSystem.recordGrades(batch);
+
+        assertEquals(1, result.getRecordedCount());
+        assertEquals(5, result.getFailedCount());
+        assertFalse(result.isSuccessful());
+        List<BatchResult.Failure> failures = result.getFailures();
+        assertEquals(0, failures.get(0).getIndex());
+        assertEquals("Student with ID S999 not found", failures.get(0).getMessage());
+        assertEquals(batch.get(0), failures.get(0).getRecord());
+        assertEquals("Course with code NOPE not found", failures.get(1).getMessage());
+        assertEquals(3, failures.get(2).getIndex());
+        assertNull(failures.get(2).getRecord());
+        assertEquals(4, failures.get(3).getIndex());
+        assertEquals(5, failures.get(4).getIndex());
+        assertEquals(90.0, gradingSystem.calculateCourseAverage("CS101"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should match recording the same grades one at a time")
+    public void testRecordGradesMatchesSequentialRecording() {
+        GradingSystem sequential = new GradingSystem();
+        List<GradeRecord> batch = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            Student student = new Student("S" + i, "Student " + i, "s" + i + "@example.com");
+            gradingSystem.addStudent(student);
+            sequential.addStudent(student);
+        }
+        for (Course course : List.of(course1, course2, course3)) {
+            gradingSystem.addCourse(course);
+            sequential.addCourse(course);
+        }
+        for (int i = 0; i < 500; i++) {
+            String courseCode = List.of("CS101", "MATH101", "ENG101").get(random.nextInt(3));
+            batch.add(new GradeRecord("S" + random.nextInt(20), courseCode, random.nextInt(101)));
+        }
+
+        for (GradeRecord record : batch) {
+            sequential.recordGrade(record.getStudentId(), record.getCourseCode(), record.getGradeValue());
+        }
+        gradingSystem.recordGrades(batch);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(sequential.calculateGPA("S" + i), gradingSystem.calculateGPA("S" + i), 0.0);
+        }
+        for (String courseCode : List.of("CS101", "MATH101", "ENG101")) {
+            CourseStatistics expected = sequential.getCourseStatistics(courseCode);
+            CourseStatistics actual = gradingSystem.getCourseStatistics(courseCode);
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getMean(), actual.getMean(), 0.001);
+            assertEquals(expected.getMin(), actual.getMin(), 0.0);
+            assertEquals(expected.getMax(), actual.getMax(), 0.0);
+            assertEquals(expected.getLetterDistribution(), actual.getLetterDistribution());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a null batch")
+    public void testRecordGradesNullBatch() {
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.recordGrades(null));
+        assertEquals(0, gradingSystem.recordGrades(List.of()).getRecordedCount());
+    }
+
+    @Test
+    @DisplayName("Should rank students by GPA as grades change")
+    public void testClassRank() {
+        Student student3 = new Student("S003", "Bob Johnson", "bob.johnson@example.com");
+        Student student4 = new Student("S004", "Alice Brown", "alice.brown@example.com");
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addStudent(student3);
+        gradingSystem.addStudent(student4);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(course2);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);  // B: 3.0
+        gradingSystem.recordGrade("S002", "CS101", 95.0);  // A: 4.0
+        gradingSystem.recordGrade("S003", "CS101", 88.0);  // B: 3.0
+
+        assertEquals(List.of(student2, student1, student3), gradingSystem.topStudentsByGpa(10));
+        assertEquals(List.of(student2), gradingSystem.topStudentsByGpa(1));
+        assertTrue(gradingSystem.topStudentsByGpa(0).isEmpty());
+        assertEquals(1, gradingSystem.rankOf("S002"));
+        assertEquals(2, gradingSystem.rankOf("S001"));
+        assertEquals(2, gradingSystem.rankOf("S003"));
+        assertEquals(0, gradingSystem.rankOf("S004"));
+        assertEquals(100.0, gradingSystem.percentileOf("S002"), 0.001);
+        assertEquals(200.0 / 3, gradingSystem.percentileOf("S001"), 0.001);
+        assertEquals(0.0, gradingSystem.percentileOf("S004"), 0.0);
+
+        gradingSystem.recordGrade("S003", "MATH101", 99.0); // (3.0 * 3 + 4.0 * 4) / 7
+        gradingSystem.recordGrade("S002", "CS101", 50.0);   // F: 0.0
+        assertEquals(List.of(student3, student1, student2), gradingSystem.topStudentsByGpa(3));
+        assertEquals(3, gradingSystem.rankOf("S002"));
+
+        gradingSystem.removeCourse("MATH101");
+        assertEquals(List.of(student1, student3, student2), gradingSystem.topStudentsByGpa(3));
+        gradingSystem.removeStudent("S001");
+        assertEquals(List.of(student3, student2), gradingSystem.topStudentsByGpa(3));
+        assertEquals(1, gradingSystem.rankOf("S003"));
+    }
+
+    @Test
+    @DisplayName("Should reject rank queries for unknown students and negative counts")
+    public void testClassRankInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.rankOf("S999"));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.percentileOf("S999"));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.topStudentsByGpa(-1));
+    }
+
+    @Test
+    @DisplayName("Should query a course's grades by value, letter and rank")
+    public void testCourseGradeQueries() {
+        Student student3 = new Student("S003", "Bob Johnson", "bob.johnson@example.com");
+        Student student4 = new Student("S004", "Alice Brown", "alice.brown@example.com");
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addStudent(student3);
+        gradingSystem.addStudent(student4);
+        gradingSystem.addCourse(course1);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S002", "CS101", 59.5);
+        gradingSystem.recordGrade("S003", "CS101", 60.0);
+        gradingSystem.recordGrade("S004", "CS101", 92.0);
+
+        assertEquals(List.of(new Grade(student2, course1, 59.5)),
+                gradingSystem.getGradesForCourseBetween("CS101", 0.0, true, 60.0, false));
+        assertEquals(List.of(new Grade(student2, course1, 59.5), new Grade(student3, course1, 60.0)),
+                gradingSystem.getGradesForCourseBetween("cs101", 0.0, 60.0));
+        assertTrue(gradingSystem.getGradesForCourseBetween("CS101", 60.0, 0.0).isEmpty());
+        assertEquals(List.of(new Grade(student4, course1, 92.0)), gradingSystem.getGradesForCourseWithLetter("CS101", "A"));
+        assertEquals(List.of(new Grade(student3, course1, 60.0)), gradingSystem.getGradesForCourseWithLetter("CS101", "D"));
+        assertTrue(gradingSystem.getGradesForCourseWithLetter("CS101", "C").isEmpty());
+        assertEquals(List.of(new Grade(student4, course1, 92.0), new Grade(student1, course1, 85.0)),
+                gradingSystem.topGradesForCourse("CS101", 2));
+        assertEquals(List.of(new Grade(student2, course1, 59.5)), gradingSystem.bottomGradesForCourse("CS101", 1));
+
+        // Replacing and removing grades moves them in the index and updates the extremes
+        gradingSystem.recordGrade("S002", "CS101", 99.0);
+        gradingSystem.removeStudent("S004");
+        assertEquals(List.of(new Grade(student2, course1, 99.0)), gradingSystem.topGradesForCourse("CS101", 1));
+        assertEquals(List.of(new Grade(student3, course1, 60.0)), gradingSystem.bottomGradesForCourse("CS101", 1));
+        assertEquals(99.0, gradingSystem.getCourseStatistics("CS101").getMax(), 0.0);
+        assertEquals(60.0, gradingSystem.getCourseStatistics("CS101").getMin(), 0.0);
+        assertEquals(3, gradingSystem.getGradesForCourseBetween("CS101", 0.0, 100.0).size());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid course grade queries")
+    public void testCourseGradeQueriesInvalidArguments() {
+        gradingSystem.addCourse(course1);
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.getGradesForCourseBetween("XX999", 0.0, 100.0));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.getGradesForCourseBetween("CS101", Double.NaN, 100.0));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.getGradesForCourseWithLetter("CS101", "E"));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.topGradesForCourse("CS101", -1));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.bottomGradesForCourse("XX999", 1));
+    }
+
+    @Test
+    @DisplayName("Should page and stream a course's grades across batches")
+    public void testCourseGradePagesAndStreams() {
+        gradingSystem.addCourse(course1);
+        for (int i = 0; i < 600; i++) {
+            gradingSystem.addStudent(new Student(String.format("S%04d", i), "Student " + i, "s" + i + "@example.com"));
+            gradingSystem.recordGrade(String.format("S%04d", i), "CS101", i % 101);
+        }
+        List<Grade> all = new ArrayList<>(gradingSystem.getGradesForCourse("CS101"));
+
+        assertEquals(all, gradingSystem.streamGradesForCourse("cs101").collect(Collectors.toList()));
+        assertEquals(all.subList(250, 260), gradingSystem.getGradesForCourse("CS101", 250, 10));
+        assertEquals(all.subList(590, 600), gradingSystem.getGradesForCourse("CS101", 590, 50));
+        assertTrue(gradingSystem.getGradesForCourse("CS101", 600, 10).isEmpty());
+        assertTrue(gradingSystem.getGradesForCourse("CS101", 0, 0).isEmpty());
+        assertTrue(gradingSystem.getGradesForCourse("XX999", 0, 10).isEmpty());
+        assertEquals(0, gradingSystem.streamGradesForCourse("XX999").count());
+        assertEquals(all.size(), gradingSystem.streamAllGrades().count());
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.getGradesForCourse("CS101", -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.getGradesForStudent("S0001", 0, -1));
+    }
+
+    @Test
+    @DisplayName("Should page and stream a student's grades")
+    public void testStudentGradePagesAndStreams() {
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(course2);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);
+        gradingSystem.recordGrade("S001", "MATH101", 92.0);
+        List<Grade> all = new ArrayList<>(gradingSystem.getGradesForStudent("S001"));
+
+        assertEquals(all, gradingSystem.streamGradesForStudent("S001").collect(Collectors.toList()));
+        assertEquals(all.subList(1, 2), gradingSystem.getGradesForStudent("S001", 1, 5));
+        assertEquals(0, gradingSystem.streamGradesForStudent("S999").count());
+    }
+
+    @Test
+    @DisplayName("Should resume a grade stream across changes and fail if its place is lost")
+    public void testGradeStreamUnderChanges() {
+        gradingSystem.addCourse(course1);
+        for (int i = 0; i < 300; i++) {
+            gradingSystem.addStudent(new Student(String.format("S%04d", i), "Student " + i, "s" + i + "@example.com"));
+            gradingSystem.recordGrade(String.format("S%04d", i), "CS101", 70.0);
+        }
+
+        // The first batch holds S0000 to S0255; removing a grade already read is fine
+        Iterator<Grade> iterator = gradingSystem.streamGradesForCourse("CS101").iterator();
+        assertEquals("S0000", iterator.next().getStudent().getStudentId());
+        gradingSystem.removeStudent("S0010");
+        int seen = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            seen++;
+        }
+        assertEquals(300, seen);
+
+        // With S0010 gone the first batch ends at S0256; removing it loses the stream's place
+        Iterator<Grade> broken = gradingSystem.streamGradesForCourse("CS101").iterator();
+        broken.next();
+        gradingSystem.removeStudent("S0256");
+        for (int i = 1; i < 256; i++) {
+            broken.next();
+        }
+        assertThrows(ConcurrentModificationException.class, broken::hasNext);
+
+        // Removing the course ends the stream
+        Iterator<Grade> ended = gradingSystem.streamGradesForCourse("CS101").iterator();
+        ended.next();
+        gradingSystem.removeCourse("CS101");
+        for (int i = 1; i < 256; i++) {
+            ended.next();
+        }
+        assertFalse(ended.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should list students in a GPA range")
+    public void testStudentsWithGpaBetween() {
+        Student student3 = new Student("S003", "Bob Johnson", "bob.johnson@example.com");
+        Student student4 = new Student("S004", "Alice Brown", "alice.brown@example.com");
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addStudent(student3);
+        gradingSystem.addStudent(student4);
+        gradingSystem.addCourse(course1);
+        gradingSystem.recordGrade("S001", "CS101", 85.0);  // B: 3.0
+        gradingSystem.recordGrade("S002", "CS101", 95.0);  // A: 4.0
+        gradingSystem.recordGrade("S003", "CS101", 65.0);  // D: 1.0
+
+        assertEquals(List.of(student2), gradingSystem.studentsWithGpaBetween(3.5, 4.0));
+        assertEquals(List.of(student2, student1), gradingSystem.studentsWithGpaBetween(3.0, 4.0));
+        assertEquals(List.of(student3), gradingSystem.studentsWithGpaBetween(0.0, true, 2.0, false));
+        assertEquals(List.of(student2), gradingSystem.studentsWithGpaBetween(3.0, false, 4.0, true));
+        assertEquals(List.of(student2, student1, student3), gradingSystem.studentsWithGpaBetween(0.0, 4.0));
+        assertTrue(gradingSystem.studentsWithGpaBetween(4.0, 0.0).isEmpty());
+        assertEquals(List.of(student2, student1, student3),
+                gradingSystem.streamStudentsWithGpaBetween(0.0, 4.0).collect(Collectors.toList()));
+        assertEquals(List.of(student1), gradingSystem.streamStudentsWithGpaBetween(2.0, 3.5).collect(Collectors.toList()));
+
+        gradingSystem.removeStudent("S002");
+        assertEquals(List.of(student1), gradingSystem.studentsWithGpaBetween(3.0, 4.0));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.studentsWithGpaBetween(Double.NaN, 4.0));
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.streamStudentsWithGpaBetween(0.0, Double.NaN));
+    }
+
+    @Test
+    @DisplayName("Should stream a GPA range larger than one batch")
+    public void testStreamStudentsWithGpaBetweenLargeCohort() {
+        gradingSystem.addCourse(course1);
+        for (int i = 0; i < 1000; i++) {
+            gradingSystem.addStudent(new Student(String.format("S%04d", i), "Student " + i, "s" + i + "@example.com"));
+            gradingSystem.recordGrade(String.format("S%04d", i), "CS101", 50.0 + i % 50);
+        }
+
+        List<Student> streamed = gradingSystem.streamStudentsWithGpaBetween(0.0, 4.0).collect(Collectors.toList());
+        assertEquals(gradingSystem.studentsWithGpaBetween(0.0, 4.0), streamed);
+        assertEquals(1000, streamed.size());
+        assertEquals(5, gradingSystem.streamStudentsWithGpaBetween(0.0, 4.0).skip(300).limit(5).count());
+    }
+
+    @Test
+    @DisplayName("Should grade courses on their own scale or the system's default")
+    public void testGradingScales() {
+        gradingSystem = new GradingSystem(GradingScale.PLUS_MINUS);
+        gradingSystem.addStudent(student1);
+        gradingSystem.addCourse(course1);
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4, GradingScale.STANDARD));
+        gradingSystem.recordGrade("S001", "CS101", 91.0);
+        gradingSystem.recordGrade("S001", "MATH101", 91.0);
+
+        assertSame(GradingScale.PLUS_MINUS, gradingSystem.getGradingScale());
+        assertSame(GradingScale.PLUS_MINUS, gradingSystem.getGradingScale("cs101"));
+        assertSame(GradingScale.STANDARD, gradingSystem.getGradingScale("MATH101"));
+        assertEquals((3.7 * 3 + 4.0 * 4) / 7, gradingSystem.calculateGPA("S001"), 0.001);
+        Grade grade = gradingSystem.getGradesForCourse("CS101").iterator().next();
+        assertEquals("A-", grade.getLetterGrade());
+        assertEquals(3.7, grade.getGradePoints(), 0.0);
+        assertEquals("A", gradingSystem.getGradesForCourse("MATH101").iterator().next().getLetterGrade());
+        assertEquals(List.of("A-", "A"),
+                new TranscriptGenerator(gradingSystem).generateAll().get(0).getLetterGrades());
+
+        gradingSystem.recordGrade("S001", "CS101", 88.0);
+        assertEquals((3.3 * 3 + 4.0 * 4) / 7, gradingSystem.calculateGPA("S001"), 0.001);
+        CourseStatistics statistics = gradingSystem.getCourseStatistics("CS101");
+        assertEquals(1, statistics.getLetterCount("B+"));
+        assertEquals(0, statistics.getLetterCount("A-"));
+        assertEquals(12, statistics.getLetterDistribution().size());
+        assertEquals(1, gradingSystem.getGradesForCourseWithLetter("CS101", "B+").size());
+        assertTrue(gradingSystem.getGradesForCourseWithLetter("CS101", "B").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> gradingSystem.getGradesForCourseWithLetter("MATH101", "B+"));
+
+        gradingSystem.removeCourse("CS101");
+        assertEquals(4.0, gradingSystem.calculateGPA("S001"), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> new GradingSystem(null));
+    }
+
+    @Test
+    @DisplayName("Should give students with the same plus/minus grades the same GPA and rank")
+    public void testEqualPlusMinusGpas() {
+        gradingSystem = new GradingSystem(GradingScale.PLUS_MINUS);
+        gradingSystem.addStudent(student1);
+        gradingSystem.addStudent(student2);
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 4));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 2));
+        gradingSystem.addCourse(new Course("PHYS101", "Physics I", 1));
+
+        // D-, C and D+ recorded in order, and in reverse after first recording a B
+        String[] courseCodes = {"CS101", "MATH101", "PHYS101"};
+        double[] gradeValues = {61.0, 75.0, 68.0};
+        for (int i = 0; i < courseCodes.length; i++) {
+            gradingSystem.recordGrade("S001", courseCodes[i], gradeValues[i]);
+        }
+        for (int i = courseCodes.length - 1; i >= 0; i--) {
+            gradingSystem.recordGrade("S002", courseCodes[i], 85.0);
+            gradingSystem.recordGrade("S002", courseCodes[i], gradeValues[i]);
+        }
+
+        assertEquals(gradingSystem.calculateGPA("S001"), gradingSystem.calculateGPA("S002"), 0.0);
+        assertEquals((0.7 * 4 + 2.0 * 2 + 1.3 * 1) / 7, gradingSystem.calculateGPA("S001"), 1e-12);
+        assertEquals(1, gradingSystem.rankOf("S001"));
+        assertEquals(1, gradingSystem.rankOf("S002"));
+    }
+
+    @Test
+    @DisplayName("Should answer the same with grades stored off the heap")
+    public void testOffHeapGradeStorage() {
+        GradingSystem heap = new GradingSystem(4, GradingScale.STANDARD, GradeStorage.HEAP);
+        GradingSystem offHeap = new GradingSystem(4, GradingScale.STANDARD, GradeStorage.OFF_HEAP);
+        assertSame(GradeStorage.OFF_HEAP, offHeap.getGradeStorage());
+        assertSame(GradeStorage.HEAP, gradingSystem.getGradeStorage());
+        Random random = new Random(17);
+        for (GradingSystem system : List.of(heap, offHeap)) {
+            for (int c = 0; c < 10; c++) {
+                system.addCourse(new Course("C" + c, "Course " + c, 1 + c % 4));
+            }
+            for (int s = 0; s < 2000; s++) {
+                system.addStudent(new Student("S" + s, "Student " + s, "s" + s + "@example.com"));
+            }
+        }
+        for (int i = 0; i < 20000; i++) {
+            String studentId = "S" + random.nextInt(2000);
+            String courseCode = "C" + random.nextInt(10);
+            double value = random.nextInt(3) == 0 ? random.nextDouble() * 100.0 : random.nextInt(10001) / 100.0;
+            heap.recordGrade(studentId, courseCode, value);
+            offHeap.recordGrade(studentId, courseCode, value);
+            if (i % 5000 == 4999) {
+                // Sort the course's grades first, so the removal hits sorted and pending grades
+                heap.topGradesForCourse(courseCode, 1);
+                offHeap.topGradesForCourse(courseCode, 1);
+                for (GradingSystem system : List.of(heap, offHeap)) {
+                    Student student = system.getStudent(studentId);
+                    system.removeStudent(studentId);
+                    system.addStudent(student);
+                }
+            }
+        }
+        heap.removeCourse("C3");
+        offHeap.removeCourse("C3");
+
+        assertEquals(new ArrayList<>(heap.getAllGrades()), new ArrayList<>(offHeap.getAllGrades()));
+        for (int c = 0; c < 10; c++) {
+            String courseCode = "C" + c;
+            if (c != 3) {
+                assertEquals(heap.getGradesForCourseBetween(courseCode, 40.0, 60.0),
+                        offHeap.getGradesForCourseBetween(courseCode, 40.0, 60.0));
+                assertEquals(heap.bottomGradesForCourse(courseCode, 25), offHeap.bottomGradesForCourse(courseCode, 25));
+                assertEquals(heap.calculateCourseAverage(courseCode), offHeap.calculateCourseAverage(courseCode), 0.0);
+            }
+        }
+        assertEquals(heap.topStudentsByGpa(50), offHeap.topStudentsByGpa(50));
+    }
+}
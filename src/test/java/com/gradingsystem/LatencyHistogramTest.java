@@ -0,0 +1,100 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report nothing before any value is recorded")
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMeanNanos(), 0.0);
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.get99thPercentileNanos());
+    }
+
+    @Test
+    @DisplayName("Should place every value in a bucket no wider than 1/64 of it")
+    public void testBucketBounds() {
+        Random random = new Random(7);
+        List<Long> values = new ArrayList<>(List.of(0L, 1L, 127L, 128L, 129L, 255L, 256L, Long.MAX_VALUE));
+        for (int i = 0; i < 10000; i++) {
+            values.add(random.nextLong() >>> (1 + random.nextInt(63)));
+        }
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS, "value " + value);
+            long highest = LatencyHistogram.highestValueAt(index);
+            long lowest = index == 0 ? 0 : LatencyHistogram.highestValueAt(index - 1) + 1;
+            assertTrue(lowest <= value && value <= highest, "value " + value);
+            assertTrue(highest - lowest <= Math.max(0, lowest / 64), "value " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueAt(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(11);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + (long) (random.nextDouble() * random.nextDouble() * 5_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMaxNanos());
+        assertEquals(Arrays.stream(values).average().getAsDouble(), histogram.getMeanNanos(), 0.001);
+        for (double percentile : new double[] {50.0, 99.0, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+            long reported = histogram.getPercentileNanos(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 64, percentile + ": " + reported);
+        }
+        assertEquals(histogram.getPercentileNanos(50.0), histogram.get50thPercentileNanos());
+        assertEquals(histogram.getPercentileNanos(99.9), histogram.get999thPercentileNanos());
+        assertEquals(histogram.getMaxNanos(), histogram.getPercentileNanos(100.0));
+    }
+
+    @Test
+    @DisplayName("Should count values recorded from many threads and reset")
+    public void testConcurrentRecordingAndReset() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25000; i++) {
+                    histogram.record(i % 500);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100000, histogram.getCount());
+        assertEquals(499, histogram.getMaxNanos());
+        assertEquals(249.5, histogram.getMeanNanos(), 0.0);
+
+        histogram.record(-5);
+        assertEquals(100001, histogram.getCount());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(100.5));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(Double.NaN));
+    }
+}
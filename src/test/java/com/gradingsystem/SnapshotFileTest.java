@@ -0,0 +1,230 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Unit tests for the SnapshotFile class.
+ */
+public class SnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GradingSystem gradingSystem;
+    private Path file;
+
+    @BeforeEach
+    public void setUp() {
+        gradingSystem = new GradingSystem();
+        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+        gradingSystem.addStudent(new Student("S002", "Zoë Müller", "zoe@example.com"));
+        gradingSystem.addStudent(new Student("S003", "Removed Student", "removed@example.com"));
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+        gradingSystem.recordGrade("S001", "CS101", 95.0);
+        gradingSystem.recordGrade("S001", "MATH101", 1.0 / 3.0);
+        gradingSystem.recordGrade("S002", "CS101", 72.25);
+        gradingSystem.recordGrade("S003", "CS101", 60.0);
+        gradingSystem.removeStudent("S003");
+        file = tempDir.resolve("grades.snapshot");
+    }
+
+    private List<String> describe(GradingSystem system) {
+        List<String> described = new ArrayList<>();
+        for (Grade grade : system.getAllGrades()) {
+            described.add(grade.getStudent().getStudentId() + "/" + grade.getCourse().getCourseCode()
+                    + "=" + grade.getGradeValue());
+        }
+        return described;
+    }
+
+    @Test
+    @DisplayName("Should round-trip students, courses, grades and version")
+    public void testRoundTrip() throws IOException {
+        gradingSystem.saveSnapshot(file);
+
+        GradingSystem loaded = GradingSystem.loadSnapshot(file);
+
+        assertEquals(describe(gradingSystem), describe(loaded));
+        assertEquals(1.0 / 3.0, loaded.getGradesForCourse("MATH101").iterator().next().getGradeValue(), 0.0);
+        assertEquals("Zoë Müller", loaded.getStudent("S002").getName());
+        assertEquals("zoe@example.com", loaded.getStudent("S002").getEmail());
+        assertNull(loaded.getStudent("S003"));
+        assertEquals(4, loaded.getCourse("MATH101").getCredits());
+        assertEquals("Calculus I", loaded.getCourse("MATH101").getCourseName());
+        assertEquals(gradingSystem.calculateGPA("S001"), loaded.calculateGPA("S001"), 0.0);
+        assertEquals(gradingSystem.calculateCourseAverage("CS101"), loaded.calculateCourseAverage("CS101"), 0.0);
+        assertEquals(gradingSystem.snapshot().getVersion(), loaded.snapshot().getVersion());
+        assertFalse(loaded.isConcurrent());
+    }
+
+    @Test
+    @DisplayName("Should load a snapshot into a system that stores its grades off the heap")
+    public void testReadOffHeap() throws IOException {
+        gradingSystem.saveSnapshot(file);
+
+        GradingSystem loaded = SnapshotFile.read(file, 4, GradeStorage.OFF_HEAP);
+
+        assertSame(GradeStorage.OFF_HEAP, loaded.getGradeStorage());
+        assertEquals(describe(gradingSystem), describe(loaded));
+        assertEquals(1.0 / 3.0, loaded.getGradesForCourse("MATH101").iterator().next().getGradeValue(), 0.0);
+        assertEquals(gradingSystem.calculateGPA("S001"), loaded.calculateGPA("S001"), 0.0);
+        assertEquals(gradingSystem.topGradesForCourse("CS101", 2), loaded.topGradesForCourse("CS101", 2));
+        assertThrows(IllegalArgumentException.class, () -> SnapshotFile.read(file, 0, null));
+    }
+
+    @Test
+    @DisplayName("Should round-trip the default grading scale and the scale of each course")
+    public void testRoundTripGradingScales() throws IOException {
+        GradingScale passFail = GradingScale.parse("Pass/Fail", "P:50:1.0,F:0:0.0");
+        gradingSystem = new GradingSystem(GradingScale.PLUS_MINUS);
+        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("ART101", "Drawing", 1, passFail));
+        gradingSystem.addCourse(new Course("ART102", "Painting", 1, passFail));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4, GradingScale.STANDARD));
+        gradingSystem.recordGrade("S001", "CS101", 91.0);
+        gradingSystem.recordGrade("S001", "ART101", 55.0);
+        gradingSystem.recordGrade("S001", "MATH101", 91.0);
+        gradingSystem.saveSnapshot(file);
+
+        GradingSystem loaded = GradingSystem.loadSnapshot(file);
+
+        assertEquals(GradingScale.PLUS_MINUS, loaded.getGradingScale());
+        assertEquals("Plus/Minus", loaded.getGradingScale().getName());
+        assertNull(loaded.getCourse("CS101").getGradingScale());
+        assertEquals(passFail, loaded.getCourse("ART101").getGradingScale());
+        assertSame(loaded.getCourse("ART101").getGradingScale(), loaded.getCourse("ART102").getGradingScale());
+        assertEquals(GradingScale.STANDARD, loaded.getCourse("MATH101").getGradingScale());
+        assertEquals(gradingSystem.calculateGPA("S001"), loaded.calculateGPA("S001"), 0.0);
+        assertEquals("A-", loaded.getGradesForCourse("CS101").iterator().next().getLetterGrade());
+        assertEquals(1, loaded.getCourseStatistics("ART101").getLetterCount("P"));
+    }
+
+    @Test
+    @DisplayName("Should read format version 1 files on the standard scale")
+    public void testReadsFormatVersion1() throws IOException {
+        ByteBuffer content = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        content.putInt(SnapshotFile.MAGIC).putInt(1).putLong(3L);
+        content.putInt(1).putInt(1).putInt(1).putInt(0);
+        for (String value : new String[]{"S001", "John Doe", "john.doe@example.com", "CS101", "Intro"}) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            content.putInt(bytes.length).put(bytes);
+        }
+        content.putInt(3);
+        content.putInt(0).putInt(0).putShort((short) 8550);
+        CRC32 crc = new CRC32();
+        crc.update(content.array(), 0, content.position());
+        content.putInt((int) crc.getValue());
+        Files.write(file, Arrays.copyOf(content.array(), content.position()));
+
+        GradingSystem loaded = GradingSystem.loadSnapshot(file);
+
+        assertSame(GradingScale.STANDARD, loaded.getGradingScale());
+        assertNull(loaded.getCourse("CS101").getGradingScale());
+        assertEquals(85.5, loaded.getGradesForCourse("CS101").iterator().next().getGradeValue(), 0.0);
+        assertEquals(3.0, loaded.calculateGPA("S001"), 0.0);
+        assertEquals(3L, loaded.snapshot().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should load into a concurrent system when asked")
+    public void testLoadConcurrent() throws IOException {
+        gradingSystem.saveSnapshot(file);
+
+        GradingSystem loaded = SnapshotFile.read(file, 8);
+
+        assertTrue(loaded.isConcurrent());
+        assertEquals(describe(gradingSystem), describe(loaded));
+    }
+
+    @Test
+    @DisplayName("Should replace an existing file and leave no temporary files")
+    public void testReplacesExistingFile() throws IOException {
+        gradingSystem.saveSnapshot(file);
+        gradingSystem.recordGrade("S002", "MATH101", 88.0);
+        gradingSystem.saveSnapshot(file);
+
+        assertEquals(describe(gradingSystem), describe(GradingSystem.loadSnapshot(file)));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should round-trip an empty system")
+    public void testEmptySystem() throws IOException {
+        new GradingSystem().saveSnapshot(file);
+
+        GradingSystem loaded = GradingSystem.loadSnapshot(file);
+
+        assertTrue(loaded.getAllStudents().isEmpty());
+        assertTrue(loaded.getAllCourses().isEmpty());
+        assertTrue(loaded.getAllGrades().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should round-trip many grades")
+    public void testManyGrades() throws IOException {
+        GradingSystem large = new GradingSystem();
+        for (int s = 0; s < 2000; s++) {
+            large.addStudent(new Student("S" + s, "Student " + s, "s" + s + "@example.com"));
+        }
+        for (int c = 0; c < 40; c++) {
+            large.addCourse(new Course("C" + c, "Course " + c, 1 + c % 4));
+        }
+        for (int s = 0; s < 2000; s++) {
+            for (int c = s % 7; c < 40; c += 7) {
+                large.recordGrade("S" + s, "C" + c, (s * 31 + c * 17) % 10001 / 100.0);
+            }
+        }
+        large.saveSnapshot(file);
+
+        GradingSystem loaded = GradingSystem.loadSnapshot(file);
+
+        assertEquals(large.getAllGrades().size(), loaded.getAllGrades().size());
+        for (int s = 0; s < 2000; s += 97) {
+            assertEquals(large.calculateGPA("S" + s), loaded.calculateGPA("S" + s), 0.0);
+        }
+        assertEquals(large.getCourseStatistics("C3").getLetterDistribution(),
+                loaded.getCourseStatistics("C3").getLetterDistribution());
+    }
+
+    @Test
+    @DisplayName("Should reject corrupt, foreign and unsupported files")
+    public void testRejectsBadFiles() throws IOException {
+        gradingSystem.saveSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        IOException corrupt = assertThrows(IOException.class, () -> GradingSystem.loadSnapshot(file));
+        assertTrue(corrupt.getMessage().contains("checksum"));
+
+        Files.writeString(file, "student,course,grade\n");
+        assertThrows(IOException.class, () -> GradingSystem.loadSnapshot(file));
+
+        ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SnapshotFile.MAGIC).putInt(SnapshotFile.FORMAT_VERSION + 1);
+        Files.write(file, header.array());
+        IOException unsupported = assertThrows(IOException.class, () -> GradingSystem.loadSnapshot(file));
+        assertTrue(unsupported.getMessage().contains("version"));
+
+        Files.write(file, new byte[0]);
+        assertThrows(IOException.class, () -> GradingSystem.loadSnapshot(file));
+    }
+}
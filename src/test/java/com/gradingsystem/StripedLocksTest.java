@@ -0,0 +1,82 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StripedLocks class.
+ */
+public class StripedLocksTest {
+
+    @Test
+    @DisplayName("Should round stripe counts up to a power of two")
+    public void testStripeRounding() {
+        assertEquals(0, new StripedLocks(0).stripes());
+        assertEquals(1, new StripedLocks(1).stripes());
+        assertEquals(8, new StripedLocks(5).stripes());
+        assertEquals(16, new StripedLocks(16).stripes());
+        assertEquals(StripedLocks.MAX_STRIPES, new StripedLocks(Integer.MAX_VALUE).stripes());
+    }
+
+    @Test
+    @DisplayName("Should reject a negative stripe count")
+    public void testNegativeStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(-1));
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    public void testDisabled() {
+        StripedLocks locks = new StripedLocks(0);
+
+        assertFalse(locks.isEnabled());
+        locks.lock(7);
+        locks.unlock(7);
+        locks.lockAll();
+        locks.unlockAll();
+        assertEquals(0, locks.lockKeys(new int[] {1, 2}, 2).length);
+    }
+
+    @Test
+    @DisplayName("Should lock the distinct stripes of several keys in ascending order")
+    public void testLockKeys() {
+        StripedLocks locks = new StripedLocks(4);
+
+        int[] stripes = locks.lockKeys(new int[] {7, 1, 5, 3, 2, 99}, 5);
+        try {
+            assertArrayEquals(new int[] {1, 2, 3}, stripes);
+        } finally {
+            locks.unlockStripes(stripes);
+        }
+    }
+
+    @Test
+    @DisplayName("Should exclude other threads from a held stripe")
+    public void testMutualExclusion() throws InterruptedException {
+        StripedLocks locks = new StripedLocks(4);
+        int[] counter = new int[1];
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    // Keys 2, 6, 10 ... all share stripe 2
+                    int key = 2 + 4 * i;
+                    locks.lock(key);
+                    try {
+                        counter[0]++;
+                    } finally {
+                        locks.unlock(key);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, counter[0]);
+    }
+}
@@ -0,0 +1,79 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the SymbolTable class.
+ */
+public class SymbolTableTest {
+
+    @Test
+    @DisplayName("Should assign dense handles in insertion order")
+    public void testDenseHandles() {
+        SymbolTable<String> table = new SymbolTable<>();
+
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, table.add("K" + i, "V" + i));
+        }
+
+        assertEquals(40, table.size());
+        assertEquals(40, table.capacity());
+        assertEquals(17, table.handleOf("K17"));
+        assertEquals("V17", table.get(17));
+    }
+
+    @Test
+    @DisplayName("Should not resolve unknown keys or handles")
+    public void testUnknownKeysAndHandles() {
+        SymbolTable<String> table = new SymbolTable<>();
+        table.add("K0", "V0");
+
+        assertEquals(-1, table.handleOf("missing"));
+        assertNull(table.get(-1));
+        assertNull(table.get(1));
+        assertNull(table.get(1000));
+    }
+
+    @Test
+    @DisplayName("Should retire handles on removal without reusing them")
+    public void testRemoveRetiresHandle() {
+        SymbolTable<String> table = new SymbolTable<>();
+        table.add("K0", "V0");
+        table.add("K1", "V1");
+
+        assertEquals(0, table.remove("K0"));
+        assertEquals(-1, table.remove("K0"));
+        assertNull(table.get(0));
+        assertEquals(-1, table.handleOf("K0"));
+
+        assertEquals(2, table.add("K0", "V0 again"));
+        assertEquals(2, table.size());
+        assertEquals(List.of("V1", "V0 again"), table.values());
+    }
+
+    @Test
+    @DisplayName("Should keep snapshots unchanged by later adds and removals")
+    public void testSnapshotIsolation() {
+        SymbolTable<String> table = new SymbolTable<>();
+        table.add("K0", "V0");
+        table.add("K1", "V1");
+
+        SymbolTable.Snapshot<String> snapshot = table.snapshot();
+        table.remove("K0");
+        for (int i = 2; i < 40; i++) {
+            table.add("K" + i, "V" + i);
+        }
+
+        assertEquals(List.of("V0", "V1"), new ArrayList<>(snapshot));
+        assertEquals(2, snapshot.size());
+        assertEquals("V0", snapshot.get(0));
+        assertNull(snapshot.get(2));
+        assertNull(table.get(0));
+        assertEquals(39, table.size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add("V99"));
+    }
+}
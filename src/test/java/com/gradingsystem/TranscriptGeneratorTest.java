@@ -0,0 +1,105 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the TranscriptGenerator class.
+ */
+public class TranscriptGeneratorTest {
+    private static final int STUDENTS = 2000;
+    private static final int COURSES = 20;
+
+    private GradingSystem gradingSystem;
+
+    @BeforeEach
+    public void setUp() {
+        gradingSystem = new GradingSystem(8);
+        for (int c = 0; c < COURSES; c++) {
+            gradingSystem.addCourse(new Course("C" + c, "Course " + c, 1 + c % 4));
+        }
+        Random random = new Random(31);
+        for (int s = 0; s < STUDENTS; s++) {
+            gradingSystem.addStudent(new Student("S" + s, "Student " + s, "s" + s + "@example.com"));
+            int gradeCount = random.nextInt(8);
+            for (int g = 0; g < gradeCount; g++) {
+                gradingSystem.recordGrade("S" + s, "C" + random.nextInt(COURSES), random.nextInt(101));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should build every transcript in the order students were added")
+    public void testGenerateAll() {
+        gradingSystem.removeStudent("S5");
+        gradingSystem.removeStudent("S1500");
+
+        List<Transcript> transcripts = new TranscriptGenerator(gradingSystem, 4).generateAll();
+
+        assertEquals(STUDENTS - 2, transcripts.size());
+        int position = 0;
+        for (int s = 0; s < STUDENTS; s++) {
+            if (s == 5 || s == 1500) {
+                continue;
+            }
+            assertTranscript("S" + s, transcripts.get(position++));
+        }
+    }
+
+    @Test
+    @DisplayName("Should build transcripts for a subset in the order given")
+    public void testGenerateSubset() {
+        List<String> ids = Arrays.asList("S1999", "S0", "S42", "S0");
+
+        List<Transcript> transcripts = new TranscriptGenerator(gradingSystem).generate(ids);
+
+        assertEquals(ids.size(), transcripts.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertTranscript(ids.get(i), transcripts.get(i));
+        }
+        assertTrue(new TranscriptGenerator(gradingSystem).generate(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should produce the same output whatever the parallelism")
+    public void testDeterministicOutput() {
+        List<Transcript> sequential = new TranscriptGenerator(gradingSystem, 1).generateAll();
+        List<Transcript> parallel = new TranscriptGenerator(gradingSystem, 8).generateAll();
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getStudent(), parallel.get(i).getStudent());
+            assertEquals(sequential.get(i).getGrades(), parallel.get(i).getGrades());
+            assertEquals(sequential.get(i).getGpa(), parallel.get(i).getGpa(), 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown students and invalid arguments")
+    public void testInvalidArguments() {
+        TranscriptGenerator generator = new TranscriptGenerator(gradingSystem);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(List.of("S0", "S999999")));
+        assertThrows(IllegalArgumentException.class, () -> new TranscriptGenerator(null));
+        assertThrows(IllegalArgumentException.class, () -> new TranscriptGenerator(gradingSystem, 0));
+        assertEquals(3, new TranscriptGenerator(gradingSystem, 3).getParallelism());
+    }
+
+    private void assertTranscript(String studentId, Transcript transcript) {
+        assertEquals(gradingSystem.getStudent(studentId), transcript.getStudent());
+        assertEquals(gradingSystem.calculateGPA(studentId), transcript.getGpa(), 0.0);
+        List<Grade> grades = new ArrayList<>(gradingSystem.getGradesForStudent(studentId));
+        assertEquals(grades, transcript.getGrades());
+        int credits = 0;
+        for (int i = 0; i < grades.size(); i++) {
+            assertEquals(grades.get(i).getLetterGrade(), transcript.getLetterGrades().get(i));
+            credits += grades.get(i).getCourse().getCredits();
+        }
+        assertEquals(credits, transcript.getTotalCredits());
+    }
+}
@@ -0,0 +1,390 @@
+package com.gradingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for the WriteAheadLog class.
+ */
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile() {
+        return tempDir.resolve("grades.wal");
+    }
+
+    private Path snapshotFile() {
+        return tempDir.resolve("grades.snapshot");
+    }
+
+    private void populate(GradingSystem gradingSystem) {
+        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+        gradingSystem.addStudent(new Student("S002", "Jane Smith", "jane.smith@example.com"));
+        gradingSystem.addStudent(new Student("S003", "Bob Johnson", "bob.johnson@example.com"));
+        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+        gradingSystem.addCourse(new Course("MATH101", "Calculus I", 4));
+        gradingSystem.addCourse(new Course("PHYS101", "Physics I", 4));
+        gradingSystem.recordGrade("S001", "CS101", 95.0);
+        gradingSystem.recordGrade("S001", "MATH101", 1.0 / 3.0);
+        gradingSystem.recordGrade("S002", "CS101", 72.25);
+        gradingSystem.recordGrade("S001", "CS101", 88.0);
+        gradingSystem.recordGrade("S003", "PHYS101", 60.0);
+        gradingSystem.recordGrades(List.of(
+                new GradeRecord("S002", "MATH101", 81.0),
+                new GradeRecord("S999", "MATH101", 70.0),
+                new GradeRecord("S003", "MATH101", 64.5)));
+        gradingSystem.removeStudent("S003");
+        gradingSystem.removeCourse("PHYS101");
+    }
+
+    private List<String> describe(GradingSystem gradingSystem) {
+        List<String> described = new ArrayList<>();
+        for (Student student : gradingSystem.getAllStudents()) {
+            described.add(student.getStudentId() + " " + student.getName() + " " + gradingSystem.calculateGPA(student.getStudentId()));
+        }
+        for (Course course : gradingSystem.getAllCourses()) {
+            described.add(course.getCourseCode() + " " + course.getCredits() + " " + course.getCourseName());
+        }
+        for (Grade grade : gradingSystem.getAllGrades()) {
+            described.add(grade.getStudent().getStudentId() + "/" + grade.getCourse().getCourseCode()
+                    + "=" + grade.getGradeValue());
+        }
+        return described;
+    }
+
+    @Test
+    @DisplayName("Should replay every logged change after a crash")
+    public void testRecoverAfterCrash() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(logFile());
+        GradingSystem gradingSystem = log.recover(snapshotFile());
+        populate(gradingSystem);
+        List<String> expected = describe(gradingSystem);
+        long version = gradingSystem.snapshot().getVersion();
+        // Simulate a crash by abandoning the log without closing it
+
+        try (WriteAheadLog reopened = new WriteAheadLog(logFile())) {
+            GradingSystem recovered = reopened.recover(snapshotFile());
+
+            assertEquals(expected, describe(recovered));
+            assertEquals(version, recovered.snapshot().getVersion());
+            assertNull(recovered.getStudent("S003"));
+            assertNull(recovered.getCourse("PHYS101"));
+        }
+        log.close();
+    }
+
+    @Test
+    @DisplayName("Should replay bulk removals")
+    public void testRecoverBulkRemovals() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(logFile());
+        GradingSystem gradingSystem = log.recover(snapshotFile());
+        populate(gradingSystem);
+        assertEquals(2, gradingSystem.removeStudents(List.of("S001", "S003", "S002")));
+        gradingSystem.addStudent(new Student("S004", "Alice Brown", "alice.brown@example.com"));
+        gradingSystem.recordGrade("S004", "CS101", 77.0);
+        assertEquals(1, gradingSystem.removeCourses(List.of("MATH101", "PHYS101")));
+        List<String> expected = describe(gradingSystem);
+
+        try (WriteAheadLog reopened = new WriteAheadLog(logFile())) {
+            assertEquals(expected, describe(reopened.recover(snapshotFile())));
+        }
+        log.close();
+    }
+
+    @Test
+    @DisplayName("Should replay courses with their grading scale and start empty on the given default")
+    public void testRecoverGradingScales() throws IOException {
+        GradingScale passFail = GradingScale.parse("Pass/Fail", "P:50:1.0,F:0:0.0");
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            GradingSystem gradingSystem = log.recover(snapshotFile(), 0, GradingScale.PLUS_MINUS);
+            assertSame(GradingScale.PLUS_MINUS, gradingSystem.getGradingScale());
+            gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+            gradingSystem.addCourse(new Course("ART101", "Drawing", 1, passFail));
+            gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+            gradingSystem.recordGrade("S001", "ART101", 55.0);
+            gradingSystem.recordGrade("S001", "CS101", 88.0);
+        }
+
+        try (WriteAheadLog reopened = new WriteAheadLog(logFile())) {
+            GradingSystem recovered = reopened.recover(snapshotFile(), 0, GradingScale.PLUS_MINUS);
+
+            assertEquals(passFail, recovered.getCourse("ART101").getGradingScale());
+            assertNull(recovered.getCourse("CS101").getGradingScale());
+            assertEquals((1.0 + 3.3 * 3) / 4, recovered.calculateGPA("S001"), 0.001);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay only the changes made after the snapshot")
+    public void testRecoverOnTopOfSnapshot() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(logFile());
+        GradingSystem gradingSystem = log.recover(snapshotFile());
+        populate(gradingSystem);
+        gradingSystem.saveSnapshot(snapshotFile());
+        gradingSystem.recordGrade("S002", "CS101", 99.0);
+        gradingSystem.addStudent(new Student("S004", "Alice Brown", "alice.brown@example.com"));
+        gradingSystem.recordGrade("S004", "MATH101", 77.0);
+        log.close();
+
+        try (WriteAheadLog reopened = new WriteAheadLog(logFile())) {
+            GradingSystem recovered = reopened.recover(snapshotFile(), 4);
+
+            assertTrue(recovered.isConcurrent());
+            assertEquals(describe(gradingSystem), describe(recovered));
+            assertEquals(gradingSystem.snapshot().getVersion(), recovered.snapshot().getVersion());
+        }
+    }
+
+    @Test
+    @DisplayName("Should discard a torn record at the end of the log and append after the last good one")
+    public void testTornTail() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            populate(log.recover(snapshotFile()));
+        }
+        long goodSize = Files.size(logFile());
+        Files.write(logFile(), new byte[] {40, 0, 0, 0, 5, 1, 2}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            GradingSystem recovered = log.recover(snapshotFile());
+            assertEquals(goodSize, Files.size(logFile()));
+            recovered.recordGrade("S002", "CS101", 50.0);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            assertEquals((88.0 + 50.0) / 2, log.recover(snapshotFile()).calculateCourseAverage("CS101"), 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should log a batch as one record with one sync")
+    public void testBatchIsOneRecord() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            GradingSystem gradingSystem = log.recover(snapshotFile());
+            gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+            gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+            long records = log.getRecordCount();
+            long syncs = log.getSyncCount();
+            List<GradeRecord> batch = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                batch.add(new GradeRecord("S001", "CS101", i % 101));
+            }
+
+            gradingSystem.recordGrades(batch);
+
+            assertEquals(records + 1, log.getRecordCount());
+            assertEquals(syncs + 1, log.getSyncCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should share forces between concurrent writers")
+    public void testGroupCommit() throws Exception {
+        int threads = 8;
+        int gradesPerThread = 200;
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            GradingSystem gradingSystem = log.recover(snapshotFile(), 16);
+            gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+            for (int t = 0; t < threads; t++) {
+                gradingSystem.addStudent(new Student("S" + t, "Student " + t, "s" + t + "@example.com"));
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    String studentId = "S" + t;
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < gradesPerThread; i++) {
+                            gradingSystem.recordGrade(studentId, "CS101", i % 101);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            assertEquals(threads * gradesPerThread + threads + 1, log.getRecordCount());
+            assertTrue(log.getSyncCount() <= log.getRecordCount());
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            GradingSystem recovered = log.recover(snapshotFile());
+            for (int t = 0; t < threads; t++) {
+                assertEquals((gradesPerThread - 1) % 101, recovered.getGradesForStudent("S" + t).iterator().next().getGradeValue(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should log a new student or course before a concurrent grade that sees it")
+    public void testAddLoggedBeforeConcurrentGrade() throws Exception {
+        for (int run = 0; run < 20; run++) {
+            Path file = tempDir.resolve("race" + run + ".wal");
+            boolean newStudent = run % 2 == 0;
+            try (WriteAheadLog log = new WriteAheadLog(file)) {
+                GradingSystem gradingSystem = log.recover(null, 4);
+                if (newStudent) {
+                    gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+                } else {
+                    gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+                }
+                Thread adder = new Thread(() -> {
+                    if (newStudent) {
+                        gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com"));
+                    } else {
+                        gradingSystem.addCourse(new Course("CS101", "Introduction to Computer Science", 3));
+                    }
+                });
+                Thread grader = new Thread(() -> {
+                    while (true) {
+                        try {
+                            gradingSystem.recordGrade("S001", "CS101", 90.0);
+                            return;
+                        } catch (IllegalArgumentException e) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+                // Holding the log's monitor stalls the add at its record, widening the window
+                synchronized (log) {
+                    adder.start();
+                    grader.start();
+                    while (adder.getState() != Thread.State.BLOCKED) {
+                        Thread.onSpinWait();
+                    }
+                    Thread.sleep(5);
+                }
+                adder.join();
+                grader.join();
+            }
+
+            try (WriteAheadLog log = new WriteAheadLog(file)) {
+                GradingSystem recovered = log.recover(null);
+                assertEquals(90.0, recovered.getGradesForStudent("S001").iterator().next().getGradeValue(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay adds and grades on the new IDs written concurrently")
+    public void testRecoverConcurrentAddsAndGrades() throws Exception {
+        int students = 200;
+        int graders = 3;
+        List<String> expected;
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            GradingSystem gradingSystem = log.recover(snapshotFile(), 16);
+            ExecutorService pool = Executors.newFixedThreadPool(graders + 1);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < students; i++) {
+                        if (i % 20 == 0) {
+                            gradingSystem.addCourse(new Course("C" + i / 20, "Course " + i / 20, 3));
+                        }
+                        gradingSystem.addStudent(new Student("S" + i, "Student " + i, "s" + i + "@example.com"));
+                    }
+                }));
+                for (int g = 0; g < graders; g++) {
+                    int first = g;
+                    futures.add(pool.submit(() -> {
+                        // Each grade is recorded as soon as its student and course exist
+                        for (int i = first; i < students; i += graders) {
+                            while (true) {
+                                try {
+                                    gradingSystem.recordGrade("S" + i, "C" + i / 20, i % 101);
+                                    break;
+                                } catch (IllegalArgumentException e) {
+                                    Thread.onSpinWait();
+                                }
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            // Grades are listed by row, which depends on how the writers interleaved
+            expected = describe(gradingSystem);
+            expected.sort(null);
+            assertEquals(students, gradingSystem.getAllGrades().size());
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            List<String> recovered = describe(log.recover(snapshotFile()));
+            recovered.sort(null);
+            assertEquals(expected, recovered);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write without forcing under the interval and never policies")
+    public void testLazySyncPolicies() throws IOException {
+        for (WriteAheadLog.SyncPolicy policy : List.of(WriteAheadLog.SyncPolicy.INTERVAL, WriteAheadLog.SyncPolicy.NEVER)) {
+            Path file = tempDir.resolve(policy + ".wal");
+            WriteAheadLog log = new WriteAheadLog(file, policy, 60_000);
+            GradingSystem gradingSystem = log.recover(null);
+            populate(gradingSystem);
+
+            assertEquals(0, log.getSyncCount());
+            try (WriteAheadLog reopened = new WriteAheadLog(file)) {
+                assertEquals(describe(gradingSystem), describe(reopened.recover(null)));
+            }
+            log.close();
+            assertEquals(1, log.getSyncCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a log that does not continue the snapshot")
+    public void testRejectsGap() throws IOException {
+        GradingSystem gradingSystem = new GradingSystem();
+        populate(gradingSystem);
+        gradingSystem.saveSnapshot(snapshotFile());
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            log.recover(snapshotFile()).recordGrade("S001", "CS101", 70.0);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile())) {
+            IOException gap = assertThrows(IOException.class, () -> log.recover(tempDir.resolve("missing.snapshot")));
+            assertTrue(gap.getMessage().contains("does not continue"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject foreign files, reuse and use after close")
+    public void testInvalidUse() throws IOException {
+        Files.writeString(logFile(), "student,course,grade\n");
+        WriteAheadLog foreign = new WriteAheadLog(logFile());
+        assertThrows(IOException.class, () -> foreign.recover(snapshotFile()));
+
+        Path file = tempDir.resolve("fresh.wal");
+        WriteAheadLog log = new WriteAheadLog(file);
+        GradingSystem gradingSystem = log.recover(snapshotFile());
+        assertThrows(IllegalStateException.class, () -> log.recover(snapshotFile()));
+        log.close();
+        assertThrows(IllegalStateException.class,
+                () -> gradingSystem.addStudent(new Student("S001", "John Doe", "john.doe@example.com")));
+
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(null));
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(file, null));
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(file, WriteAheadLog.SyncPolicy.INTERVAL, 0));
+    }
+}